@@ -0,0 +1,25 @@
+package aa4j.test;
+
+/**
+ * Runs the behavior checks of all suites in this package. Exits with status 1 if any check failed.
+ */
+@SuppressWarnings("javadoc")
+public class AllTests {
+
+	public static void main(String[] args) {
+		CompletionCoreTest.checks();
+		CompletedTaskTest.checks();
+		CombinedTaskTest.checks();
+		AwaitTest.checks();
+		TaskCompletionQueueTest.checks();
+		TaskPublisherTest.checks();
+		ListenerTest.checks();
+		MapTest.checks();
+		OutcomeTest.checks();
+		StreamTest.checks();
+		PrimitiveTaskTest.checks();
+		ParallelTaskTest.checks();
+		TimeoutTaskTest.checks();
+		Checks.finish();
+	}
+}
@@ -0,0 +1,69 @@
+package aa4j.test;
+
+import java.util.Arrays;
+
+import aa4j.WaitStrategy;
+import aa4j.task.TaskAccess;
+import aa4j.task.Tasks;
+
+/**
+ * Measures the time between the completion of a task and the moment the waiting thread resumes.
+ * A second thread completes each task a few microseconds after the waiting thread started to wait.
+ * Prints latency percentiles for different {@link WaitStrategy}s.
+ * The spin phase only runs on machines with more than one processor, so on a single processor the strategies
+ * differ only in their yield phase.
+ */
+@SuppressWarnings("javadoc")
+public class AwaitLatencyBenchmark {
+
+	private static final int WARMUP = 5_000;
+	private static final int SAMPLES = 20_000;
+	private static final long COMPLETION_DELAY_NANOS = 5_000;
+
+	private static volatile TaskAccess<Void> pending;
+	private static volatile long completedAt;
+
+	public static void main(String[] args) throws InterruptedException {
+		final var completer = new Thread(AwaitLatencyBenchmark::completeTasks);
+		completer.setDaemon(true);
+		completer.start();
+
+		final WaitStrategy[] strategies = { WaitStrategy.park(), WaitStrategy.lowLatency(), WaitStrategy.spinThenPark(1 << 14, 16) };
+		for(var strategy : strategies) {
+			run(strategy, WARMUP);
+			final var latencies = run(strategy, SAMPLES);
+			Arrays.sort(latencies);
+			System.out.printf("%-50s p50 %6.1f us  p90 %6.1f us  p99 %6.1f us  p99.9 %7.1f us%n", strategy,
+					percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99), percentile(latencies, 0.999));
+		}
+	}
+
+	private static long[] run(WaitStrategy strategy, int samples) {
+		final var latencies = new long[samples];
+		for(int i = 0; i < samples; i++) {
+			final TaskAccess<Void> access = Tasks.create();
+			pending = access;
+			access.task().sync(-1, null, null, false, strategy);
+			latencies[i] = System.nanoTime() - completedAt;
+		}
+		return latencies;
+	}
+
+	private static void completeTasks() {
+		while(true) {
+			var access = pending;
+			if(access == null || access.task().isDone()) {
+				Thread.yield(); //Don't steal the processor from the waiting thread on small machines
+				continue;
+			}
+			final long start = System.nanoTime();
+			while(System.nanoTime() - start < COMPLETION_DELAY_NANOS) Thread.onSpinWait();
+			completedAt = System.nanoTime();
+			access.tcs().succeed();
+		}
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		return sorted[(int) Math.min(sorted.length - 1, Math.round(p * sorted.length))] / 1000.0;
+	}
+}
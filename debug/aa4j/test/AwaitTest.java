@@ -0,0 +1,173 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.counting;
+import static aa4j.test.Checks.run;
+import static aa4j.test.Checks.uncollected;
+import static aa4j.test.Checks.within;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aa4j.Awaiter;
+import aa4j.WaitStrategy;
+import aa4j.task.SyncResult;
+import aa4j.task.TaskAccess;
+import aa4j.task.TaskOf;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for waiting threads: {@link Awaiter}, wait strategies and waiting for many tasks at once.
+ */
+@SuppressWarnings("javadoc")
+public class AwaitTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("awaitAny removes handlers of losing tasks", AwaitTest::awaitAnyRemovesHandlers);
+		run("awaitAll removes handlers after a timeout", AwaitTest::awaitAllRemovesHandlers);
+		run("awaiter lets go of unused permits", AwaitTest::awaiterReleasesPermits);
+		run("spinning ends at the deadline", AwaitTest::spinDeadline);
+		run("await overloads take a wait strategy", AwaitTest::strategyOverloads);
+		run("waiting for done tasks does not allocate", AwaitTest::doneTasksFastPath);
+		run("waiting for tasks in any collection", AwaitTest::anyCollection);
+		run("interrupted await with a strategy", AwaitTest::strategyInterrupt);
+	}
+
+	private static void awaitAnyRemovesHandlers() throws Exception {
+		final var open = new AtomicInteger();
+		final TaskAccess<Integer> loser = Tasks.create();
+		final var losingView = counting(loser, open, () -> {});
+		for(int i = 0; i < 100; i++) {
+			final TaskAccess<Integer> winnerAccess = Tasks.create();
+			final var winner = counting(winnerAccess, open, () -> winnerAccess.tcsOf().succeed(1));
+			final var first = Tasks.awaitAny(List.of(losingView, winner));
+			check(first == winner, "Wrong task returned");
+		}
+		check(open.get() == 0, open.get() + " handlers left on the tasks");
+	}
+
+	private static void awaitAllRemovesHandlers() throws Exception {
+		final var open = new AtomicInteger();
+		final var pending = counting(Tasks.create(), open, () -> {});
+		for(int i = 0; i < 100; i++) {
+			try {
+				Tasks.awaitAll(List.of(pending, Tasks.success(1)), 1, TimeUnit.MICROSECONDS);
+				throw new AssertionError("awaitAll did not time out");
+			} catch (TimeoutException expected) {
+				//The task never completes
+			}
+		}
+		check(open.get() == 0, open.get() + " handlers left on the task");
+	}
+
+	private static void awaiterReleasesPermits() throws Exception {
+		final var awaiter = new Awaiter();
+		final var permits = new ArrayList<WeakReference<Object>>();
+		for(int i = 0; i < 100; i++) {
+			final var permit = new Object();
+			permits.add(new WeakReference<>(permit));
+			try {
+				awaiter.await(permit, 1, TimeUnit.MICROSECONDS);
+				throw new AssertionError("await did not time out");
+			} catch (TimeoutException expected) {
+				//Nobody grants the permit
+			}
+		}
+		final int left = uncollected(permits);
+		check(left == 0, left + " permits are still kept by the awaiter");
+		awaiter.signalAll("granted");
+		check(awaiter.await("granted", 0, TimeUnit.NANOSECONDS) == "granted", "Granted permit was not kept");
+	}
+
+	private static void spinDeadline() throws Exception {
+		final var endless = WaitStrategy.spinThenPark(Integer.MAX_VALUE, Integer.MAX_VALUE);
+		within(1000, () -> {
+			final var result = Tasks.create().taskOf().sync(1, TimeUnit.MILLISECONDS, null, true, endless);
+			check(result == SyncResult.WAIT_TIMEOUT, "Wrong result " + result);
+		});
+		within(1000, () -> {
+			try {
+				new Awaiter(endless).await("permit", 1, TimeUnit.MILLISECONDS);
+				throw new AssertionError("await did not time out");
+			} catch (TimeoutException expected) {
+				//Nobody grants the permit
+			}
+		});
+	}
+
+	private static void strategyOverloads() throws Exception {
+		final var strategy = WaitStrategy.lowLatency();
+		within(Checks.TIMEOUT_SECONDS * 1000, () -> {
+			final TaskAccess<Integer> first = Tasks.create();
+			final TaskAccess<Integer> second = Tasks.create();
+			final var completer = new Thread(() -> {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					return;
+				}
+				first.tcsOf().succeed(1);
+				second.tcsOf().succeed(2);
+			});
+			completer.start();
+			check(Tasks.awaitAny(List.of(first.taskOf(), second.taskOf()), strategy).isDone(), "awaitAny returned a running task");
+			Tasks.awaitAll(List.of(first.taskOf(), second.taskOf()), strategy);
+			check(first.taskOf().await(strategy).getResult() == 1, "Wrong result");
+			check(Checks.foreign(second.taskOf()).await(strategy).getResult() == 2, "Wrong result of the default method");
+		});
+	}
+
+	private static void strategyInterrupt() throws Exception {
+		final var pending = Tasks.create().taskOf();
+		for(var task : List.of(pending, Checks.foreign(pending))) {
+			Thread.currentThread().interrupt();
+			try {
+				task.await(WaitStrategy.park());
+				throw new AssertionError("await was not interrupted");
+			} catch (InterruptedException expected) {
+				check(!Thread.interrupted(), "Interrupt flag is still set after the InterruptedException");
+			}
+		}
+	}
+
+	private static void doneTasksFastPath() throws Exception {
+		final var threads = ManagementFactory.getThreadMXBean();
+		if(!(threads instanceof com.sun.management.ThreadMXBean)) return; //Allocation cannot be measured on this VM
+		final var allocation = (com.sun.management.ThreadMXBean) threads;
+		final var tasks = List.of(Tasks.success(1), Tasks.success(2), Tasks.completed().taskOf());
+		final var id = Thread.currentThread().getId();
+		long bytes = 0;
+		for(int round = 0; round < 2; round++) { //The first round loads and initializes classes
+			final long before = allocation.getThreadAllocatedBytes(id);
+			for(int i = 0; i < 10_000; i++) {
+				Tasks.awaitAll(tasks);
+				Tasks.awaitAny(tasks);
+			}
+			bytes = allocation.getThreadAllocatedBytes(id) - before;
+		}
+		check(bytes < 10_000, bytes + " bytes allocated for 10000 waits on done tasks");
+	}
+
+	private static void anyCollection() throws Exception {
+		final TaskAccess<Integer> pending = Tasks.create();
+		final var tasks = new LinkedList<TaskOf<Integer>>(List.of(Tasks.success(1), pending.taskOf()));
+		check(Tasks.awaitAny(tasks) == tasks.getFirst(), "Wrong task returned");
+		tasks.removeFirst();
+		tasks.add(Tasks.success(2));
+		final var completer = new Thread(() -> pending.tcsOf().succeed(3));
+		completer.start();
+		within(Checks.TIMEOUT_SECONDS * 1000, () -> Tasks.awaitAll(tasks));
+		check(pending.taskOf().isDone(), "awaitAll returned before all tasks were done");
+	}
+}
@@ -0,0 +1,67 @@
+package aa4j.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import aa4j.Awaiter;
+
+/**
+ * 1000 threads wait on one {@link Awaiter}, each for its own permit. The permits are then granted one by one.
+ * <p>
+ * Tasks no longer wait on an {@link Awaiter}, they park on their own completion stack. This only measures the public
+ * {@link Awaiter} class, which {@code Tasks.awaitAll} and {@code Tasks.awaitAny} still use with the master permit.
+ * </p>
+ * <p>
+ * If every signal woke up all remaining waiters, the total amount of wakeups would grow quadratically
+ * with the number of waiters. The CPU time used by the waiting threads is a good proxy for that.
+ * </p>
+ */
+@SuppressWarnings("javadoc")
+public class AwaiterBenchmark {
+
+	private static final int WAITERS = 1000;
+	private static final int ROUNDS = 5;
+
+	public static void main(String[] args) throws InterruptedException {
+		final var mx = ManagementFactory.getThreadMXBean();
+
+		for(int round = 0; round < ROUNDS; round++) {
+			final var awaiter = new Awaiter();
+			final var permits = new Object[WAITERS];
+			final var threads = new Thread[WAITERS];
+			final var started = new CountDownLatch(WAITERS);
+			final var done = new CountDownLatch(WAITERS);
+			final var waitCpuNanos = new long[WAITERS];
+
+			for(int i = 0; i < WAITERS; i++) {
+				final var permit = new Object();
+				final int index = i;
+				permits[i] = permit;
+				threads[i] = new Thread(() -> {
+					started.countDown();
+					final long cpuStart = mx.getCurrentThreadCpuTime();
+					awaiter.awaitUninterruptibly(permit);
+					waitCpuNanos[index] = mx.getCurrentThreadCpuTime() - cpuStart;
+					done.countDown();
+				});
+				threads[i].start();
+			}
+			started.await();
+			Thread.sleep(200); //let all threads park
+
+			final long start = System.nanoTime();
+			for(var permit : permits) {
+				awaiter.signalAll(permit);
+			}
+			done.await(1, TimeUnit.MINUTES);
+			final long elapsed = System.nanoTime() - start;
+			long cpuTotal = 0;
+			for(var cpu : waitCpuNanos) cpuTotal += cpu;
+
+			System.out.printf("Round %d: all %d waiters released after %.2f ms, waiter cpu time %.2f ms%n",
+					round, WAITERS, elapsed / 1e6, cpuTotal / 1e6);
+			for(var t : threads) t.join();
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package aa4j.test;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aa4j.task.Registration;
+import aa4j.task.TaskAccess;
+import aa4j.task.TaskOf;
+
+/**
+ * A minimal harness for the behavior checks in this package. Every check goes through the public API only.
+ * A suite runs its checks with {@link #run(String, Check)} and ends with {@link #finish()}, which exits with status 1
+ * if any check failed. Checks that would hang time out after a few seconds instead.
+ */
+@SuppressWarnings("javadoc")
+public final class Checks {
+
+	/*package*/ static final long TIMEOUT_SECONDS = 5;
+
+	private static final List<String> failures = new ArrayList<>();
+
+	private Checks() {}
+
+	/*package*/ interface Check {
+		void run() throws Exception;
+	}
+
+	/*package*/ static void run(String name, Check check) {
+		try {
+			check.run();
+			System.out.println("[ OK ] " + name);
+		} catch (Throwable t) {
+			System.out.println("[FAIL] " + name + ": " + t);
+			failures.add(name);
+		}
+	}
+
+	/*package*/ static void finish() {
+		if(failures.isEmpty()) {
+			System.out.println("All checks passed");
+		} else {
+			System.out.println(failures.size() + " check(s) failed: " + failures);
+			System.exit(1);
+		}
+	}
+
+	/*package*/ static void check(boolean condition, String message) {
+		if(!condition) throw new AssertionError(message);
+	}
+
+	/**
+	 * Waits for the task and returns its result, or fails the check if it does not complete in time.
+	 */
+	/*package*/ static <T> T result(TaskOf<T> task) throws Exception {
+		try {
+			return task.await(TIMEOUT_SECONDS, TimeUnit.SECONDS).getResult();
+		} catch (TimeoutException e) {
+			throw new AssertionError("Task never completed", e);
+		}
+	}
+
+	/**
+	 * Runs the check on another thread and fails if it does not finish in time.
+	 */
+	/*package*/ static void within(long millis, Check check) throws Exception {
+		final var failure = new Throwable[1];
+		final var thread = new Thread(() -> {
+			try {
+				check.run();
+			} catch (Throwable t) {
+				failure[0] = t;
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		thread.join(millis);
+		if(thread.isAlive()) throw new AssertionError("Did not finish within " + millis + " ms");
+		if(failure[0] != null) throw new AssertionError(failure[0]);
+	}
+
+	/**
+	 * Runs the garbage collector until all referenced objects are collected, or a few seconds have passed.
+	 * An object that stays reachable was kept by something that should have let go of it.
+	 * @return The number of objects that were not collected
+	 */
+	/*package*/ static int uncollected(List<? extends WeakReference<?>> references) throws InterruptedException {
+		int left = references.size();
+		for(int attempt = 0; attempt < 50 && left > 0; attempt++) {
+			System.gc();
+			Thread.sleep(20);
+			left = 0;
+			for(var reference : references) {
+				if(reference.get() != null) left++;
+			}
+		}
+		return left;
+	}
+
+	/**
+	 * A view of the task that counts the handlers registered with {@link TaskOf#registerWhenDone(Runnable)}
+	 * that are not closed yet. The {@code onRegister} action runs right before each registration.
+	 */
+	@SuppressWarnings("unchecked")
+	/*package*/ static <T> TaskOf<T> counting(TaskAccess<T> access, AtomicInteger open, Runnable onRegister) {
+		final var task = access.taskOf();
+		return (TaskOf<T>) Proxy.newProxyInstance(TaskOf.class.getClassLoader(), new Class<?>[] { TaskOf.class }, (proxy, method, args) -> {
+			if(method.getName().equals("registerWhenDone")) {
+				onRegister.run();
+				open.incrementAndGet();
+				final var registration = task.registerWhenDone((Runnable) args[0]);
+				return (Registration) () -> {
+					open.decrementAndGet();
+					registration.close();
+				};
+			}
+			try {
+				return method.invoke(task, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		});
+	}
+
+	/**
+	 * A view of the task that behaves like a {@link TaskOf} implemented outside this library: The abstract methods
+	 * call the task, but the default methods of {@link TaskOf} run their own implementation.
+	 */
+	@SuppressWarnings("unchecked")
+	/*package*/ static <T> TaskOf<T> foreign(TaskOf<T> task) {
+		return foreign(TaskOf.class, task);
+	}
+
+	/**
+	 * Like {@link #foreign(TaskOf)}, for any task interface.
+	 * @param type The task interface
+	 */
+	/*package*/ static <I> I foreign(Class<I> type, I task) {
+		return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+			try {
+				if(method.isDefault()) return InvocationHandler.invokeDefault(proxy, method, args);
+				return method.invoke(task, args);
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			}
+		}));
+	}
+}
@@ -0,0 +1,132 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.result;
+import static aa4j.test.Checks.run;
+import static aa4j.test.Checks.uncollected;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import aa4j.task.TaskAccess;
+import aa4j.task.TaskOf;
+import aa4j.task.TaskState;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for the combined tasks of {@link Tasks#whenAll(aa4j.task.TaskOf...)} and {@link Tasks#whenAny(aa4j.task.TaskOf...)}.
+ */
+@SuppressWarnings("javadoc")
+public class CombinedTaskTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("losing tasks let go of whenAny", CombinedTaskTest::whenAnyReleased);
+		run("pending tasks let go of a failed whenAll", CombinedTaskTest::whenAllReleased);
+		run("whenAll keeps the order of the tasks", CombinedTaskTest::whenAllOrder);
+		run("whenAll fails with the first failure", CombinedTaskTest::whenAllFailure);
+		run("whenAny completes like the first done task", CombinedTaskTest::whenAnyFirst);
+		run("whenAllSettled waits for all outcomes", CombinedTaskTest::whenAllSettled);
+		run("cancelling a combined task cancels all tasks", CombinedTaskTest::combinedCancellation);
+	}
+
+	private static void whenAnyReleased() throws Exception {
+		final var loser = Tasks.<Integer>create().taskOf();
+		final var combined = new ArrayList<WeakReference<Object>>();
+		for(int i = 0; i < 1000; i++) {
+			final TaskAccess<Integer> winner = Tasks.create();
+			final var any = Tasks.whenAny(loser, winner.taskOf());
+			winner.tcsOf().succeed(i);
+			check(result(any) == i, "Wrong result");
+			combined.add(new WeakReference<>(any));
+		}
+		final int left = uncollected(combined);
+		check(left == 0, left + " combined tasks are still kept by the losing task");
+	}
+
+	private static void whenAllReleased() throws Exception {
+		final var pending = Tasks.<Integer>create().taskOf();
+		final var combined = new ArrayList<WeakReference<Object>>();
+		for(int i = 0; i < 1000; i++) {
+			final TaskAccess<Integer> failing = Tasks.create();
+			final var all = Tasks.whenAll(pending, failing.taskOf());
+			failing.tcsOf().fail(new Exception("Expected"));
+			check(all.isDone() && all.getState().isFailed(), "Task did not fail");
+			combined.add(new WeakReference<>(all));
+		}
+		final int left = uncollected(combined);
+		check(left == 0, left + " combined tasks are still kept by the pending task");
+	}
+
+	private static void whenAllOrder() throws Exception {
+		final TaskAccess<Integer> first = Tasks.create();
+		final TaskAccess<Integer> second = Tasks.create();
+		final var all = Tasks.whenAll(List.of(first.taskOf(), Tasks.success(null), second.taskOf()));
+		second.tcsOf().succeed(2);
+		check(!all.isDone(), "Combined task completed before all tasks");
+		first.tcsOf().succeed(1);
+		check(result(all).equals(Arrays.asList(1, null, 2)), "Wrong results " + result(all));
+		check(result(Tasks.<Integer>whenAll()).isEmpty(), "Combined task without tasks has results");
+	}
+
+	private static void whenAllFailure() throws Exception {
+		final var failure = new IllegalStateException("Expected");
+		final TaskAccess<Integer> pending = Tasks.create();
+		final TaskAccess<Integer> failing = Tasks.create();
+		final var all = Tasks.whenAll(pending.taskOf(), failing.taskOf());
+		failing.tcsOf().fail(failure);
+		check(all.getOutcome().getFailureReason() == failure, "Wrong outcome " + all.getState());
+		check(!pending.taskOf().isDone(), "Failure completed the other task");
+	}
+
+	private static void whenAnyFirst() throws Exception {
+		final TaskAccess<Integer> slow = Tasks.create();
+		final TaskAccess<Integer> fast = Tasks.create();
+		final var any = Tasks.whenAny(slow.taskOf(), fast.taskOf());
+		fast.tcsOf().succeed(2);
+		slow.tcsOf().succeed(1);
+		check(result(any) == 2, "Wrong result " + result(any));
+		final var failure = new IllegalStateException("Expected");
+		final var failed = Tasks.whenAny(Tasks.<Integer>create().taskOf(), Tasks.failure(failure));
+		check(failed.getOutcome().getFailureReason() == failure, "Failure of the first done task was not kept");
+		boolean rejected = false;
+		try {
+			Tasks.whenAny(List.<TaskOf<Integer>>of());
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		check(rejected, "whenAny accepted an empty collection");
+	}
+
+	private static void whenAllSettled() throws Exception {
+		final var failure = new IllegalStateException("Expected");
+		final TaskAccess<Integer> pending = Tasks.create();
+		final var settled = Tasks.whenAllSettled(Tasks.success(1), Tasks.failure(failure), pending.taskOf());
+		check(!settled.isDone(), "Combined task completed before all tasks");
+		pending.tcsOf().succeed(3);
+		final var outcomes = result(settled);
+		check(outcomes.get(0).getValue() == 1, "Wrong first outcome " + outcomes.get(0));
+		check(outcomes.get(1).getFailureReason() == failure, "Wrong second outcome " + outcomes.get(1));
+		check(outcomes.get(2).getValue() == 3, "Wrong third outcome " + outcomes.get(2));
+	}
+
+	private static void combinedCancellation() throws Exception {
+		final TaskAccess<Integer> first = Tasks.create(() -> {});
+		final TaskAccess<Integer> second = Tasks.create(() -> {});
+		final var any = Tasks.whenAny(first.taskOf(), second.taskOf());
+		any.cancel();
+		check(first.taskOf().isCancelled() && second.taskOf().isCancelled(), "Tasks were not cancelled");
+		check(any.isCancelled(), "Combined task was not cancelled");
+
+		final TaskAccess<Integer> third = Tasks.create(() -> {});
+		final var settled = Tasks.whenAllSettled(third.taskOf());
+		settled.cancel();
+		check(result(settled).get(0).getState() == TaskState.CANCELLED, "whenAllSettled did not settle after cancellation");
+	}
+}
@@ -0,0 +1,87 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.run;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for tasks that are created done, such as {@link Tasks#success(Object)} and {@link Tasks#cancelled()}.
+ */
+@SuppressWarnings("javadoc")
+public class CompletedTaskTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("small value caches", CompletedTaskTest::smallValueCaches);
+		run("cancelled tasks share exceptions only when stackless", CompletedTaskTest::cancelledExceptions);
+		run("mapping a cancelled task keeps its exception", CompletedTaskTest::mappedCancellation);
+	}
+
+	private static void smallValueCaches() throws Exception {
+		final var threads = new Thread[4];
+		final var wrong = new AtomicInteger();
+		for(int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for(int i = -128; i <= 127; i++) {
+					try {
+						if(Tasks.successInt(i).getAsInt() != i || Tasks.success(Integer.valueOf(i)).getResult() != Integer.valueOf(i)) {
+							wrong.incrementAndGet();
+						}
+					} catch (Exception e) {
+						wrong.incrementAndGet();
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(var thread : threads) thread.join();
+		check(wrong.get() == 0, wrong.get() + " cached tasks had the wrong result");
+		check(Tasks.successInt(42) == Tasks.successInt(42), "Small int task is not shared");
+	}
+
+	/*package*/ static CancellationException cancellationOf(Checks.Check check) throws Exception {
+		try {
+			check.run();
+		} catch (CancellationException e) {
+			return e;
+		}
+		throw new AssertionError("Task was not cancelled");
+	}
+
+	private static void cancelledExceptions() throws Exception {
+		final boolean stackless = Tasks.isStacklessCancellation();
+		try {
+			Tasks.setStacklessCancellation(false);
+			final var first = cancellationOf(() -> Tasks.cancelled().getResult());
+			final var second = cancellationOf(() -> Tasks.cancelled().getResult());
+			check(first != second, "Cancelled tasks share their exception");
+			final var firstInt = cancellationOf(() -> Tasks.cancelledInt().getAsInt());
+			final var secondInt = cancellationOf(() -> Tasks.cancelledInt().getAsInt());
+			check(firstInt != secondInt, "Cancelled int tasks share their exception");
+
+			Tasks.setStacklessCancellation(true);
+			check(Tasks.cancelled() == Tasks.cancelled(), "Stackless cancelled task is not shared");
+			check(Tasks.cancelledLong() == Tasks.cancelledLong(), "Stackless cancelled long task is not shared");
+			check(cancellationOf(() -> Tasks.cancelled().getResult()).getStackTrace().length == 0, "Setting was ignored");
+			check(cancellationOf(() -> Tasks.cancelledLong().getAsLong()).getStackTrace().length == 0, "Setting was ignored");
+		} finally {
+			Tasks.setStacklessCancellation(stackless);
+		}
+	}
+
+	private static void mappedCancellation() throws Exception {
+		final var source = Tasks.<Integer>create(() -> {}).taskOf();
+		source.cancel();
+		final var reason = cancellationOf(source::getResult);
+		final var mapped = Tasks.map(source, x -> x + 1);
+		check(cancellationOf(mapped::getResult) == reason, "Mapping a cancelled task created a new exception");
+	}
+}
@@ -0,0 +1,165 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.result;
+import static aa4j.test.Checks.run;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aa4j.task.TaskAccess;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for the completion core: handlers and dependent tasks when the executor runs batches on the completing thread.
+ */
+@SuppressWarnings("javadoc")
+public class CompletionCoreTest {
+
+	private static final Executor DIRECT = Runnable::run;
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("direct executor in whenDoneAsync", CompletionCoreTest::directWhenDoneAsync);
+		run("direct executor in map", CompletionCoreTest::directMap);
+		run("direct executor pipeline", CompletionCoreTest::directPipeline);
+		run("runtime exceptions in handlers are dropped", CompletionCoreTest::handlerRuntimeException);
+		run("errors in handlers reach the completing thread", CompletionCoreTest::handlerError);
+		run("long map and chain sequences complete on a small stack", CompletionCoreTest::longSequences);
+		run("tasks completed in handlers are queued when trampolined", CompletionCoreTest::trampolinedHandlers);
+	}
+
+	/**
+	 * Runs the check on a new thread with a small stack, so recursive completion fails with a {@link StackOverflowError}.
+	 */
+	private static void onSmallStack(Checks.Check check) throws Exception {
+		final var failure = new Throwable[1];
+		final var thread = new Thread(null, () -> {
+			try {
+				check.run();
+			} catch (Throwable e) {
+				failure[0] = e;
+			}
+		}, "small-stack", 256 * 1024);
+		thread.start();
+		thread.join();
+		if(failure[0] instanceof Exception) throw (Exception) failure[0];
+		if(failure[0] != null) throw new AssertionError("Check failed on the small stack", failure[0]);
+	}
+
+	private static void directWhenDoneAsync() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create();
+		final var source = access.taskOf();
+		final var count = new AtomicInteger();
+		final var mapped = Tasks.map(source, x -> x + 1);
+		source.whenDoneAsync(count::incrementAndGet, DIRECT);
+		mapped.whenDoneAsync(count::incrementAndGet, DIRECT);
+		mapped.whenSuccess(x -> count.incrementAndGet());
+		access.tcsOf().succeed(1);
+		check(result(mapped) == 2, "Wrong mapped result");
+		check(count.get() == 3, "Only " + count.get() + " of 3 handlers ran");
+	}
+
+	private static void directMap() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create();
+		final var async = Tasks.map(access.taskOf(), x -> x * 2, DIRECT);
+		final var inline = Tasks.map(async, x -> x + 1);
+		final var count = new AtomicInteger();
+		inline.whenDone(count::incrementAndGet);
+		access.tcsOf().succeed(5);
+		check(result(inline) == 11, "Wrong result");
+		check(count.get() == 1, "Handler of the dependent task did not run");
+	}
+
+	private static void directPipeline() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create();
+		var task = access.taskOf();
+		for(int i = 0; i < 1000; i++) {
+			task = i % 2 == 0 ? Tasks.map(task, x -> x + 1, DIRECT) : Tasks.map(task, x -> x + 1);
+		}
+		final var last = Tasks.chain(task, x -> Tasks.map(Tasks.success(x), y -> y * 2, DIRECT));
+		access.tcsOf().succeed(0);
+		check(result(last) == 2000, "Wrong result");
+	}
+
+	private static void handlerRuntimeException() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create();
+		final var task = access.taskOf();
+		final var count = new AtomicInteger();
+		task.whenDone(count::incrementAndGet);
+		task.whenDone(() -> { throw new IllegalStateException("Expected"); });
+		task.whenDoneAsync(() -> { throw new IllegalStateException("Expected"); }, DIRECT);
+		task.whenDone(count::incrementAndGet);
+		final var mapped = Tasks.map(task, x -> x + 1);
+		access.tcsOf().succeed(1);
+		check(count.get() == 2, "Only " + count.get() + " of 2 handlers ran");
+		check(result(mapped) == 2, "Dependent task did not complete");
+	}
+
+	private static void handlerError() throws Exception {
+		final var error = new Error("Expected");
+		final TaskAccess<Integer> access = Tasks.create();
+		final var task = access.taskOf();
+		final var count = new AtomicInteger();
+		task.whenDone(count::incrementAndGet);
+		task.whenDone(() -> { throw error; });
+		task.whenDone(() -> { throw new Error("Second error"); });
+		task.whenDoneAsync(() -> { throw new Error("Error on an executor"); }, DIRECT);
+		task.whenDoneAsync(count::incrementAndGet, DIRECT);
+		task.whenDone(count::incrementAndGet);
+		final var mapped = Tasks.map(task, x -> x + 1);
+		Error thrown = null;
+		try {
+			access.tcsOf().succeed(1);
+		} catch (Error e) {
+			thrown = e;
+		}
+		check(thrown != null, "Error was dropped");
+		check(count.get() == 3, "Only " + count.get() + " of 3 handlers ran");
+		check(result(mapped) == 2, "Dependent task did not complete");
+	}
+
+	private static void longSequences() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create();
+		var task = access.taskOf();
+		for(int i = 0; i < 100_000; i++) {
+			task = i % 2 == 0 ? Tasks.map(task, x -> x + 1) : Tasks.chain(task, x -> Tasks.success(x + 1));
+		}
+		final var last = task;
+		onSmallStack(() -> access.tcsOf().succeed(0));
+		check(result(last) == 100_000, "Wrong result " + result(last));
+	}
+
+	private static void trampolinedHandlers() throws Exception {
+		final boolean enabled = Tasks.isTrampolinedCompletion();
+		Tasks.setTrampolinedCompletion(true);
+		try {
+			final var order = new StringBuilder();
+			final TaskAccess<Integer> first = Tasks.create();
+			final TaskAccess<Integer> second = Tasks.create();
+			second.taskOf().whenDone(() -> order.append("second "));
+			first.taskOf().whenDone(() -> {
+				second.tcsOf().succeed(2);
+				order.append("first ");
+			});
+			first.tcsOf().succeed(1);
+			check(order.toString().equals("first second "), "Nested task was completed recursively: " + order);
+
+			final var accesses = new ArrayList<TaskAccess<Integer>>();
+			for(int i = 0; i < 100_000; i++) accesses.add(Tasks.create());
+			for(int i = 0; i < accesses.size() - 1; i++) {
+				final var next = accesses.get(i + 1);
+				accesses.get(i).taskOf().whenSuccess(x -> next.tcsOf().succeed(x + 1));
+			}
+			onSmallStack(() -> accesses.get(0).tcsOf().succeed(0));
+			check(result(accesses.get(accesses.size() - 1).taskOf()) == accesses.size() - 1, "Handler sequence did not complete");
+		} finally {
+			Tasks.setTrampolinedCompletion(enabled);
+		}
+	}
+}
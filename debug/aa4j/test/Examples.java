@@ -7,30 +7,31 @@ import java.util.Objects;
 import java.util.concurrent.TimeoutException;
 
 import aa4j.AA4J;
-import aa4j.task.TaskAccess;
+import aa4j.task.IntTask;
+import aa4j.task.IntTaskCompletionSource;
 import aa4j.task.TaskOf;
 import aa4j.task.Tasks;
 
 public class Examples {
 
-	public static TaskOf<Integer> ping(InetAddress address, int timeout) {
+	public static IntTask ping(InetAddress address, int timeout) {
 		Objects.requireNonNull(address, "'address' parameter cannot be null");
 		if(timeout < 0) throw new IllegalArgumentException("'timeout' parameter cannot be negative"); 
 		
-		TaskAccess<Integer> res = Tasks.create();
+		IntTaskCompletionSource res = Tasks.createInt();
 		new Thread(() -> {
 			try {
 				long start = System.currentTimeMillis();
 				if(address.isReachable(timeout)) {
-					res.tcsOf().succeed((int) (System.currentTimeMillis() - start));
+					res.succeed((int) (System.currentTimeMillis() - start));
 				} else {
-					res.tcs().fail(new TimeoutException("Timed out before ping was returned"));
+					res.fail(new TimeoutException("Timed out before ping was returned"));
 				}
 			} catch (IOException e) {
-				res.tcs().fail(e);
+				res.fail(e);
 			}
 		}).run();
-		return res.taskOf();
+		return res.task();
 	}
 	
 	
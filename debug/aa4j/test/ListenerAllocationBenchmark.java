@@ -0,0 +1,99 @@
+package aa4j.test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import aa4j.task.TaskAccess;
+import aa4j.task.TaskOf;
+import aa4j.task.Tasks;
+
+/**
+ * Measures the bytes allocated per registered {@code when*} listener, compared to
+ * {@link CompletableFuture#whenComplete(java.util.function.BiConsumer)}.
+ * Every task gets {@link #LISTENERS} listeners, then it is completed so all listeners run.
+ * Requires a JVM that supports {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ */
+@SuppressWarnings("javadoc")
+public class ListenerAllocationBenchmark {
+
+	private static final int WARMUP = 200_000;
+	private static final int TASKS = 1_000_000;
+	private static final int LISTENERS = 4;
+
+	private static final Runnable ON_DONE = () -> {};
+	private static final Runnable ON_CANCELLED = () -> {};
+	private static long sink;
+
+	public static void main(String[] args) {
+		for(int round = 0; round < 3; round++) {
+			tasks(WARMUP);
+			cpfs(WARMUP);
+			primitive(WARMUP);
+		}
+		System.out.printf("TaskOf.when*            %6.1f bytes/listener%n", tasks(TASKS));
+		System.out.printf("IntTask.when*           %6.1f bytes/listener%n", primitive(TASKS));
+		System.out.printf("CompletableFuture       %6.1f bytes/listener%n", cpfs(TASKS));
+	}
+
+	private static double tasks(int count) {
+		final var accesses = new ArrayList<TaskAccess<Object>>(count);
+		final var tasks = new ArrayList<TaskOf<Object>>(count);
+		for(int i = 0; i < count; i++) {
+			final TaskAccess<Object> access = Tasks.create();
+			accesses.add(access);
+			tasks.add(access.taskOf()); //The view is created here, outside of the measurement
+		}
+
+		final long before = allocatedBytes();
+		for(var task : tasks) {
+			task.whenDone(ON_DONE)
+				.whenSuccess(value -> sink++)
+				.whenFailed(ex -> sink--)
+				.whenCancelled(ON_CANCELLED);
+		}
+		final long after = allocatedBytes();
+
+		for(var access : accesses) access.tcs().succeed();
+		return (after - before) / (double) (count * LISTENERS);
+	}
+
+	private static double primitive(int count) {
+		final var tasks = new aa4j.task.IntTaskCompletionSource[count];
+		for(int i = 0; i < count; i++) tasks[i] = Tasks.createInt();
+
+		final long before = allocatedBytes();
+		for(var source : tasks) {
+			source.task().whenDone(ON_DONE)
+				.whenSuccess(value -> sink += value)
+				.whenFailed(ex -> sink--)
+				.whenCancelled(ON_CANCELLED);
+		}
+		final long after = allocatedBytes();
+
+		for(var source : tasks) source.succeed(1);
+		return (after - before) / (double) (count * LISTENERS);
+	}
+
+	private static double cpfs(int count) {
+		final var futures = new CompletableFuture<?>[count];
+		for(int i = 0; i < count; i++) futures[i] = new CompletableFuture<>();
+
+		final long before = allocatedBytes();
+		for(var future : futures) {
+			future.whenComplete((value, ex) -> ON_DONE.run());
+			future.whenComplete((value, ex) -> { if(ex == null) sink++; });
+			future.whenComplete((value, ex) -> { if(ex != null) sink--; });
+			future.whenComplete((value, ex) -> { if(ex != null) ON_CANCELLED.run(); });
+		}
+		final long after = allocatedBytes();
+
+		for(var future : futures) future.complete(null);
+		return (after - before) / (double) (count * LISTENERS);
+	}
+
+	private static long allocatedBytes() {
+		final var bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,171 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.run;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import aa4j.task.TaskAccess;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for the {@code when*} and {@code registerWhen*} handlers of object and primitive tasks.
+ */
+@SuppressWarnings("javadoc")
+public class ListenerTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("handlers run for matching outcomes only", ListenerTest::matchingOutcomes);
+		run("primitive handlers get the primitive result", ListenerTest::primitiveHandlers);
+		run("closed registrations do not run", ListenerTest::closedRegistrations);
+		run("async registrations run on the executor until closed", ListenerTest::asyncRegistrations);
+		run("default registrations keep their handler", ListenerTest::defaultRegistrations);
+		run("default async handlers run on the executor", ListenerTest::defaultAsyncHandlers);
+		run("rejected async handlers are reported", ListenerTest::rejectedAsyncHandlers);
+	}
+
+	private static void matchingOutcomes() throws Exception {
+		final var done = new AtomicInteger();
+		final var succeeded = new AtomicInteger();
+		final var failed = new AtomicInteger();
+		final var cancelled = new AtomicInteger();
+		final TaskAccess<Integer> success = Tasks.create();
+		final TaskAccess<Integer> failure = Tasks.create();
+		final var cancellation = Tasks.<Integer>create(() -> {}).taskOf();
+		for(var task : List.of(success.taskOf(), failure.taskOf(), cancellation)) {
+			task.whenDone(done::incrementAndGet);
+			task.whenSuccess(value -> succeeded.addAndGet(value));
+			task.whenFailed(ex -> failed.incrementAndGet());
+			task.whenCancelled(cancelled::incrementAndGet);
+		}
+		success.tcsOf().succeed(5);
+		failure.tcsOf().fail(new Exception("Expected"));
+		cancellation.cancel();
+		check(done.get() == 3, done.get() + " of 3 done handlers ran");
+		check(succeeded.get() == 5, "Success handler got the wrong value");
+		check(failed.get() == 1, failed.get() + " failure handlers ran");
+		check(cancelled.get() == 1, cancelled.get() + " cancellation handlers ran");
+	}
+
+	private static void primitiveHandlers() throws Exception {
+		final var intSource = Tasks.createInt();
+		final var intResult = new AtomicInteger();
+		final var intFailures = new AtomicInteger();
+		intSource.task().whenSuccess(intResult::set);
+		intSource.task().whenFailed(ex -> intFailures.incrementAndGet());
+		intSource.succeed(42);
+		check(intResult.get() == 42, "Int handler got " + intResult.get());
+		check(intFailures.get() == 0, "Failure handler ran for a success");
+
+		final var longSource = Tasks.createLong();
+		final var longResult = new AtomicLong();
+		longSource.task().whenSuccess(longResult::set);
+		longSource.fail(new Exception("Expected"));
+		check(longResult.get() == 0, "Success handler ran for a failure");
+
+		final var doubleSource = Tasks.createDouble();
+		final var doubleResult = new double[1];
+		doubleSource.task().whenSuccess(value -> doubleResult[0] = value);
+		doubleSource.succeed(0.5);
+		check(doubleResult[0] == 0.5, "Double handler got " + doubleResult[0]);
+
+		final var boxed = new AtomicInteger();
+		Tasks.successInt(7).boxed().whenSuccess(boxed::set);
+		check(boxed.get() == 7, "Boxed view handler got " + boxed.get());
+	}
+
+	private static void closedRegistrations() throws Exception {
+		final var count = new AtomicInteger();
+		final TaskAccess<Integer> access = Tasks.create();
+		final var task = access.taskOf();
+		final var removed = task.registerWhenDone(count::incrementAndGet);
+		final var kept = task.registerWhenSuccess(value -> count.incrementAndGet());
+		task.registerWhenFailed(ex -> count.addAndGet(100)).close();
+		removed.close();
+		removed.close(); //Closing twice has no effect
+		access.tcsOf().succeed(1);
+		check(count.get() == 1, "Expected only the kept handler to run, count is " + count.get());
+		kept.close(); //Closing after the task is done has no effect
+	}
+
+	private static void asyncRegistrations() throws Exception {
+		final var submitted = new AtomicInteger();
+		final Executor executor = command -> {
+			submitted.incrementAndGet();
+			command.run();
+		};
+		final var count = new AtomicInteger();
+		final TaskAccess<Integer> access = Tasks.create();
+		final var kept = access.taskOf().registerWhenDoneAsync(count::incrementAndGet, executor);
+		access.taskOf().task().registerWhenDoneAsync(() -> count.addAndGet(100), executor).close();
+		access.tcsOf().succeed(1);
+		check(count.get() == 1, "Expected only the kept handler to run, count is " + count.get());
+		check(submitted.get() == 1, submitted.get() + " handlers submitted to the executor");
+		kept.close();
+		Tasks.success(1).registerWhenDoneAsync(count::incrementAndGet, executor).close();
+		check(count.get() == 2, "Handler of a completed task did not run");
+	}
+
+	private static void defaultRegistrations() throws Exception {
+		final var count = new AtomicInteger();
+		final TaskAccess<Integer> access = Tasks.create();
+		final var task = Checks.foreign(access.taskOf());
+		task.registerWhenDone(count::incrementAndGet).close();
+		task.registerWhenSuccess(value -> count.addAndGet(value)).close();
+		task.registerWhenFailed(ex -> count.addAndGet(100)).close();
+		task.registerWhenDoneAsync(count::incrementAndGet, Runnable::run);
+		access.tcsOf().succeed(10);
+		check(count.get() == 12, "Handlers that cannot be removed did not run as added, count is " + count.get());
+	}
+
+	private static void defaultAsyncHandlers() throws Exception {
+		final var submitted = new AtomicInteger();
+		final Executor executor = command -> {
+			submitted.incrementAndGet();
+			command.run();
+		};
+		final var result = new AtomicInteger();
+		final var failures = new AtomicInteger();
+		final TaskAccess<Integer> access = Tasks.create();
+		final var task = Checks.foreign(access.taskOf());
+		task.whenDoneAsync(result::incrementAndGet, executor);
+		task.whenSuccessAsync(value -> result.addAndGet(value), executor);
+		task.whenFailedAsync(ex -> failures.incrementAndGet(), executor);
+		task.task().whenCancelledAsync(failures::incrementAndGet, executor);
+		access.tcsOf().succeed(10);
+		check(result.get() == 11, "Handlers got the wrong values, total is " + result.get());
+		check(failures.get() == 0, "Handler ran for the wrong outcome");
+		check(submitted.get() == 2, submitted.get() + " handlers submitted to the executor");
+	}
+
+	private static void rejectedAsyncHandlers() throws Exception {
+		final Executor rejecting = command -> { throw new RejectedExecutionException("Expected"); };
+		final var reported = new AtomicInteger();
+		final var thread = Thread.currentThread();
+		final var handler = thread.getUncaughtExceptionHandler();
+		thread.setUncaughtExceptionHandler((t, ex) -> {
+			if(ex instanceof RejectedExecutionException) reported.incrementAndGet();
+		});
+		try {
+			final TaskAccess<Integer> access = Tasks.create();
+			final var ran = new AtomicInteger();
+			access.taskOf().whenDoneAsync(ran::incrementAndGet, rejecting);
+			Checks.foreign(access.taskOf()).whenSuccessAsync(value -> ran.incrementAndGet(), rejecting);
+			access.tcsOf().succeed(1);
+			Tasks.success(1).whenDoneAsync(ran::incrementAndGet, rejecting);
+			check(ran.get() == 0, "Rejected handler ran");
+			check(reported.get() == 3, reported.get() + " of 3 rejections reported");
+		} finally {
+			thread.setUncaughtExceptionHandler(handler);
+		}
+	}
+}
@@ -0,0 +1,115 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.result;
+import static aa4j.test.Checks.run;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aa4j.AA4J;
+import aa4j.task.TaskAccess;
+import aa4j.task.TaskMapping;
+import aa4j.task.TaskState;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for {@link Tasks#mapping(aa4j.task.TaskOf)} and the fused sync steps of the {@link AA4J} pipeline.
+ */
+@SuppressWarnings("javadoc")
+public class MapTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("mapping applies all functions in order", MapTest::mappingOrder);
+		run("mapping stops at the first failing function", MapTest::mappingFailure);
+		run("mapping can be extended in different ways", MapTest::mappingBranches);
+		run("mapping runs all functions in one executor submission", MapTest::mappingExecutor);
+		run("sync step throws the same exception for task and await", MapTest::syncException);
+	}
+
+	private static void mappingOrder() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create();
+		TaskMapping<Integer, Integer> mapping = Tasks.mapping(access.taskOf());
+		check(mapping.task() == access.taskOf(), "Mapping without functions is not the source task");
+		for(int i = 0; i < 1000; i++) {
+			final int step = i;
+			mapping = mapping.map(x -> x * 3 + step);
+		}
+		final var task = mapping.map(x -> "r" + (x % 1000)).task();
+		access.tcsOf().succeed(0);
+		int expected = 0;
+		for(int i = 0; i < 1000; i++) expected = expected * 3 + i;
+		check(result(task).equals("r" + (expected % 1000)), "Wrong result " + result(task));
+		check(Tasks.mapping(Tasks.success(2)).map(x -> x + 1).task().getResult() == 3, "Wrong result for a done source");
+	}
+
+	private static void mappingFailure() throws Exception {
+		final var after = new AtomicInteger();
+		final TaskAccess<Integer> access = Tasks.create();
+		final var failure = new IllegalStateException("Expected");
+		final var task = Tasks.mapping(access.taskOf())
+				.map(x -> x + 1)
+				.<Integer>map(x -> { throw failure; })
+				.map(x -> after.incrementAndGet())
+				.task();
+		access.tcsOf().succeed(1);
+		task.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		check(task.getOutcome().getFailureReason() == failure, "Wrong failure " + task.getOutcome());
+		check(after.get() == 0, "A function after the failure ran");
+
+		final TaskAccess<Integer> cancelled = Tasks.create(() -> {});
+		final var mapped = Tasks.mapping(cancelled.taskOf()).map(x -> after.incrementAndGet()).task();
+		mapped.cancel();
+		check(cancelled.taskOf().getState() == TaskState.CANCELLED, "Cancelling did not reach the source task");
+		check(after.get() == 0, "A function ran for a cancelled source");
+	}
+
+	private static void mappingBranches() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create();
+		final var base = Tasks.mapping(access.taskOf()).map(x -> x + 1);
+		final var doubled = base.map(x -> x * 2).task();
+		final var negated = base.map(x -> -x).task();
+		final var plain = base.task();
+		access.tcsOf().succeed(4);
+		check(result(doubled) == 10, "Wrong first branch");
+		check(result(negated) == -5, "Wrong second branch");
+		check(result(plain) == 5, "Wrong shared prefix");
+	}
+
+	private static void mappingExecutor() throws Exception {
+		final var submissions = new AtomicInteger();
+		final Executor counting = command -> {
+			submissions.incrementAndGet();
+			command.run();
+		};
+		final TaskAccess<Integer> access = Tasks.create();
+		final var task = Tasks.mapping(access.taskOf()).map(x -> x + 1).map(x -> x * 2).map(x -> x - 3).task(counting);
+		access.tcsOf().succeed(1);
+		check(result(task) == 1, "Wrong result " + result(task));
+		check(submissions.get() == 1, submissions.get() + " executor submissions");
+	}
+
+	private static void syncException() throws Exception {
+		final var runs = new AtomicInteger();
+		final TaskAccess<Integer> access = Tasks.create();
+		final var stage = AA4J.await(access.taskOf()).<Integer>sync(x -> {
+			runs.incrementAndGet();
+			throw new IllegalStateException("Expected");
+		});
+		final var mapped = stage.task();
+		final var awaited = stage.await(Tasks::success).task();
+		access.tcsOf().succeed(1);
+		mapped.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		awaited.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		final var mappedFailure = mapped.getOutcome().getFailureReason();
+		check(mappedFailure instanceof IllegalStateException, "Mapped task did not fail: " + mapped.getOutcome());
+		check(awaited.getOutcome().getFailureReason() == mappedFailure, "Awaited task failed with a different exception");
+		check(runs.get() == 1, "Action ran " + runs.get() + " times");
+	}
+}
@@ -0,0 +1,64 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.run;
+
+import java.util.concurrent.ExecutionException;
+
+import aa4j.task.TaskAccess;
+import aa4j.task.TaskState;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for reading the result of done tasks with {@code getResult} and {@code getOutcome}.
+ */
+@SuppressWarnings("javadoc")
+public class OutcomeTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("failed tasks throw a new ExecutionException for every call", OutcomeTest::unsharedFailures);
+		run("outcome of a done task is read without exceptions", OutcomeTest::doneOutcome);
+	}
+
+	/*package*/ static ExecutionException failureOf(Checks.Check check) throws Exception {
+		try {
+			check.run();
+		} catch (ExecutionException e) {
+			return e;
+		}
+		throw new AssertionError("Task did not fail");
+	}
+
+	private static void unsharedFailures() throws Exception {
+		final var reason = new IllegalStateException("Expected");
+		final TaskAccess<Integer> access = Tasks.create();
+		access.tcsOf().fail(reason);
+		final var task = access.taskOf();
+		final var first = failureOf(task::getResult);
+		first.addSuppressed(new Exception("Added by the first caller"));
+		final var second = failureOf(() -> task.task().checkSuccess());
+		check(first != second, "Failed task shares its ExecutionException");
+		check(second.getSuppressed().length == 0, "Suppressed exception of another caller is visible");
+		check(first.getCause() == reason && second.getCause() == reason, "Wrong failure reason");
+
+		final var completed = Tasks.<Integer>failure(reason);
+		check(failureOf(completed::getResult) != failureOf(completed::getResult), "Completed task shares its ExecutionException");
+		final var primitive = Tasks.createInt();
+		primitive.fail(reason);
+		check(failureOf(primitive.task()::getAsInt) != failureOf(primitive.task()::getAsInt), "Int task shares its ExecutionException");
+	}
+
+	private static void doneOutcome() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create();
+		access.tcsOf().fail(new IllegalStateException("Expected"));
+		final var outcome = access.taskOf().getOutcome();
+		check(outcome.getState() == TaskState.FAILED, "Wrong state " + outcome);
+		check(outcome.getFailureReason() instanceof IllegalStateException, "Wrong failure reason " + outcome);
+		check(access.taskOf().getOutcome() == outcome, "Outcome of a done task is created again");
+	}
+}
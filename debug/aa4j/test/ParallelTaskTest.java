@@ -0,0 +1,138 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.result;
+import static aa4j.test.Checks.run;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for {@link Tasks#mapParallel(java.util.Collection, java.util.function.Function, int, Executor)}
+ * and {@link Tasks#forEachParallel(java.util.Collection, java.util.function.Consumer, int, Executor)}.
+ */
+@SuppressWarnings("javadoc")
+public class ParallelTaskTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("mapParallel keeps the order and the concurrency limit", ParallelTaskTest::orderAndLimit);
+		run("mapParallel of an empty collection", ParallelTaskTest::empty);
+		run("mapParallel fails with the first exception", ParallelTaskTest::failure);
+		run("bulk operations fail when the executor rejects them", ParallelTaskTest::rejected);
+		run("cancelling forEachParallel skips the remaining elements", ParallelTaskTest::cancellation);
+		run("bulk operations reject a concurrency below 1", ParallelTaskTest::invalidConcurrency);
+	}
+
+	private static List<Integer> range(int size) {
+		final var elements = new ArrayList<Integer>(size);
+		for(int i = 0; i < size; i++) elements.add(i);
+		return elements;
+	}
+
+	private static void orderAndLimit() throws Exception {
+		final var pool = Executors.newFixedThreadPool(4);
+		try {
+			final var submissions = new AtomicInteger();
+			final Executor counting = command -> {
+				submissions.incrementAndGet();
+				pool.execute(command);
+			};
+			final var running = new AtomicInteger();
+			final var maxRunning = new AtomicInteger();
+			final var task = Tasks.mapParallel(range(10_000), x -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+				running.decrementAndGet();
+				return x * 2;
+			}, 3, counting);
+			final var results = result(task);
+			check(results.size() == 10_000, "Wrong number of results " + results.size());
+			for(int i = 0; i < results.size(); i++) check(results.get(i) == i * 2, "Wrong result at " + i);
+			check(maxRunning.get() <= 3, maxRunning.get() + " elements were processed at the same time");
+			check(submissions.get() <= 3, submissions.get() + " executor submissions for 3 workers");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void empty() throws Exception {
+		final var submissions = new AtomicInteger();
+		final Executor counting = command -> {
+			submissions.incrementAndGet();
+			command.run();
+		};
+		check(result(Tasks.mapParallel(List.<Integer>of(), x -> x, 2, counting)).isEmpty(), "Empty collection has results");
+		check(Tasks.forEachParallel(List.of(), x -> {}, 2, counting).isSuccess(), "Empty forEachParallel did not succeed");
+		check(submissions.get() == 0, "Empty collection was submitted to the executor");
+	}
+
+	private static void failure() throws Exception {
+		final var failure = new IllegalStateException("Expected");
+		final var processed = new AtomicInteger();
+		final var task = Tasks.mapParallel(range(1000), x -> {
+			processed.incrementAndGet();
+			if(x == 5) throw failure;
+			return x;
+		}, 1, Runnable::run);
+		check(task.getOutcome().getFailureReason() == failure, "Wrong outcome " + task.getState());
+		check(processed.get() == 6, processed.get() + " elements were processed after the failure");
+	}
+
+	private static void rejected() throws Exception {
+		final var ran = new AtomicInteger();
+		final Executor rejecting = command -> { throw new RejectedExecutionException("Expected"); };
+		final var mapped = Tasks.mapParallel(range(10), x -> ran.incrementAndGet(), 2, rejecting);
+		final var forEach = Tasks.forEachParallel(range(10), x -> ran.incrementAndGet(), 2, rejecting);
+		check(mapped.getOutcome().getFailureReason() instanceof RejectedExecutionException, "Wrong outcome " + mapped.getState());
+		check(forEach.taskOf().getOutcome().getFailureReason() instanceof RejectedExecutionException, "Wrong outcome " + forEach.getState());
+		check(ran.get() == 0, "Rejected work ran");
+	}
+
+	private static void cancellation() throws Exception {
+		final var pool = Executors.newSingleThreadExecutor();
+		try {
+			final var started = new CountDownLatch(1);
+			final var release = new CountDownLatch(1);
+			final var processed = new AtomicInteger();
+			final var task = Tasks.forEachParallel(range(1000), x -> {
+				processed.incrementAndGet();
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, 1, pool);
+			check(started.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS), "First element was not processed");
+			task.cancel();
+			release.countDown();
+			check(task.isCancelled(), "Task was not cancelled");
+			pool.submit(() -> {}).get(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS); //The worker has returned
+			check(processed.get() == 1, processed.get() + " elements were processed after cancellation");
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void invalidConcurrency() throws Exception {
+		boolean rejected = false;
+		try {
+			Tasks.mapParallel(range(10), x -> x, 0, Runnable::run);
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		check(rejected, "Concurrency 0 was accepted");
+	}
+}
@@ -0,0 +1,113 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.run;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aa4j.task.IntTask;
+import aa4j.task.LongTask;
+import aa4j.task.TaskState;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for the operators of the primitive tasks ({@link IntTask}, {@link LongTask}, {@link aa4j.task.DoubleTask}).
+ */
+@SuppressWarnings("javadoc")
+public class PrimitiveTaskTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("operators on pending primitive tasks", PrimitiveTaskTest::pendingOperators);
+		run("operators on done primitive tasks complete right away", PrimitiveTaskTest::doneOperators);
+		run("operators run the function on the executor", PrimitiveTaskTest::executorOperators);
+		run("operators fail when the executor rejects the function", PrimitiveTaskTest::rejectedOperators);
+		run("operators copy other primitive task implementations", PrimitiveTaskTest::foreignOperators);
+	}
+
+	private static void pendingOperators() throws Exception {
+		final var ints = Tasks.createInt();
+		final var mapped = Tasks.map(ints.task(), x -> x * 2);
+		final var boxed = Tasks.mapToObj(ints.task(), x -> "v" + x);
+		final var chained = Tasks.chain(ints.task(), x -> Tasks.successInt(x + 1));
+		final var doubles = Tasks.createDouble();
+		final var halved = Tasks.map(doubles.task(), x -> x / 2);
+		check(!mapped.isDone() && !boxed.isDone() && !chained.isDone(), "Operator completed before its source");
+		ints.succeed(500);
+		doubles.succeed(3);
+		check(mapped.await().getAsInt() == 1000, "Wrong mapped result");
+		check(boxed.awaitResult().equals("v500"), "Wrong boxed result");
+		check(chained.await().getAsInt() == 501, "Wrong chained result");
+		check(halved.await().getAsDouble() == 1.5, "Wrong double result");
+		final var failure = new IllegalStateException("Expected");
+		final var failing = Tasks.createLong();
+		final var failed = Tasks.map(failing.task(), x -> x + 1);
+		failing.fail(failure);
+		check(failed.boxed().getOutcome().getFailureReason() == failure, "Wrong failure " + failed.boxed().getOutcome());
+	}
+
+	private static void doneOperators() throws Exception {
+		check(Tasks.map(Tasks.successInt(1000), x -> x + 1).getAsInt() == 1001, "Mapped task of a done task is not done");
+		check(Tasks.mapToObj(Tasks.successLong(2), x -> x * 3).getResult() == 6L, "Boxed task of a done task is not done");
+		final var next = Tasks.successInt(1000);
+		check(Tasks.chain(Tasks.successInt(1), x -> next) == next, "Chaining a done task does not return the chained task");
+
+		final var failure = new IllegalStateException("Expected");
+		final var mappedFailure = Tasks.map(Tasks.failureInt(failure), x -> x + 1);
+		check(mappedFailure.boxed().getOutcome().getFailureReason() == failure, "Wrong failure " + mappedFailure.boxed().getOutcome());
+		final var thrown = Tasks.map(Tasks.successLong(1), x -> { throw failure; });
+		check(thrown.boxed().getOutcome().getFailureReason() == failure, "Exception of the function was not kept");
+		final var nullChain = Tasks.chain(Tasks.successInt(1), x -> null);
+		check(nullChain.boxed().getOutcome().getFailureReason() instanceof NullPointerException, "Null chained task was accepted");
+		check(Tasks.mapToObj(Tasks.cancelledDouble(), x -> x).isCancelled(), "Cancellation was not kept");
+	}
+
+	private static void executorOperators() throws Exception {
+		final var submissions = new AtomicInteger();
+		final Executor counting = command -> {
+			submissions.incrementAndGet();
+			command.run();
+		};
+		check(Tasks.map(Tasks.successInt(1), x -> x + 1, counting).await().getAsInt() == 2, "Wrong mapped result");
+		check(Tasks.mapToObj(Tasks.successLong(1), x -> x + 1, counting).awaitResult() == 2L, "Wrong boxed result");
+		check(Tasks.chain(Tasks.successDouble(1), x -> Tasks.successDouble(x + 1), counting).await().getAsDouble() == 2, "Wrong chained result");
+		check(submissions.get() == 3, submissions.get() + " executor submissions for 3 functions");
+		Tasks.map(Tasks.failureInt(new IllegalStateException("Expected")), x -> x + 1, counting).await();
+		check(submissions.get() == 3, "Failure was passed on with the executor");
+	}
+
+	private static void rejectedOperators() throws Exception {
+		final var ran = new AtomicInteger();
+		final Executor rejecting = command -> { throw new RejectedExecutionException("Expected"); };
+		final IntTask mapped = Tasks.map(Tasks.successInt(1), x -> ran.incrementAndGet(), rejecting);
+		final var boxed = Tasks.mapToObj(Tasks.successLong(1), x -> ran.incrementAndGet(), rejecting);
+		final var chained = Tasks.chain(Tasks.successInt(1), x -> Tasks.successInt(ran.incrementAndGet()), rejecting);
+		check(mapped.boxed().getOutcome().getFailureReason() instanceof RejectedExecutionException, "Wrong outcome " + mapped.getState());
+		check(boxed.getOutcome().getFailureReason() instanceof RejectedExecutionException, "Wrong outcome " + boxed.getState());
+		check(chained.boxed().getOutcome().getFailureReason() instanceof RejectedExecutionException, "Wrong outcome " + chained.getState());
+		check(ran.get() == 0, "Rejected function ran");
+	}
+
+	private static void foreignOperators() throws Exception {
+		final var source = Tasks.createInt(() -> {});
+		final var foreign = Checks.foreign(IntTask.class, source.task());
+		final var mapped = Tasks.map(foreign, x -> x + 1);
+		final var cancelledSource = Tasks.createInt(() -> {});
+		final var cancelled = Tasks.mapToObj(Checks.foreign(IntTask.class, cancelledSource.task()), x -> x);
+		source.succeed(41);
+		cancelledSource.task().cancel();
+		check(mapped.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS).getAsInt() == 42, "Wrong mapped result");
+		cancelled.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		check(cancelled.getState() == TaskState.CANCELLED, "Cancellation was not copied: " + cancelled.getState());
+		final var failure = new IllegalStateException("Expected");
+		final var failed = Tasks.map(Checks.foreign(LongTask.class, Tasks.failureLong(failure)), x -> x);
+		check(failed.boxed().getOutcome().getFailureReason() == failure, "Failure was not copied: " + failed.boxed().getOutcome());
+	}
+}
@@ -0,0 +1,94 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.result;
+import static aa4j.test.Checks.run;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import aa4j.task.TaskAccess;
+import aa4j.task.TaskOf;
+import aa4j.task.TaskStream;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for {@link TaskStream} and its operators.
+ */
+@SuppressWarnings("javadoc")
+public class StreamTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("operators map, filter and batch all values", StreamTest::operators);
+		run("cancelled next keeps the upstream value", StreamTest::cancelledNext);
+		run("next after a cancelled next waits for the same value", StreamTest::nextAfterCancelledNext);
+	}
+
+	/**
+	 * A stream without prefetch whose values are completed by the test, in the order they are fetched.
+	 */
+	private static final class Source {
+		private final ConcurrentLinkedQueue<TaskAccess<Optional<Integer>>> fetched = new ConcurrentLinkedQueue<>();
+		private final TaskStream<Integer> stream = Tasks.stream(this::fetch, 0);
+
+		private TaskOf<Optional<Integer>> fetch() {
+			final TaskAccess<Optional<Integer>> access = Tasks.create();
+			fetched.add(access);
+			return access.taskOf();
+		}
+
+		private void emit(Integer value) {
+			final var next = fetched.poll();
+			check(next != null, "Nothing was fetched");
+			next.tcsOf().succeed(Optional.ofNullable(value));
+		}
+	}
+
+	private static void operators() throws Exception {
+		final var values = new ArrayList<Integer>();
+		for(int i = 0; i < 10; i++) values.add(i);
+		final var iterator = values.iterator();
+		final var stream = Tasks.stream(() -> Tasks.success(iterator.hasNext() ? Optional.of(iterator.next()) : Optional.<Integer>empty()), 2)
+				.map(x -> x * 2)
+				.filter(x -> x % 3 != 0)
+				.batch(3);
+		final var batches = new ArrayList<List<Integer>>();
+		result(stream.forEach(batches::add).taskOf());
+		check(batches.equals(List.of(List.of(2, 4, 8), List.of(10, 14, 16))), "Wrong batches " + batches);
+	}
+
+	private static void cancelledNext() throws Exception {
+		final var source = new Source();
+		final var mapped = source.stream.filter(x -> x > 0).map(x -> x * 10);
+		final var cancelled = mapped.next();
+		cancelled.cancel();
+		source.emit(0); //Filtered out, the operator fetches again for the cancelled task
+		source.emit(1);
+		final var next = mapped.next();
+		check(next.isDone(), "Kept value was not returned right away");
+		check(result(next).equals(Optional.of(10)), "Value was skipped, got " + result(next));
+		final var last = mapped.next();
+		source.emit(2);
+		check(result(last).equals(Optional.of(20)), "Wrong value " + result(last));
+	}
+
+	private static void nextAfterCancelledNext() throws Exception {
+		final var source = new Source();
+		final var mapped = source.stream.map(x -> x * 10);
+		mapped.next().cancel();
+		final var next = mapped.next(); //The upstream value is still pending
+		source.emit(1);
+		check(result(next).equals(Optional.of(10)), "Value was skipped, got " + result(next));
+		final var end = mapped.next();
+		source.emit(null);
+		check(result(end).isEmpty(), "Stream did not end");
+		check(source.fetched.isEmpty(), "Fetched " + source.fetched.size() + " values nobody waited for");
+	}
+}
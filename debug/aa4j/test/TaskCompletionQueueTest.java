@@ -0,0 +1,136 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.TIMEOUT_SECONDS;
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.run;
+import static aa4j.test.Checks.uncollected;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aa4j.task.TaskAccess;
+import aa4j.task.TaskCompletionQueue;
+import aa4j.task.TaskOf;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for {@link TaskCompletionQueue}.
+ */
+@SuppressWarnings("javadoc")
+public class TaskCompletionQueueTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("completion queue lets go of cancelled waiters", TaskCompletionQueueTest::cancelledWaiters);
+		run("completion queue keeps completion order", TaskCompletionQueueTest::completionOrder);
+		run("completion queue hands out done tasks", TaskCompletionQueueTest::doneTasks);
+		run("completion queue waits for the next task", TaskCompletionQueueTest::waiting);
+	}
+
+	private static void cancelledWaiters() throws Exception {
+		final var queue = new TaskCompletionQueue<Integer>();
+		final var waiters = new ArrayList<WeakReference<Object>>();
+		for(int i = 0; i < 1000; i++) {
+			final var waiter = queue.next();
+			check(waiter.cancel().isCancelledByAction(), "Waiter was not cancelled");
+			waiters.add(new WeakReference<>(waiter));
+		}
+		final int left = uncollected(waiters);
+		check(left == 0, left + " cancelled waiters are still kept by the queue");
+		final var task = Tasks.success(1);
+		queue.add(task);
+		check(queue.poll() == task, "Task was not kept for poll()");
+	}
+
+	private static void completionOrder() throws Exception {
+		final int count = 20000;
+		final var queue = new TaskCompletionQueue<Integer>();
+		final var sources = new ArrayList<TaskAccess<Integer>>();
+		for(int i = 0; i < count; i++) {
+			final TaskAccess<Integer> access = Tasks.create();
+			sources.add(access);
+			queue.add(access.taskOf());
+		}
+		final var taken = new AtomicInteger();
+		final var outOfOrder = new AtomicInteger();
+		final var consumers = new Thread[3];
+		for(int t = 0; t < consumers.length; t++) {
+			final boolean cancelling = t == 0; //Leaves cancelled waiters behind
+			consumers[t] = new Thread(() -> {
+				int last = -1;
+				while(taken.get() < count) {
+					final var next = queue.next();
+					if(cancelling && next.cancel().isCancelledByAction()) continue;
+					try {
+						final Integer value = next.await(TIMEOUT_SECONDS, TimeUnit.SECONDS).getResult().getResult();
+						if(value <= last) outOfOrder.incrementAndGet();
+						last = value;
+						taken.incrementAndGet();
+					} catch (TimeoutException e) {
+						return; //All tasks were taken by the other consumers
+					} catch (Exception e) {
+						outOfOrder.incrementAndGet();
+					}
+				}
+			});
+			consumers[t].setDaemon(true);
+			consumers[t].start();
+		}
+		for(int i = 0; i < count; i++) sources.get(i).tcsOf().succeed(i);
+		for(var consumer : consumers) consumer.join(TimeUnit.SECONDS.toMillis(3 * TIMEOUT_SECONDS));
+		check(taken.get() == count, "Only " + taken.get() + " of " + count + " tasks were taken");
+		check(outOfOrder.get() == 0, outOfOrder.get() + " tasks were taken out of completion order");
+	}
+
+	private static void doneTasks() throws Exception {
+		final var queue = new TaskCompletionQueue<Integer>();
+		check(queue.poll() == null, "Empty queue returned a task");
+		check(queue.poll(10, TimeUnit.MILLISECONDS) == null, "Empty queue returned a task after waiting");
+		final TaskAccess<Integer> pending = Tasks.create();
+		final var failed = Tasks.<Integer>failure(new IllegalStateException("Expected"));
+		final var succeeded = Tasks.success(1);
+		queue.addAll(List.of(pending.taskOf(), failed, succeeded));
+		check(queue.getCompletedCount() == 2, "Wrong completed count " + queue.getCompletedCount());
+		check(queue.take() == failed, "Failed task was not taken first");
+		final var next = queue.next();
+		check(next.isDone() && next.getResult() == succeeded, "Done task was not returned by next()");
+		check(queue.poll() == null, "Pending task was taken");
+		pending.tcsOf().succeed(2);
+		check(queue.poll() == pending.taskOf(), "Completed task was not taken");
+		check(queue.getCompletedCount() == 0, "Taken tasks are still counted");
+	}
+
+	private static void waiting() throws Exception {
+		final var queue = new TaskCompletionQueue<Integer>();
+		final var next = queue.next();
+		check(!next.isDone(), "next() of an empty queue is done");
+		final TaskAccess<Integer> first = Tasks.create();
+		final TaskAccess<Integer> second = Tasks.create();
+		queue.add(first.taskOf());
+		queue.add(second.taskOf());
+		second.tcsOf().succeed(2);
+		check(next.isDone() && next.getResult() == second.taskOf(), "Waiter did not get the completed task");
+		check(queue.getCompletedCount() == 0, "Task for the waiter is still in the queue");
+
+		final var taken = new TaskOf<?>[1];
+		final var taker = new Thread(() -> {
+			try {
+				taken[0] = queue.take();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		taker.start();
+		first.tcsOf().succeed(1);
+		taker.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+		check(taken[0] == first.taskOf(), "take() did not return the completed task");
+	}
+}
@@ -0,0 +1,62 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.counting;
+import static aa4j.test.Checks.run;
+
+import java.util.ArrayList;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import aa4j.task.TaskOf;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for the {@link Flow} bridges {@link Tasks#toPublisher(java.util.Collection)} and {@link Tasks#fromPublisher}.
+ */
+@SuppressWarnings("javadoc")
+public class TaskPublisherTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("publisher removes handlers added while cancelling", TaskPublisherTest::cancelDuringStart);
+	}
+
+	/**
+	 * A subscriber that only keeps its subscription.
+	 */
+	/*package*/ static <T> Flow.Subscriber<T> subscriber(AtomicReference<Flow.Subscription> subscription) {
+		return new Flow.Subscriber<T>() {
+			@Override
+			public void onSubscribe(Flow.Subscription s) {
+				subscription.set(s);
+			}
+
+			@Override
+			public void onNext(T item) {}
+
+			@Override
+			public void onError(Throwable throwable) {}
+
+			@Override
+			public void onComplete() {}
+		};
+	}
+
+	private static void cancelDuringStart() throws Exception {
+		final var open = new AtomicInteger();
+		final var subscription = new AtomicReference<Flow.Subscription>();
+		final var tasks = new ArrayList<TaskOf<Integer>>();
+		for(int i = 0; i < 3; i++) {
+			//Cancels while the task is being registered, like a subscriber that cancels on another thread
+			tasks.add(counting(Tasks.create(), open, () -> subscription.get().cancel()));
+		}
+		Tasks.toPublisher(tasks).subscribe(subscriber(subscription));
+		check(open.get() == 0, open.get() + " handlers left on the tasks");
+	}
+}
@@ -0,0 +1,102 @@
+package aa4j.test;
+
+import static aa4j.test.Checks.check;
+import static aa4j.test.Checks.result;
+import static aa4j.test.Checks.run;
+import static aa4j.test.Checks.uncollected;
+
+import java.lang.ref.WeakReference;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import aa4j.task.TaskAccess;
+import aa4j.task.TaskState;
+import aa4j.task.Tasks;
+
+/**
+ * Behavior checks for {@link Tasks#withTimeout(aa4j.task.TaskOf, long, TimeUnit)} and
+ * {@link Tasks#withDeadline(aa4j.task.TaskOf, Instant)}.
+ */
+@SuppressWarnings("javadoc")
+public class TimeoutTaskTest {
+
+	public static void main(String[] args) {
+		checks();
+		Checks.finish();
+	}
+
+	/*package*/ static void checks() {
+		run("timeout fails the task and cancels the source", TimeoutTaskTest::timeout);
+		run("task that completes in time keeps its outcome", TimeoutTaskTest::completedInTime);
+		run("deadline in the past times out right away", TimeoutTaskTest::pastDeadline);
+		run("done tasks and cancellation", TimeoutTaskTest::doneAndCancelled);
+		run("timer lets go of tasks that completed in time", TimeoutTaskTest::timerReleased);
+	}
+
+	private static void timeout() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create(() -> {});
+		final var task = Tasks.withTimeout(access.taskOf(), 20, TimeUnit.MILLISECONDS);
+		task.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		check(task.getOutcome().getFailureReason() instanceof TimeoutException, "Wrong outcome " + task.getState());
+		access.taskOf().await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS); //The timer cancels it after failing the task
+		check(access.taskOf().getState() == TaskState.CANCELLED, "Source task was not cancelled");
+	}
+
+	private static void completedInTime() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create(() -> {});
+		final var task = Tasks.withTimeout(access.taskOf(), 20, TimeUnit.MILLISECONDS);
+		access.tcsOf().succeed(1);
+		check(result(task) == 1, "Wrong result");
+		Thread.sleep(50); //The timeout has passed
+		check(task.isSuccess() && access.taskOf().isSuccess(), "Timeout changed a completed task");
+
+		final var failure = new IllegalStateException("Expected");
+		final TaskAccess<Integer> failing = Tasks.create();
+		final var failed = Tasks.withDeadline(failing.taskOf(), Instant.now().plusSeconds(60));
+		failing.tcsOf().fail(failure);
+		failed.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		check(failed.getOutcome().getFailureReason() == failure, "Wrong failure " + failed.getOutcome());
+	}
+
+	private static void pastDeadline() throws Exception {
+		final TaskAccess<Integer> access = Tasks.create(() -> {});
+		final var task = Tasks.withDeadline(access.taskOf(), Instant.now().minusSeconds(1));
+		task.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		check(task.getOutcome().getFailureReason() instanceof TimeoutException, "Wrong outcome " + task.getState());
+	}
+
+	private static void doneAndCancelled() throws Exception {
+		final var done = Tasks.success(1);
+		check(Tasks.withTimeout(done, 1, TimeUnit.SECONDS) == done, "Done task was not returned itself");
+		check(Tasks.withDeadline(done, Instant.now()) == done, "Done task was not returned itself");
+
+		final TaskAccess<Integer> access = Tasks.create(() -> {});
+		final var task = Tasks.withTimeout(access.taskOf(), 1, TimeUnit.HOURS);
+		task.cancel();
+		check(access.taskOf().isCancelled(), "Cancelling did not reach the source task");
+		task.await(Checks.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		check(task.isCancelled(), "Task was not cancelled");
+
+		boolean rejected = false;
+		try {
+			Tasks.withTimeout(access.taskOf(), -1, TimeUnit.SECONDS);
+		} catch (IllegalArgumentException e) {
+			rejected = true;
+		}
+		check(rejected, "Negative timeout was accepted");
+	}
+
+	private static void timerReleased() throws Exception {
+		final var tasks = new ArrayList<WeakReference<Object>>();
+		for(int i = 0; i < 1000; i++) {
+			final TaskAccess<Integer> access = Tasks.create();
+			final var task = Tasks.withTimeout(access.taskOf(), 1, TimeUnit.HOURS);
+			access.tcsOf().succeed(i);
+			tasks.add(new WeakReference<>(task));
+		}
+		final int left = uncollected(tasks);
+		check(left == 0, left + " tasks are still kept by the timer");
+	}
+}
@@ -25,7 +25,7 @@ import aa4j.task.Tasks;
 
 	@Override
 	public <FUNC_RESULT> OnSyncActions<FUNC_RESULT> sync(SyncAction<T, FUNC_RESULT> action) {
-		return new AwaitStage<>(Tasks.map(stageTask, action::syncAction)); 
+		return new MappedStage<>(stageTask, action);
 	}
 	
 }
@@ -1,13 +1,13 @@
 package aa4j;
 
-import java.util.HashSet;
 import java.util.Objects;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 
 /**
  * An awaiter will allow threads to wait until the awaiter is signalled by another thread.
@@ -16,29 +16,47 @@ import java.util.concurrent.locks.ReentrantLock;
  * permits, that can be made available before any threads begin waiting. The permits are one-way: If they have been
  * granted, they will remain forever
  * </p>
+ * <p>
+ * The awaiter does not use any locks: Every permit has its own wait queue, a lock-free stack of parked
+ * threads that is detached in one step when the permit is granted. Granting a permit therefore only wakes up
+ * the threads that are waiting for exactly that permit, except for the {@link #MASTER_PERMIT}, which wakes up all threads.
+ * </p>
  */
 public final class Awaiter {
-	
+
 	/**
 	 * The permit that releases all awaiting threads, regardless of the permit they used.
 	 * Can be awaited to not wake up on any special permits at all
 	 */
 	public static final Object MASTER_PERMIT = null;
-	
-	private final Lock conditionLock;
-	private final Condition condition;
-	private final Set<Object> availablePermits;
-	
+
+	private static final Object NOT_GRANTED = new Object(); //MASTER_PERMIT is null, so we need a different marker
+	private static final long NO_DEADLINE = 0;
+
+	private final PermitQueue masterQueue;
+	private final ConcurrentHashMap<Object, PermitQueue> permitQueues; //MASTER_PERMIT cannot be a key, it has its own queue
+	private final WaitStrategy waitStrategy;
+
 	/**
-	 * Creates a new {@link Awaiter} that maintains its own {@link Lock} and {@link Condition}.
+	 * Creates a new {@link Awaiter} without any waiting threads that parks waiting threads immediately.
 	 * The permit will initially not be availabe.
 	 */
 	public Awaiter() {
-		this.conditionLock = new ReentrantLock();
-		this.condition = conditionLock.newCondition();
-		this.availablePermits = new HashSet<>();
+		this(WaitStrategy.park());
 	}
-	
+
+	/**
+	 * Creates a new {@link Awaiter} without any waiting threads.
+	 * The permit will initially not be availabe.
+	 * @param waitStrategy The {@link WaitStrategy} used by all waiting methods without an explicit strategy
+	 * @throws NullPointerException When {@code waitStrategy} is {@code null}
+	 */
+	public Awaiter(WaitStrategy waitStrategy) {
+		this.masterQueue = new PermitQueue();
+		this.permitQueues = new ConcurrentHashMap<>();
+		this.waitStrategy = Objects.requireNonNull(waitStrategy, "'waitStrategy' parameter must not be null");
+	}
+
 	/**
 	 * Waits for the permit to become available. If it is available when the method is called, it
 	 * returns immediately.
@@ -47,31 +65,13 @@ public final class Awaiter {
 	 * @return The permit that signalled the awaiter
 	 */
 	public Object await(Object permit) throws InterruptedException {
-		//Don't wait when the permit is available
-		if(availablePermits.contains(MASTER_PERMIT)) {
-			return MASTER_PERMIT;
-		} else if(availablePermits.contains(permit)) {
-			return permit;
-		} else {
-			conditionLock.lock();
-			try {
-				//Check again in case another thread gave the permit before we could start waiting
-				//Spin until we wake up with permit to avoid spurious wakeups
-				while(true) {
-					if(availablePermits.contains(MASTER_PERMIT)) {
-						return MASTER_PERMIT;
-					} else if(availablePermits.contains(permit)) {
-						return permit;
-					} else {
-						condition.await();
-					}
-				}
-			} finally {
-				conditionLock.unlock();
-			}
+		try {
+			return awaitImpl(permit, true, false, NO_DEADLINE, waitStrategy);
+		} catch (TimeoutException e) {
+			throw new AssertionError("Untimed wait cannot time out", e);
 		}
 	}
-	
+
 	/**
 	 * Waits for the permit to become available. If it is available when the method is called, it
 	 * returns immediately. If the thread is interrupted while waiting, it will continue to wait and the
@@ -80,30 +80,13 @@ public final class Awaiter {
 	 * @return The permit that signalled the awaiter
 	 */
 	public Object awaitUninterruptibly(Object permit) {
-		if(availablePermits.contains(MASTER_PERMIT)) {
-			return MASTER_PERMIT;
-		} else if(availablePermits.contains(permit)) {
-			return permit;
-		} else {
-			conditionLock.lock();
-			try {
-				//Check again in case another thread gave the permit before we could start waiting
-				//Spin until we wake up with permit to avoid spurious wakeups
-				while(true) {
-					if(availablePermits.contains(MASTER_PERMIT)) {
-						return MASTER_PERMIT;
-					} else if(availablePermits.contains(permit)) {
-						return permit;
-					} else {
-						condition.awaitUninterruptibly();
-					}
-				}
-			} finally {
-				conditionLock.unlock();
-			}
+		try {
+			return awaitImpl(permit, false, false, NO_DEADLINE, waitStrategy);
+		} catch (InterruptedException | TimeoutException e) {
+			throw new AssertionError("Untimed uninterruptible wait cannot be interrupted or time out", e);
 		}
 	}
-	
+
 	/**
 	 * Waits for the permit to become available or the the timeout to elapse. If the permit is available when the method is called, it
 	 * returns immediately.
@@ -117,33 +100,9 @@ public final class Awaiter {
 	 */
 	public Object await(Object permit, long timeout, TimeUnit unit) throws InterruptedException, TimeoutException {
 		Objects.requireNonNull(unit, "'unit' parameter must not be null");
-		
-		if(availablePermits.contains(MASTER_PERMIT)) {
-			return MASTER_PERMIT;
-		} else if(availablePermits.contains(permit)) {
-			return permit;
-		} else {
-			conditionLock.lock();
-			try {
-				//Check again in case another thread gave the permit before we could start waiting
-				//Spin until we wake up with permit to avoid spurious wakeups
-				while(true) {
-					if(availablePermits.contains(MASTER_PERMIT)) {
-						return MASTER_PERMIT;
-					} else if(availablePermits.contains(permit)) {
-						return permit;
-					} else {
-						if(!condition.await(timeout, unit)) {
-							throw new TimeoutException("Awaiter: timeout elapsed before being signalled");
-						}
-					}
-				}
-			} finally {
-				conditionLock.unlock();
-			}
-		}
+		return awaitImpl(permit, true, true, System.nanoTime() + unit.toNanos(timeout), waitStrategy);
 	}
-	
+
 	/**
 	 * Waits for the permit to become available or the the timeout to elapse. If the permit is available when the method is called, it
 	 * returns immediately. If the thread is interrupted while waiting, it will continue to wait and the
@@ -157,33 +116,38 @@ public final class Awaiter {
 	 */
 	public Object awaitUninterruptibly(Object permit, long timeout, TimeUnit unit) throws TimeoutException {
 		Objects.requireNonNull(unit, "'unit' parameter must not be null");
-		
-		if(availablePermits.contains(MASTER_PERMIT)) {
-			return MASTER_PERMIT;
-		} else if(availablePermits.contains(permit)) {
-			return permit;
-		} else {
-			conditionLock.lock();
-			try {
-				//Check again in case another thread gave the permit before we could start waiting
-				//Spin until we wake up with permit to avoid spurious wakeups
-				while(true) {
-					if(availablePermits.contains(MASTER_PERMIT)) {
-						return permit;
-					} else if(availablePermits.contains(permit)) {
-						return MASTER_PERMIT;
-					} else {
-						if(!awaitUniterruptiblyImpl(timeout, unit)) {
-							throw new TimeoutException("Awaiter: timeout elapsed before being signalled");
-						}
-					}
-				}
-			} finally {
-				conditionLock.unlock();
-			}
+		try {
+			return awaitImpl(permit, false, true, System.nanoTime() + unit.toNanos(timeout), waitStrategy);
+		} catch (InterruptedException e) {
+			throw new AssertionError("Uninterruptible wait cannot be interrupted", e);
 		}
 	}
-	
+
+	/**
+	 * Waits for the permit to become available using the supplied {@link WaitStrategy} instead of the one this awaiter
+	 * was created with. If the permit is available when the method is called, it returns immediately.
+	 * <p>
+	 * If {@code unit} is {@code null} or the {@code timeout} value is negative, no timeout will be used.
+	 * If the thread is interrupted while waiting and {@code interruptible} is {@code false}, it will continue to wait and the
+	 * interrupt flag will be set on this thread after the method returns.
+	 * </p>
+	 * @param permit The permit key to wait for
+	 * @param timeout The maximum time to wait
+	 * @param unit The {@link TimeUnit} for the timeout, or {@code null} to not use a timeout
+	 * @param interruptible Whether the waiting thread can be interrupted
+	 * @param strategy The {@link WaitStrategy} for this call
+	 * @return The permit that signalled the awaiter
+	 * @throws InterruptedException When the waiting thread was interrupted and {@code interruptible} is {@code true}
+	 * @throws TimeoutException When the timeout expires before being signalled
+	 * @throws NullPointerException When {@code strategy} is {@code null}
+	 */
+	public Object await(Object permit, long timeout, TimeUnit unit, boolean interruptible, WaitStrategy strategy)
+			throws InterruptedException, TimeoutException {
+		Objects.requireNonNull(strategy, "'strategy' parameter must not be null");
+		final boolean timed = unit != null && timeout >= 0;
+		return awaitImpl(permit, interruptible, timed, timed ? System.nanoTime() + unit.toNanos(timeout) : NO_DEADLINE, strategy);
+	}
+
 	/**
 	 * Makes the permit available and wakes up all threads waiting for that permit,
 	 * or all threads if it is the {@link #MASTER_PERMIT}.
@@ -192,45 +156,212 @@ public final class Awaiter {
 	 * A return value of true means that a wakeup action unique to the passed permit was triggered by this signalAll call.
 	 */
 	public boolean signalAll(Object permit) {
-		if(availablePermits.contains(permit)) {
+		if(permit == MASTER_PERMIT) {
+			if(masterQueue.grant() != PermitQueue.GRANTED_NOW) return false;
+			//Threads waiting for other permits are released by the master permit as well.
+			//They stay in their queues, the granted master permit makes them leave on the next check
+			for(var queue : permitQueues.values()) {
+				queue.unparkAll();
+			}
 			return false;
 		} else {
-			conditionLock.lock();
-			try {
-				//Check again for permit
-				if(!availablePermits.contains(permit)) {
-					//Give permit and signal
-					availablePermits.add(permit);
-					condition.signalAll();
-					return permit != MASTER_PERMIT && !availablePermits.contains(MASTER_PERMIT);
+			while(true) {
+				final var queue = queueFor(permit);
+				final int result = queue.grant();
+				if(result == PermitQueue.REMOVED_BY_WAITER) continue; //The last waiter left, use a new queue
+				//Only the granted state has to be kept, so all granted permits share one queue
+				if(result == PermitQueue.GRANTED_NOW) permitQueues.replace(permit, queue, PermitQueue.ALWAYS_GRANTED);
+				return result == PermitQueue.GRANTED_NOW && !masterQueue.isGranted();
+			}
+		}
+	}
+
+	private Object awaitImpl(Object permit, boolean interruptible, boolean timed, long deadlineNanos, WaitStrategy strategy)
+			throws InterruptedException, TimeoutException {
+		//Don't wait when the permit is available
+		var granted = grantedPermit(permit);
+		if(granted != NOT_GRANTED) return granted;
+		if(interruptible && Thread.interrupted()) throw new InterruptedException();
+		//Nothing needs to be pushed to the queue while spinning, the thread is not parked yet
+		if(strategy != WaitStrategy.park()) {
+			final BooleanSupplier isGranted = () -> isGranted(permit);
+			if(timed ? strategy.spinUntil(isGranted, deadlineNanos) : strategy.spinUntil(isGranted)) return grantedPermit(permit);
+		}
+		if(interruptible && Thread.interrupted()) throw new InterruptedException();
+
+		final var node = new WaitNode(Thread.currentThread());
+		PermitQueue queue;
+		while(true) {
+			queue = permit == MASTER_PERMIT ? masterQueue : queueFor(permit);
+			final int result = queue.push(node);
+			if(result == PermitQueue.PUSHED) break;
+			//The permit was granted in the meantime
+			if(result == PermitQueue.ALREADY_GRANTED) return grantedPermit(permit);
+			//REMOVED_BY_WAITER: The last waiter left the queue, use a new queue
+		}
+		boolean interrupted = false;
+		try {
+			//Check again in case another thread gave the permit before we were in the queue.
+			//Loop until we wake up with permit to avoid spurious wakeups
+			while((granted = grantedPermit(permit)) == NOT_GRANTED) {
+				if(timed) {
+					final long remainingNanos = deadlineNanos - System.nanoTime();
+					if(remainingNanos <= 0) throw new TimeoutException("Awaiter: timeout elapsed before being signalled");
+					LockSupport.parkNanos(this, remainingNanos);
 				} else {
-					return false;
+					LockSupport.park(this);
+				}
+				//park returns immediately while the flag is set, so clear it and restore it later if uninterruptible
+				if(Thread.interrupted()) {
+					if(interruptible) throw new InterruptedException();
+					interrupted = true;
 				}
-			} finally {
-				conditionLock.unlock();
 			}
+			return granted;
+		} finally {
+			queue.remove(node);
+			//Queues of permits that nobody waits for and that are not granted have no state, so they are removed
+			if(queue != masterQueue && queue.markRemoved()) permitQueues.remove(permit, queue);
+			if(interrupted) Thread.currentThread().interrupt();
 		}
 	}
-	
-	private boolean awaitUniterruptiblyImpl(long timeout, TimeUnit unit) {
-		boolean interrupted = false;
-		long remainingNanos = unit.toNanos(timeout);
-		long deadlineNanos = System.nanoTime();
-		
-		//Repeat-wait until we return a result
+
+	private boolean isGranted(Object permit) {
+		return grantedPermit(permit) != NOT_GRANTED;
+	}
+
+	private Object grantedPermit(Object permit) {
+		if(masterQueue.isGranted()) {
+			return MASTER_PERMIT;
+		} else if(permit != MASTER_PERMIT) {
+			final var queue = permitQueues.get(permit);
+			if(queue != null && queue.isGranted()) return permit;
+		}
+		return NOT_GRANTED;
+	}
+
+	private PermitQueue queueFor(Object permit) {
 		while(true) {
-			try {
-				boolean success = condition.await(remainingNanos, TimeUnit.NANOSECONDS);
-				//If we arrive here, no interruptions happened
-				if(interrupted) Thread.currentThread().interrupt(); //reset flag
-				return success; //Stop waiting
-			} catch (InterruptedException e) {
-				interrupted = true;
-				//Calculate how much more we have to wait
-				remainingNanos = deadlineNanos - System.nanoTime();
-				//Then repeat loop to wait the remaining time
+			var queue = permitQueues.get(permit);
+			if(queue == null) queue = permitQueues.computeIfAbsent(permit, p -> new PermitQueue());
+			if(!queue.isRemoved()) return queue;
+			permitQueues.remove(permit, queue); //The waiter that marked it has not removed it yet
+		}
+	}
+
+	/**
+	 * A lock-free stack of waiting threads for a single permit. Granting the permit replaces the stack
+	 * with the {@link #GRANTED} marker, so no thread can be added afterwards.
+	 * A queue that is empty and not granted can be replaced with the {@link #REMOVED} marker when it is removed from the map.
+	 * Threads that still use the removed queue see the marker and look up the queue again.
+	 */
+	private static final class PermitQueue {
+		private static final WaitNode GRANTED = new WaitNode(null);
+		private static final WaitNode REMOVED = new WaitNode(null);
+		private static final PermitQueue ALWAYS_GRANTED = new PermitQueue(GRANTED);
+
+		private static final int PUSHED = 0;
+		private static final int GRANTED_NOW = 3;
+		private static final int ALREADY_GRANTED = 1;
+		private static final int REMOVED_BY_WAITER = 2;
+
+		private final AtomicReference<WaitNode> head;
+
+		private PermitQueue() {
+			this(null);
+		}
+
+		private PermitQueue(WaitNode head) {
+			this.head = new AtomicReference<>(head);
+		}
+
+		private boolean isGranted() {
+			return head.get() == GRANTED;
+		}
+
+		private boolean isRemoved() {
+			return head.get() == REMOVED;
+		}
+
+		/**
+		 * @return {@link #PUSHED}, {@link #ALREADY_GRANTED} or {@link #REMOVED_BY_WAITER}
+		 */
+		private int push(WaitNode node) {
+			WaitNode current;
+			do {
+				current = head.get();
+				if(current == GRANTED) return ALREADY_GRANTED;
+				if(current == REMOVED) return REMOVED_BY_WAITER;
+				node.next = current;
+			} while(!head.compareAndSet(current, node));
+			return PUSHED;
+		}
+
+		/**
+		 * @return {@link #GRANTED_NOW}, {@link #ALREADY_GRANTED} or {@link #REMOVED_BY_WAITER}
+		 */
+		private int grant() {
+			WaitNode detached;
+			do {
+				detached = head.get();
+				if(detached == GRANTED) return ALREADY_GRANTED;
+				if(detached == REMOVED) return REMOVED_BY_WAITER;
+			} while(!head.compareAndSet(detached, GRANTED));
+			for(var node = detached; node != null; node = node.next) {
+				node.unpark();
 			}
+			return GRANTED_NOW;
+		}
+
+		/**
+		 * @return {@code true} if the queue was empty and not granted, and is now marked as removed
+		 */
+		private boolean markRemoved() {
+			return head.get() == null && head.compareAndSet(null, REMOVED);
+		}
+
+		private void unparkAll() {
+			for(var node = head.get(); node != null && node != GRANTED && node != REMOVED; node = node.next) {
+				node.unpark();
+			}
+		}
+
+		/**
+		 * Marks the node as removed and unlinks all removed nodes from the stack.
+		 * Restarts the traversal whenever it races with another thread that changes the links.
+		 */
+		private void remove(WaitNode node) {
+			node.thread = null;
+			retry:
+			while(true) {
+				WaitNode pred = null;
+				for(var current = head.get(); current != null && current != GRANTED && current != REMOVED; current = current.next) {
+					final var succ = current.next;
+					if(current.thread != null) {
+						pred = current;
+					} else if(pred != null) {
+						pred.next = succ;
+						if(pred.thread == null) continue retry; //pred was removed concurrently
+					} else if(!head.compareAndSet(current, succ)) {
+						continue retry;
+					}
+				}
+				return;
+			}
+		}
+	}
+
+	private static final class WaitNode {
+		private volatile Thread thread;
+		private volatile WaitNode next;
+
+		private WaitNode(Thread thread) {
+			this.thread = thread;
+		}
+
+		private void unpark() {
+			final var t = thread;
+			if(t != null) LockSupport.unpark(t);
 		}
 	}
-	
 }
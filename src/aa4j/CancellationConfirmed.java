@@ -1,5 +1,7 @@
 package aa4j;
 
+import aa4j.task.Tasks;
+
 /**
  * {@code CancellationConfirmed} is a {@link Throwable} (and not an {@link Exception}) that is thrown by
  * {@link CancellationStatusSupplier#allowCancellation()} to end the running task an move up in the callstack to a point where
@@ -7,10 +9,27 @@ package aa4j;
  * <p><b>
  * This should not be thrown or caught manually.
  * </p></b>
+ * @see Tasks#setStacklessCancellation(boolean)
  */
 public class CancellationConfirmed extends Throwable {
 	private static final long serialVersionUID = 1762293670443363132L;
+	private static final String MESSAGE = "aa4j error: this type of exception should have been caught.";
+	
+	//Has no stack trace and no suppressed exceptions, so it can be thrown by any number of threads
+	private static final CancellationConfirmed SHARED = new CancellationConfirmed(false);
+	
 	/*package*/ CancellationConfirmed() {
-		super("aa4j error: this type of exception should have been caught.");
+		super(MESSAGE);
+	}
+	
+	private CancellationConfirmed(boolean writableStackTrace) {
+		super(MESSAGE, null, false, writableStackTrace);
+	}
+	
+	/**
+	 * @return The shared instance if {@link Tasks#isStacklessCancellation()} is enabled, a new instance otherwise
+	 */
+	/*package*/ static CancellationConfirmed create() {
+		return Tasks.isStacklessCancellation() ? SHARED : new CancellationConfirmed();
 	}
 }
@@ -2,6 +2,7 @@ package aa4j;
 
 import aa4j.function.ActiveCancellableTaskOf;
 import aa4j.task.Task;
+import aa4j.task.Tasks;
 
 /**
  * This object can be used by the executing side of a task to check
@@ -22,13 +23,14 @@ public interface CancellationStatusSupplier {
 
 	/**
 	 * Generates a confirmation object which can be thrown from inside the executing {@link ActiveCancellableTaskOf}
-	 * to indicate a successful cancellation.
+	 * to indicate a successful cancellation.<br>
+	 * If {@link Tasks#isStacklessCancellation()} is enabled, the same object without a stack trace is returned every time.
 	 * @return A {@link CancellationConfirmed} object (throwable)
 	 * @throws CancellationStateException If this method is called when cancellation was <b>not</b> requested
 	 */
 	public default CancellationConfirmed allowCancellation() throws CancellationStateException {
 		if(isCancellationRequested()) {
-			return new CancellationConfirmed();
+			return CancellationConfirmed.create();
 		} else {
 			throw new CancellationStateException();
 		}
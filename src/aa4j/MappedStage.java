@@ -0,0 +1,65 @@
+package aa4j;
+
+import aa4j.function.AsyncAction;
+import aa4j.function.SyncAction;
+import aa4j.task.TaskOf;
+import aa4j.task.Tasks;
+
+/**
+ * The stage after a {@link OnAwaitActions#sync(SyncAction)}. The synchronous action is not mapped to a task of its own:
+ * It is fused into the function of the next {@link #await(AsyncAction)}, so the pipeline creates one task per await.
+ * A mapped task is only created when the {@link #task()} is requested.
+ * <p>
+ * The action runs at most once, even if the stage is used for both {@link #task()} and {@link #await(AsyncAction)}.
+ * If it throws a {@link RuntimeException} or {@link Error}, that exception is kept and the same instance is thrown again
+ * for the other use, so the mapped task and the awaited task fail with the same exception object.
+ * </p>
+ * @param <S> The result type of the awaited task
+ * @param <T> The result type of the synchronous action
+ */
+/*package*/ class MappedStage<S, T> implements OnSyncActions<T> {
+
+	private static final Object NOT_RUN = new Object();
+
+	private final TaskOf<S> source;
+	private final SyncAction<S, T> action;
+	//All guarded by this
+	private TaskOf<T> mappedTask; //created on first use
+	private Object result = NOT_RUN; //The value returned by the action, or the exception it threw
+	private boolean failed;
+
+	protected MappedStage(TaskOf<S> source, SyncAction<S, T> action) {
+		this.source = source;
+		this.action = action;
+	}
+
+	@Override
+	public <FUNC_RESULT> OnAwaitActions<FUNC_RESULT> await(AsyncAction<T, FUNC_RESULT> next) {
+		return new AwaitStage<>(Tasks.chain(source, s -> next.asyncAction(apply(s))));
+	}
+
+	@Override
+	public synchronized TaskOf<T> task() {
+		if(mappedTask == null) mappedTask = Tasks.map(source, this::apply);
+		return mappedTask;
+	}
+
+	/**
+	 * Runs the action, or returns what it returned or threw the first time. The source task completes only once,
+	 * so the parameter is the same for every call.
+	 */
+	@SuppressWarnings("unchecked")
+	private synchronized T apply(S value) {
+		if(result == NOT_RUN) {
+			try {
+				result = action.syncAction(value);
+			} catch (RuntimeException | Error e) {
+				result = e;
+				failed = true;
+			}
+		}
+		if(!failed) return (T) result;
+		if(result instanceof Error) throw (Error) result;
+		throw (RuntimeException) result;
+	}
+}
@@ -0,0 +1,130 @@
+package aa4j;
+
+import java.util.Objects;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Describes how a thread waits for a task or for an {@link Awaiter} permit before it parks.
+ * <p>
+ * Parking a thread costs a context switch on both sides, which is a lot compared to the lifetime of a task
+ * that completes within a few microseconds. A {@link WaitStrategy} can first busy-spin (using {@link Thread#onSpinWait()}),
+ * then yield the processor ({@link Thread#yield()}) a few times, and only then park the thread.
+ * Spinning burns CPU time of the waiting thread and should only be used when the awaited action is expected to finish very soon.
+ * </p>
+ * <p>
+ * On a machine with a single processor, the spin phase is skipped, because the awaited action cannot make progress while
+ * the waiting thread is spinning.
+ * </p>
+ */
+public final class WaitStrategy {
+
+	private static final boolean MULTIPROCESSOR = Runtime.getRuntime().availableProcessors() > 1;
+
+	private static final WaitStrategy PARK = new WaitStrategy(0, 0);
+	private static final WaitStrategy LOW_LATENCY = new WaitStrategy(1 << 10, 8);
+	private static final int DEADLINE_CHECK_MASK = (1 << 4) - 1;
+
+	private final int spinIterations;
+	private final int yieldIterations;
+
+	private WaitStrategy(int spinIterations, int yieldIterations) {
+		this.spinIterations = spinIterations;
+		this.yieldIterations = yieldIterations;
+	}
+
+	/**
+	 * The amount of times the waiting thread checks for the permit in a busy-spin loop before yielding.
+	 * @return The amount of spin iterations, {@code 0} if the thread does not spin
+	 */
+	public int getSpinIterations() {
+		return spinIterations;
+	}
+
+	/**
+	 * The amount of times the waiting thread yields the processor before parking.
+	 * @return The amount of yield iterations, {@code 0} if the thread does not yield
+	 */
+	public int getYieldIterations() {
+		return yieldIterations;
+	}
+
+	/**
+	 * Spins and yields according to this strategy until the condition is met.
+	 * The caller is expected to park the thread if this method returns {@code false}.
+	 * @param condition The condition that ends the waiting, usually a check whether the awaited action is done
+	 * @return {@code true} if the condition was met while spinning or yielding, {@code false} if the thread has to park
+	 * @throws NullPointerException When {@code condition} is {@code null}
+	 */
+	public boolean spinUntil(BooleanSupplier condition) {
+		Objects.requireNonNull(condition, "'condition' parameter must not be null");
+		return spin(condition, false, 0);
+	}
+
+	/**
+	 * Spins and yields according to this strategy until the condition is met or the deadline has passed.
+	 * The caller is expected to park the thread or time out if this method returns {@code false}.
+	 * @param condition The condition that ends the waiting, usually a check whether the awaited action is done
+	 * @param deadlineNanos The {@link System#nanoTime()} after which the thread stops spinning
+	 * @return {@code true} if the condition was met while spinning or yielding, {@code false} if the thread has to park
+	 * or the deadline has passed
+	 * @throws NullPointerException When {@code condition} is {@code null}
+	 */
+	public boolean spinUntil(BooleanSupplier condition, long deadlineNanos) {
+		Objects.requireNonNull(condition, "'condition' parameter must not be null");
+		return spin(condition, true, deadlineNanos);
+	}
+
+	private boolean spin(BooleanSupplier condition, boolean timed, long deadlineNanos) {
+		if(MULTIPROCESSOR) {
+			for(int i = 0; i < spinIterations; i++) {
+				//Reading the clock costs about as much as a spin, so it is only checked every few iterations
+				if(timed && (i & DEADLINE_CHECK_MASK) == 0 && deadlineNanos - System.nanoTime() <= 0) return false;
+				Thread.onSpinWait();
+				if(condition.getAsBoolean()) return true;
+			}
+		}
+		for(int i = 0; i < yieldIterations; i++) {
+			if(timed && deadlineNanos - System.nanoTime() <= 0) return false;
+			Thread.yield();
+			if(condition.getAsBoolean()) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * A strategy that parks the waiting thread immediately.
+	 * This is the default strategy for all tasks.
+	 * @return A strategy that never spins or yields
+	 */
+	public static WaitStrategy park() {
+		return PARK;
+	}
+
+	/**
+	 * A strategy for tasks that usually complete within a few microseconds of being awaited:
+	 * It spins for roughly a few microseconds and yields a few times before parking.
+	 * @return A strategy for low-latency waiting
+	 */
+	public static WaitStrategy lowLatency() {
+		return LOW_LATENCY;
+	}
+
+	/**
+	 * Creates a strategy that first spins, then yields and then parks the waiting thread.
+	 * @param spinIterations The amount of busy-spin iterations before yielding
+	 * @param yieldIterations The amount of times the thread yields before parking
+	 * @return A new {@link WaitStrategy}
+	 * @throws IllegalArgumentException When {@code spinIterations} or {@code yieldIterations} is negative
+	 */
+	public static WaitStrategy spinThenPark(int spinIterations, int yieldIterations) {
+		if(spinIterations < 0) throw new IllegalArgumentException("'spinIterations' parameter must not be negative");
+		if(yieldIterations < 0) throw new IllegalArgumentException("'yieldIterations' parameter must not be negative");
+		if(spinIterations == 0 && yieldIterations == 0) return PARK;
+		return new WaitStrategy(spinIterations, yieldIterations);
+	}
+
+	@Override
+	public String toString() {
+		return "WaitStrategy [spinIterations=" + spinIterations + ", yieldIterations=" + yieldIterations + "]";
+	}
+}
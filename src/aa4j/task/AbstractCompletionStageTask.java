@@ -1,5 +1,9 @@
 package aa4j.task;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CancellationException;
@@ -7,156 +11,1046 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.function.BiConsumer;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
-import aa4j.Awaiter;
 import aa4j.TaskNotDoneException;
+import aa4j.WaitStrategy;
 
 /**
- * Provides methods necessary for a {@link Task} and {@link TaskOf} that are backed by a completableFuture
+ * The completion core for all {@link Task}s and {@link TaskOf}s that complete some time after they were created.
+ * <p>
+ * The outcome of the task is a single volatile word, set once with a CAS: {@code null} while the task is running,
+ * the result value when it succeeded, or an {@link AltResult} for {@code null} results, failures and cancellation.
+ * Everything that has to happen on completion (handlers, dependent tasks, waiting threads) is a {@link Completion} node
+ * on one lock-free stack, which the completing thread detaches and runs in one step.
+ * </p>
+ * <p>
+ * The {@link CompletionStage} view is a {@link CompletableFuture} that is only created when it is requested.
+ * </p>
  * @param <T> Task result type
  */
 /*package*/ abstract class AbstractCompletionStageTask<T> {
 
-	protected final Awaiter awaiter;
-	protected final Task taskView;
-	protected final TaskOf<T> taskOfView;
-	protected final Future<T> futureView;
-	protected final CompletableFuture<T> stage;
-	
-	protected AbstractCompletionStageTask(CompletionStage<T> future) {
-		this.awaiter = new Awaiter();
-		this.stage = future.toCompletableFuture();
-		
-		this.taskView = new TaskImpl();
-		this.taskOfView = new TaskOfImpl();
-		this.futureView = new FutureImpl();
-	}
-	
+	private static final VarHandle RESULT;
+	private static final VarHandle STACK;
+	private static final VarHandle TASK_VIEW;
+	private static final VarHandle TASK_OF_VIEW;
+	private static final VarHandle FUTURE_VIEW;
+	private static final VarHandle STAGE_VIEW;
+	private static final VarHandle OUTCOME_VIEW;
+	private static final VarHandle SWEEP_COUNTDOWN;
+	private static final VarHandle LISTENER_ACTION;
+	static {
+		try {
+			final var lookup = MethodHandles.lookup();
+			RESULT = lookup.findVarHandle(AbstractCompletionStageTask.class, "result", Object.class);
+			STACK = lookup.findVarHandle(AbstractCompletionStageTask.class, "stack", Completion.class);
+			TASK_VIEW = lookup.findVarHandle(AbstractCompletionStageTask.class, "taskView", Task.class);
+			TASK_OF_VIEW = lookup.findVarHandle(AbstractCompletionStageTask.class, "taskOfView", TaskOf.class);
+			FUTURE_VIEW = lookup.findVarHandle(AbstractCompletionStageTask.class, "futureView", Future.class);
+			STAGE_VIEW = lookup.findVarHandle(AbstractCompletionStageTask.class, "stageView", CompletionStage.class);
+			OUTCOME_VIEW = lookup.findVarHandle(AbstractCompletionStageTask.class, "outcomeView", TaskOutcome.class);
+			SWEEP_COUNTDOWN = lookup.findVarHandle(AbstractCompletionStageTask.class, "sweepCountdown", int.class);
+			LISTENER_ACTION = lookup.findVarHandle(AbstractCompletionStageTask.Listener.class, "action", Object.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	/**
+	 * The result of a task that succeeded with {@code null} ({@link #NIL}), failed or was cancelled.
+	 * Successful results that are not {@code null} are stored directly.
+	 * <p>
+	 * The terminal {@link TaskState} is recorded when the outcome is created, so reading the state of a
+	 * done task never has to inspect the exception.
+	 * </p>
+	 */
+	/*package*/ static final class AltResult {
+		/*package*/ final Throwable ex; //null for NIL
+		/*package*/ final TaskState state;
+
+		private AltResult(Throwable ex, TaskState state) {
+			this.ex = ex;
+			this.state = state;
+		}
+
+		/**
+		 * The failure reason wrapped for {@link TaskOf#getResult()}. The exception is created for every call,
+		 * because callers can add suppressed exceptions to it or fill in its stack trace again.
+		 * @return A new {@link ExecutionException}
+		 */
+		/*package*/ ExecutionException wrappedFailure() {
+			return new ExecutionException(ex);
+		}
+	}
+
+	/*package*/ static final AltResult NIL = new AltResult(null, TaskState.SUCCEEDED);
+	/**
+	 * The outcome of a successful task that keeps its result in a field of its own, see {@link PrimitiveTask}.
+	 * Only nodes that know the task can read the result, all others are pushed with {@link #pushDecoding(Completion)}.
+	 */
+	/*package*/ static final AltResult STORED_VALUE = new AltResult(null, TaskState.SUCCEEDED);
+
+	/**
+	 * The outcome of the cancelled tasks that are shared while {@link Tasks#isStacklessCancellation()} is enabled,
+	 * see {@link Tasks#cancelled()}. Its exception has no stack trace.
+	 */
+	/*package*/ static final AltResult SHARED_CANCELLATION = new AltResult(Tasks.newStacklessCancellationException(), TaskState.CANCELLED);
+
+	/**
+	 * Marks the stack of a completed task. Nodes pushed afterwards are run immediately instead.
+	 */
+	private static final Completion DONE = new Completion() {
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object result) {
+			return null;
+		}
+	};
+
+	private volatile Object result;
+	private volatile Completion stack;
+	private volatile int sweepCountdown; //Dead nodes that may stay on the stack before the next sweep, see unlink
+
+	//Most tasks are never viewed in all ways, so all of these are created on first use.
+	//Creation can race, but only one instance is ever published (through the CAS in lazyInit)
+	private volatile Task taskView;
+	private volatile TaskOf<T> taskOfView;
+	private volatile Future<T> futureView;
+	private volatile CompletionStage<T> stageView;
+	private volatile TaskOutcome<T> outcomeView; //only set when done
+
+	protected AbstractCompletionStageTask() {}
+
+	protected Task taskView() {
+		final var view = taskView;
+		return view != null ? view : lazyInit(TASK_VIEW, new TaskImpl());
+	}
+
+	protected TaskOf<T> taskOfView() {
+		final var view = taskOfView;
+		return view != null ? view : lazyInit(TASK_OF_VIEW, new TaskOfImpl());
+	}
+
+	protected Future<T> futureView() {
+		final var view = futureView;
+		return view != null ? view : lazyInit(FUTURE_VIEW, new FutureImpl());
+	}
+
+	/**
+	 * The stage view is a {@link CompletableFuture} that is completed by a handler on this task.
+	 * Subclasses that are driven by an existing {@link CompletionStage} can return that instead.
+	 * @return The {@link CompletionStage} view of this task
+	 */
+	protected CompletionStage<T> stageView() {
+		final var view = stageView;
+		if(view != null) return view;
+
+		final var created = new StageView();
+		final var witness = (CompletionStage<T>) lazyInit(STAGE_VIEW, created);
+		if(witness == created) push(new Handler(created::mirror)); //Only the published view is completed
+		return witness;
+	}
+
+	/**
+	 * Publishes the value to the field if it is still {@code null}.
+	 * @return The value that is stored in the field after this call
+	 */
+	@SuppressWarnings("unchecked")
+	protected <V> V lazyInit(VarHandle field, V value) {
+		final var witness = field.compareAndExchange(this, null, value);
+		return witness != null ? (V) witness : value;
+	}
+
+	/**
+	 * A single read of the outcome word. The terminal state is stored with the outcome, see {@link AltResult}.
+	 * @return The current state of the task
+	 */
 	protected TaskState getStateImpl() {
-		if(stage.isDone()) {
-			if(isCancelledFromEx()) return TaskState.CANCELLED;
-			if(stage.isCompletedExceptionally()) return TaskState.FAILED; //cancelled is already excluded
-			return TaskState.SUCCEEDED;
-		} else {
-			return TaskState.RUNNING;
+		return stateOf(result);
+	}
+
+	/**
+	 * @return The {@link TaskOutcome} for the current outcome, which is created only once when the task is done
+	 */
+	protected TaskOutcome<T> getOutcomeImpl() {
+		final var view = outcomeView;
+		if(view != null) return view;
+		final var outcome = result;
+		if(outcome == null) return TaskOutcome.running();
+		return lazyInit(OUTCOME_VIEW, toTaskOutcome(outcome));
+	}
+
+	private TaskOutcome<T> toTaskOutcome(Object outcome) {
+		if(!(outcome instanceof AltResult)) return TaskOutcome.succeeded(valueOf(outcome));
+		final var alt = (AltResult) outcome;
+		switch (alt.state) {
+		case FAILED: return TaskOutcome.failed(alt.ex);
+		case CANCELLED: return TaskOutcome.cancelled((CancellationException) alt.ex);
+		default: return TaskOutcome.succeeded(valueOf(outcome));
+		}
+	}
+
+	/**
+	 * Decodes a successful outcome of this task. Subclasses that store their result outside of the outcome word
+	 * (see {@link #STORED_VALUE}) override this to read the stored result.
+	 * @param outcome A successful outcome of this task
+	 * @return The result value
+	 */
+	protected T valueOf(Object outcome) {
+		return decodeValue(outcome);
+	}
+
+	protected boolean isDoneImpl() {
+		return result != null;
+	}
+
+	/**
+	 * @return The encoded outcome, or {@code null} if the task is not done
+	 */
+	/*package*/ Object outcomeImpl() {
+		return result;
+	}
+
+	protected abstract CancelResult cancelImpl();
+
+	protected CancelResult fromDoneState() {
+		var state = getStateImpl();
+		if(!state.isDone()) throw new IllegalStateException("State is not done");
+		if(state.isSuccess()) return CancelResult.ALREADY_SUCCEEDED;
+		if(state.isFailed()) return CancelResult.ALREADY_FAILED;
+		return CancelResult.ALREADY_CANCELLED;
+	}
+
+	/*
+	 * Completion
+	 */
+
+	/**
+	 * Sets the outcome of this task, if it is not done yet, and runs all completion nodes.
+	 * @param outcome The encoded outcome, see {@link #encodeValue(Object)}, {@link #encodeFailure(Throwable)}
+	 * and {@link #encodeCancellation()}
+	 * @return {@code true} if this call completed the task, {@code false} if it was already done
+	 */
+	protected boolean completeWith(Object outcome) {
+		if(!setOutcome(outcome)) return false;
+		postComplete(this, null, Tasks.isTrampolinedCompletion());
+		return true;
+	}
+
+	/**
+	 * Sets the outcome of this task without running the completion nodes. Only used by nodes that
+	 * return this task from {@link Completion#fire(Object)}, so the nodes are run later.
+	 * @return {@code true} if this call completed the task, {@code false} if it was already done
+	 */
+	/*package*/ boolean setOutcome(Object outcome) {
+		return RESULT.compareAndSet(this, null, outcome);
+	}
+
+	/**
+	 * Runs the completion nodes of a task that was just completed. Dependent tasks that are completed by these nodes
+	 * are processed in the same loop instead of recursively, so even very long chains of mapped tasks
+	 * complete with a constant stack depth.
+	 * @param completed The completed task
+	 */
+	private static void postComplete(AbstractCompletionStageTask<?> completed) {
+		postComplete(completed, null, true);
+	}
+
+	/**
+	 * The queue of the pass that runs on a thread. A dependent task that is completed further down the stack
+	 * of a pass, for example when a chained function returns a task that is already done, is added to that
+	 * queue instead of starting a nested pass.
+	 */
+	private static final class Trampoline {
+		private final ArrayDeque<AbstractCompletionStageTask<?>> queue = new ArrayDeque<>();
+		private boolean active;
+	}
+
+	private static final ThreadLocal<Trampoline> TRAMPOLINE = ThreadLocal.withInitial(Trampoline::new);
+
+	/**
+	 * @param completed The first completed task
+	 * @param dependents More completed tasks to process in the same pass, or {@code null}
+	 * @param enqueue Whether the tasks may be queued in a pass that already runs on this thread. Tasks that are completed
+	 * by user code are only queued in trampolined mode, see {@link Tasks#setTrampolinedCompletion(boolean)}.
+	 */
+	private static void postComplete(AbstractCompletionStageTask<?> completed, ArrayDeque<AbstractCompletionStageTask<?>> dependents,
+			boolean enqueue) {
+		final var trampoline = TRAMPOLINE.get();
+		final var queue = trampoline.queue;
+		if(trampoline.active) {
+			if(enqueue) {
+				queue.add(completed);
+				if(dependents != null) queue.addAll(dependents);
+			} else { //Nested pass with a queue of its own, which is drained before this call returns
+				drain(completed, dependents != null ? dependents : new ArrayDeque<>());
+			}
+			return;
+		}
+
+		trampoline.active = true;
+		try {
+			if(dependents != null) queue.addAll(dependents);
+			drain(completed, queue);
+		} finally {
+			trampoline.active = false;
+			queue.clear(); //Only left over if an executor threw while the batches were submitted
+		}
+	}
+
+	/**
+	 * @param dependents The queue of this pass. Tasks that are added while the pass runs are processed before it returns
+	 */
+	private static void drain(AbstractCompletionStageTask<?> completed, ArrayDeque<AbstractCompletionStageTask<?>> dependents) {
+		Error error = null; //The first error thrown by a node, rethrown when all nodes have run
+		var current = completed;
+		while(current != null) {
+			Batch batches = null; //Nodes that run on an executor are submitted after the queue is empty
+			while(current != null) {
+				final var outcome = current.result;
+				//Nodes pushed after this see DONE and run themselves
+				for(var node = (Completion) STACK.getAndSet(current, DONE); node != null; node = node.next) {
+					final var executor = node.executorFor(outcome);
+					if(executor != null) {
+						batches = Batch.add(batches, executor, node, outcome);
+						continue;
+					}
+					try {
+						final var dependent = fireSafely(node, outcome);
+						if(dependent != null) dependents.add(dependent);
+					} catch (Error e) {
+						if(error == null) error = e;
+					}
+				}
+				current = dependents.poll();
+			}
+			//An executor that runs a batch on this thread adds the completed tasks to the queue of the outermost pass
+			try {
+				Batch.submitAll(batches);
+			} catch (Error e) {
+				if(error == null) error = e;
+			}
+			current = dependents.poll();
+		}
+		if(error != null) throw error;
+	}
+
+	protected boolean succeedImpl(T value) {
+		return completeWith(encodeValue(value));
+	}
+
+	protected boolean failImpl(Throwable ex) {
+		return completeWith(encodeFailure(ex));
+	}
+
+	protected boolean cancelledImpl() {
+		return completeWith(encodeCancellation());
+	}
+
+	/**
+	 * Adds a node that is run when the task completes. If the task is already done, it runs immediately on this thread.
+	 * @param node The node, must not be pushed to any other task
+	 */
+	/*package*/ void push(Completion node) {
+		Completion head;
+		do {
+			head = stack;
+			if(head == DONE) {
+				fireNow(node, result);
+				return;
+			}
+			node.next = head;
+		} while(!STACK.compareAndSet(this, head, node));
+	}
+
+	/**
+	 * Adds a node that decodes the outcome with {@link #decodeValue(Object)}.
+	 * Subclasses that complete with {@link #STORED_VALUE} override this to pass the boxed result instead.
+	 * @param node The node, must not be pushed to any other task
+	 * @return The node that was pushed to the stack, which may wrap {@code node}
+	 */
+	/*package*/ Completion pushDecoding(Completion node) {
+		push(node);
+		return node;
+	}
+
+	/**
+	 * Removes a node that is no longer live. If the node is the top of the stack, this is a single CAS.
+	 * All other dead nodes stay linked until there are as many of them as there were live nodes at the last sweep,
+	 * which keeps the amortized cost per node constant.
+	 * @param node A node that was pushed to this task and is no longer live
+	 */
+	private void unlink(Completion node) {
+		if(stack == node && STACK.compareAndSet(this, node, node.next)) return;
+		if((int) SWEEP_COUNTDOWN.getAndAdd(this, -1) <= 0) {
+			sweepCountdown = Math.max(MIN_SWEEP_COUNTDOWN, sweep());
+		}
+	}
+
+	private static final int MIN_SWEEP_COUNTDOWN = 8;
+
+	/**
+	 * Unlinks all nodes that are no longer live from the stack.
+	 * Restarts the traversal whenever it races with another thread that changes the links.
+	 * @return The number of live nodes that were found
+	 */
+	private int sweep() {
+		retry:
+		while(true) {
+			int live = 0;
+			Completion pred = null;
+			for(var current = stack; current != null && current != DONE; current = current.next) {
+				final var succ = current.next;
+				if(current.isLive()) {
+					pred = current;
+					live++;
+				} else if(pred != null) {
+					pred.next = succ;
+					if(!pred.isLive()) continue retry; //pred was removed concurrently
+				} else if(!STACK.compareAndSet(this, current, succ)) {
+					continue retry;
+				}
+			}
+			return live;
 		}
 	}
-	
-	private boolean isCancelledFromEx() {
+
+	/**
+	 * Runs a node. Like an exception in {@code CompletableFuture.whenComplete}, a {@link RuntimeException} from a handler
+	 * must not prevent the other nodes from running, so it is dropped. {@link Error}s are thrown to the caller,
+	 * which runs the remaining nodes before it rethrows the first one.
+	 */
+	private static AbstractCompletionStageTask<?> fireSafely(Completion node, Object outcome) {
 		try {
-			stage.getNow(null);
-		} catch (CompletionException e) {
-			var ex = e.getCause();
-			return ex instanceof CancellationException;
-		} catch (CancellationException e) {
+			return node.fire(outcome);
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Runs {@link Completion} nodes when the task {@code source} is done. This uses the node stack directly if the task is
+	 * implemented on top of this class, and a {@link TaskOf#whenDone(Runnable)} handler for all other tasks.
+	 * @param source The task to observe
+	 * @param node The node to run
+	 * @return The node that was pushed to the stack of {@code source}, for {@link #unlinkFrom(TaskOf, Completion)},
+	 * or {@code null} if {@code source} is not implemented on top of this class
+	 */
+	/*package*/ static Completion onDone(TaskOf<?> source, Completion node) {
+		if(source instanceof AbstractCompletionStageTask<?>.TaskOfImpl) {
+			return ((AbstractCompletionStageTask<?>.TaskOfImpl) source).core().pushDecoding(node);
+		} else {
+			source.whenDone(() -> fireNow(node, outcomeOf(source)));
+			return null;
+		}
+	}
+
+	/**
+	 * Removes a node that was added with {@link #onDone(TaskOf, Completion)} and is no longer live,
+	 * so a task that stays pending does not keep it.
+	 * @param source The task that the node was added to
+	 * @param pushed The node returned by {@link #onDone(TaskOf, Completion)}, or {@code null}
+	 */
+	/*package*/ static void unlinkFrom(TaskOf<?> source, Completion pushed) {
+		if(pushed != null && !source.isDone()) ((AbstractCompletionStageTask<?>.TaskOfImpl) source).core().unlink(pushed);
+	}
+
+	/**
+	 * Runs a node outside of a completion pass, on its executor if it has one.
+	 */
+	private static void fireNow(Completion node, Object outcome) {
+		final var executor = node.executorFor(outcome);
+		if(executor == null) {
+			final var dependent = fireSafely(node, outcome);
+			if(dependent != null) postComplete(dependent);
+		} else {
+			Batch.submitAll(Batch.add(null, executor, node, outcome));
+		}
+	}
+
+	/**
+	 * Like {@link #outcomeOf(TaskOf)}, but reads the outcome word directly if the task is implemented on top of this class.
+	 * @param source A done task
+	 * @return The encoded outcome of the task, with primitive results boxed
+	 */
+	/*package*/ static Object doneOutcomeOf(TaskOf<?> source) {
+		if(!(source instanceof AbstractCompletionStageTask<?>.TaskOfImpl)) return outcomeOf(source);
+		final var core = ((AbstractCompletionStageTask<?>.TaskOfImpl) source).core();
+		final var outcome = core.result;
+		return outcome == STORED_VALUE ? encodeValue(core.valueOf(outcome)) : outcome;
+	}
+
+	/**
+	 * Encodes the outcome of any task that is done.
+	 * @param source A done task
+	 * @return The encoded outcome of the task
+	 */
+	/*package*/ static Object outcomeOf(TaskOf<?> source) {
+		final var outcome = source.getOutcome();
+		switch (outcome.getState()) {
+		case FAILED: return encodeFailure(outcome.getFailureReason());
+		case CANCELLED: return new AltResult(outcome.getCancellationException(), TaskState.CANCELLED);
+		default: return encodeValue(outcome.getValue());
+		}
+	}
+
+	/*package*/ static Object encodeValue(Object value) {
+		return value == null ? NIL : value;
+	}
+
+	/*package*/ static AltResult encodeFailure(Throwable ex) {
+		return new AltResult(Objects.requireNonNull(ex, "Failure reason must not be null"), TaskState.FAILED);
+	}
+
+	/*package*/ static AltResult encodeCancellation() {
+		return new AltResult(Tasks.newCancellationException(), TaskState.CANCELLED);
+	}
+
+	/*package*/ static boolean isSuccessOutcome(Object outcome) {
+		return !(outcome instanceof AltResult) || ((AltResult) outcome).state == TaskState.SUCCEEDED;
+	}
+
+	/*package*/ static boolean isFailureOutcome(Object outcome) {
+		return outcome instanceof AltResult && ((AltResult) outcome).state == TaskState.FAILED;
+	}
+
+	/*package*/ static boolean isCancelledOutcome(Object outcome) {
+		return outcome instanceof AltResult && ((AltResult) outcome).state == TaskState.CANCELLED;
+	}
+
+	/**
+	 * @param outcome A successful outcome
+	 * @return The result value
+	 */
+	@SuppressWarnings("unchecked")
+	/*package*/ static <V> V decodeValue(Object outcome) {
+		return outcome instanceof AltResult ? null : (V) outcome;
+	}
+
+	/*package*/ static TaskState stateOf(Object outcome) {
+		if(outcome == null) return TaskState.RUNNING;
+		return outcome instanceof AltResult ? ((AltResult) outcome).state : TaskState.SUCCEEDED;
+	}
+
+	/**
+	 * Something that has to happen when a task completes. Nodes form an intrusive stack, so adding
+	 * one to a task does not need any other allocation.
+	 */
+	/*package*/ static abstract class Completion {
+		private volatile Completion next;
+
+		/**
+		 * Runs the node. Called exactly once, unless the node is no longer live.
+		 * @param outcome The encoded outcome of the task
+		 * @return A dependent task that this node completed with {@link AbstractCompletionStageTask#setOutcome(Object)},
+		 * or {@code null}
+		 */
+		/*package*/ abstract AbstractCompletionStageTask<?> fire(Object outcome);
+
+		/**
+		 * @return {@code false} if the node does not need to run anymore and may be unlinked
+		 */
+		/*package*/ boolean isLive() {
 			return true;
 		}
-		return false;
+
+		/**
+		 * Nodes that run user code can ask to be run on an executor. All nodes that ask for the same executor
+		 * in one completion pass are submitted together, see {@link Batch}.
+		 * @param outcome The encoded outcome of the task
+		 * @return The executor to run {@link #fire(Object)} on, or {@code null} to run it on the completing thread
+		 */
+		/*package*/ Executor executorFor(Object outcome) {
+			return null;
+		}
+
+		/**
+		 * Called instead of {@link #fire(Object)} when the executor from {@link #executorFor(Object)} rejected the node.
+		 * @param ex The exception thrown by the executor
+		 * @return A dependent task that this node completed, like {@link #fire(Object)}
+		 */
+		/*package*/ AbstractCompletionStageTask<?> rejected(RejectedExecutionException ex) {
+			return null;
+		}
 	}
-	
-	protected abstract CancelResult cancelImpl();
-	
+
+	/**
+	 * The nodes of one completion pass that run on the same executor. They are submitted as a single task,
+	 * which runs them in order and then completes their dependent tasks in a new pass.
+	 */
+	private static final class Batch implements Runnable {
+		private final Executor executor;
+		private final Batch nextBatch; //Batches for other executors in the same pass
+		private Object[] items = new Object[4]; //node, outcome pairs
+		private int size;
+
+		private Batch(Executor executor, Batch nextBatch) {
+			this.executor = executor;
+			this.nextBatch = nextBatch;
+		}
+
+		/**
+		 * @return The list of batches with the node added
+		 */
+		private static Batch add(Batch batches, Executor executor, Completion node, Object outcome) {
+			var batch = batches;
+			while(batch != null && batch.executor != executor) batch = batch.nextBatch;
+			if(batch == null) batch = batches = new Batch(executor, batches);
+			if(batch.size == batch.items.length) batch.items = Arrays.copyOf(batch.items, batch.size * 2);
+			batch.items[batch.size++] = node;
+			batch.items[batch.size++] = outcome;
+			return batches;
+		}
+
+		private static void submitAll(Batch batches) {
+			Error error = null;
+			for(var batch = batches; batch != null; batch = batch.nextBatch) {
+				try {
+					batch.executor.execute(batch);
+				} catch (RejectedExecutionException ex) {
+					batch.reject(ex);
+				} catch (Error e) { //Only from a batch that ran on this thread, the other batches must still be submitted
+					if(error == null) error = e;
+				}
+			}
+			if(error != null) throw error;
+		}
+
+		@Override
+		public void run() {
+			ArrayDeque<AbstractCompletionStageTask<?>> dependents = null;
+			AbstractCompletionStageTask<?> first = null;
+			Error error = null;
+			for(int i = 0; i < size; i += 2) {
+				final AbstractCompletionStageTask<?> dependent;
+				try {
+					dependent = fireSafely((Completion) items[i], items[i + 1]);
+				} catch (Error e) {
+					if(error == null) error = e;
+					continue;
+				}
+				if(dependent == null) continue;
+				if(first == null) {
+					first = dependent;
+				} else {
+					if(dependents == null) dependents = new ArrayDeque<>();
+					dependents.add(dependent);
+				}
+			}
+			try {
+				if(first != null) postComplete(first, dependents, true);
+			} finally {
+				if(error != null) throw error; //Goes to the executor, like an error in any other submitted task
+			}
+		}
+
+		private void reject(RejectedExecutionException ex) {
+			Error error = null;
+			for(int i = 0; i < size; i += 2) {
+				try {
+					final var dependent = ((Completion) items[i]).rejected(ex);
+					if(dependent != null) postComplete(dependent);
+				} catch (RuntimeException e) {
+					//Same as fireSafely
+				} catch (Error e) {
+					if(error == null) error = e;
+				}
+			}
+			if(error != null) throw error;
+		}
+	}
+
+	/**
+	 * Runs an internal action with the outcome on the completing thread.
+	 */
+	private static final class Handler extends Completion {
+		private final Consumer<Object> action;
+
+		private Handler(Consumer<Object> action) {
+			this.action = action;
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+			action.accept(outcome);
+			return null;
+		}
+	}
+
+	/*package*/ static final int ON_DONE = 0;
+	/*package*/ static final int ON_SUCCESS = 1;
+	/*package*/ static final int ON_SUCCESS_RUN = 2;
+	/*package*/ static final int ON_FAILED = 4;
+	/*package*/ static final int ON_CANCELLED = 5;
+
+	/**
+	 * A user action registered with one of the {@code when*} methods. The node holds the action itself, so registering
+	 * a listener allocates exactly one object. The kind decides which outcomes run the action and how it is called.
+	 * Closing the listener clears the action, so it no longer keeps anything reachable even before it is unlinked.
+	 * Subclasses with actions of other types override {@link #invoke(Object, Object)}.
+	 */
+	/*package*/ class Listener extends Completion implements Registration {
+		private final int kind;
+		private volatile Object action; //null when closed
+		private final Executor executor; //null to run on the completing thread
+
+		/*package*/ Listener(int kind, Object action, Executor executor) {
+			this.kind = kind;
+			this.action = action;
+			this.executor = executor;
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+			final var a = action;
+			if(a != null && accepts(outcome)) invoke(a, outcome);
+			return null;
+		}
+
+		@Override
+		/*package*/ Executor executorFor(Object outcome) {
+			return action != null && accepts(outcome) ? executor : null; //Skipped listeners are never submitted
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> rejected(RejectedExecutionException ex) {
+			Tasks.reportRejected(ex); //There is no dependent task to fail
+			return null;
+		}
+
+		@Override
+		/*package*/ boolean isLive() {
+			return action != null;
+		}
+
+		@Override
+		public void close() {
+			final var a = action;
+			if(a != null && LISTENER_ACTION.compareAndSet(this, a, null)) unlink(this);
+		}
+
+		private boolean accepts(Object outcome) {
+			switch (kind) {
+			case ON_SUCCESS:
+			case ON_SUCCESS_RUN:
+				return isSuccessOutcome(outcome);
+			case ON_FAILED:
+				return isFailureOutcome(outcome);
+			case ON_CANCELLED:
+				return isCancelledOutcome(outcome);
+			default:
+				return true;
+			}
+		}
+
+		/**
+		 * Calls the action for an outcome that the kind of this listener accepts.
+		 */
+		@SuppressWarnings("unchecked")
+		/*package*/ void invoke(Object action, Object outcome) {
+			switch (kind) {
+			case ON_SUCCESS:
+				((Consumer<? super T>) action).accept(valueOf(outcome));
+				break;
+			case ON_FAILED:
+				((Consumer<? super Throwable>) action).accept(((AltResult) outcome).ex);
+				break;
+			default:
+				((Runnable) action).run();
+			}
+		}
+	}
+
+	/*
+	 * Waiting
+	 */
+
+	/**
+	 * A thread waiting for the task. The node is also the condition for the spin phase of the {@link WaitStrategy}.
+	 */
+	private static final class WaitNode extends Completion implements BooleanSupplier {
+		private final AbstractCompletionStageTask<?> task;
+		private volatile Thread thread;
+		private volatile boolean tokenCancelled;
+
+		private WaitNode(AbstractCompletionStageTask<?> task) {
+			this.task = task;
+			this.thread = Thread.currentThread();
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+			unpark();
+			return null;
+		}
+
+		@Override
+		/*package*/ boolean isLive() {
+			return thread != null;
+		}
+
+		@Override
+		public boolean getAsBoolean() {
+			return task.result != null || tokenCancelled;
+		}
+
+		private void cancelByToken() {
+			tokenCancelled = true;
+			unpark();
+		}
+
+		private void unpark() {
+			final var t = thread;
+			if(t != null) LockSupport.unpark(t);
+		}
+	}
+
+	/**
+	 * Waits until the task is done. Waiting threads are nodes on the completion stack, so completing the task
+	 * wakes them up together with running the handlers.
+	 * @param interruptible Whether the waiting ends when the thread is interrupted.
+	 * If {@code false}, the interrupt flag is restored before returning
+	 * @param timed Whether to use the deadline
+	 * @param deadlineNanos The {@link System#nanoTime()} when waiting ends
+	 * @param token An unbound token that ends the waiting, or {@code null}
+	 * @param strategy The {@link WaitStrategy} to use, or {@code null} for {@link Tasks#defaultWaitStrategy()}
+	 * @return The reason why the waiting ended. For {@link SyncResult#THREAD_INTERRUPTED},
+	 * the interrupt flag is cleared
+	 * @throws IllegalArgumentException When the token is already bound to an action
+	 */
+	private SyncResult waitImpl(boolean interruptible, boolean timed, long deadlineNanos,
+			CancellationToken token, WaitStrategy strategy) {
+		//Tokens are always bound, even when the task is already done, so they behave the same in both cases.
+		if(result != null) {
+			if(token != null) token.assignAction(NOOP, TOKEN_BOUND);
+			return SyncResult.THREAD_SYNCHRONIZED;
+		}
+
+		final var node = new WaitNode(this);
+		if(token != null) token.assignAction(node::cancelByToken, TOKEN_BOUND);
+		if(interruptible && Thread.interrupted()) return SyncResult.THREAD_INTERRUPTED;
+
+		//Nothing needs to be pushed to the stack while spinning, the thread is not parked yet
+		final var usedStrategy = strategy != null ? strategy : Tasks.defaultWaitStrategy();
+		if(usedStrategy != WaitStrategy.park() && (timed ? usedStrategy.spinUntil(node, deadlineNanos) : usedStrategy.spinUntil(node))) {
+			node.thread = null;
+			return result != null ? SyncResult.THREAD_SYNCHRONIZED : SyncResult.WAIT_CANCELLED;
+		}
+
+		push(node); //If the task is done in the meantime, this unparks the node immediately
+		boolean interrupted = false;
+		try {
+			//Loop until the task is done to avoid spurious wakeups.
+			//The task being done wins over the token and the timeout.
+			while(result == null) {
+				if(node.tokenCancelled) return SyncResult.WAIT_CANCELLED;
+				if(timed) {
+					final long remainingNanos = deadlineNanos - System.nanoTime();
+					if(remainingNanos <= 0) return SyncResult.WAIT_TIMEOUT;
+					LockSupport.parkNanos(this, remainingNanos);
+				} else {
+					LockSupport.park(this);
+				}
+				//park returns immediately while the flag is set, so clear it and restore it later if uninterruptible
+				if(Thread.interrupted()) {
+					if(interruptible) return SyncResult.THREAD_INTERRUPTED;
+					interrupted = true;
+				}
+			}
+			return SyncResult.THREAD_SYNCHRONIZED;
+		} finally {
+			node.thread = null;
+			//Nodes of a completed task are already detached
+			if(result == null) unlink(node);
+			if(interrupted) Thread.currentThread().interrupt();
+		}
+	}
+
+	private static final Runnable NOOP = () -> {};
+	private static final Supplier<IllegalArgumentException> TOKEN_BOUND =
+			() -> new IllegalArgumentException("Token is already bound to an action");
+
+	private static final long NO_DEADLINE = 0;
+
+	private static long deadline(long time, TimeUnit unit) {
+		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
+		Objects.requireNonNull(unit, "'unit' parameter must not be null");
+		return System.nanoTime() + unit.toNanos(time);
+	}
+
+	private static void throwForInterruptible(SyncResult result) throws InterruptedException, TimeoutException, CancellationException {
+		switch (result) {
+		case THREAD_INTERRUPTED: throw new InterruptedException();
+		case WAIT_TIMEOUT: throw new TimeoutException("Task: timeout elapsed before task completed");
+		case WAIT_CANCELLED: throw new CancellationException("Token was cancelled before task completed");
+		default: return;
+		}
+	}
+
+	private static void throwForUninterruptible(SyncResult result) throws TimeoutException, CancellationException {
+		try {
+			throwForInterruptible(result);
+		} catch (InterruptedException e) {
+			throw new AssertionError("Uninterruptible wait cannot be interrupted", e);
+		}
+	}
+
 	protected void awaitImpl() throws InterruptedException {
-		awaiter.await(Awaiter.MASTER_PERMIT);
+		awaitImpl((WaitStrategy) null);
 	}
-	
+
+	/**
+	 * @param strategy The {@link WaitStrategy} to use, or {@code null} for {@link Tasks#defaultWaitStrategy()}
+	 */
+	protected void awaitImpl(WaitStrategy strategy) throws InterruptedException {
+		if(result != null) return;
+		try {
+			throwForInterruptible(waitImpl(true, false, NO_DEADLINE, null, strategy));
+		} catch (TimeoutException | CancellationException e) {
+			throw new AssertionError("Untimed wait without token cannot time out or be cancelled", e);
+		}
+	}
+
 	protected void awaitUninterruptiblyImpl() {
-		awaiter.awaitUninterruptibly(Awaiter.MASTER_PERMIT);
+		if(result != null) return;
+		waitImpl(false, false, NO_DEADLINE, null, null);
 	}
-	
+
 	protected void awaitImpl(long time, TimeUnit unit) throws InterruptedException, TimeoutException {
-		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
-		awaiter.await(Awaiter.MASTER_PERMIT, time, unit);
+		final long deadlineNanos = deadline(time, unit);
+		if(result != null) return;
+		throwForInterruptible(waitImpl(true, true, deadlineNanos, null, null));
 	}
-	
+
 	protected void awaitUninterruptiblyImpl(long time, TimeUnit unit) throws TimeoutException {
-		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
-		awaiter.awaitUninterruptibly(Awaiter.MASTER_PERMIT, time, unit);
+		final long deadlineNanos = deadline(time, unit);
+		if(result != null) return;
+		throwForUninterruptible(waitImpl(false, true, deadlineNanos, null, null));
 	}
-	
+
 	protected void awaitImpl(CancellationToken token) throws InterruptedException, CancellationException {
-		Objects.requireNonNull(token, "'token' parameter must not be null")
-		.assignAction(() -> awaiter.signalAll(token), 
-				() -> new IllegalArgumentException("Token is already bound to an action"));
-		final var cause = awaiter.await(token);
-		if(cause == token) throw new CancellationException("Token was cancelled before task completed");
+		Objects.requireNonNull(token, "'token' parameter must not be null");
+		try {
+			throwForInterruptible(waitImpl(true, false, NO_DEADLINE, token, null));
+		} catch (TimeoutException e) {
+			throw new AssertionError("Untimed wait cannot time out", e);
+		}
 	}
-	
+
 	protected void awaitUninterruptiblyImpl(CancellationToken token) throws CancellationException {
-		Objects.requireNonNull(token, "'token' parameter must not be null")
-		.assignAction(() -> awaiter.signalAll(token), 
-				() -> new IllegalArgumentException("Token is already bound to an action"));
-		final var cause = awaiter.awaitUninterruptibly(token);
-		if(cause == token) throw new CancellationException("Token was cancelled before task completed");
+		Objects.requireNonNull(token, "'token' parameter must not be null");
+		try {
+			throwForUninterruptible(waitImpl(false, false, NO_DEADLINE, token, null));
+		} catch (TimeoutException e) {
+			throw new AssertionError("Untimed wait cannot time out", e);
+		}
 	}
-	
+
 	protected void awaitImpl(long time, TimeUnit unit, CancellationToken token)
 			throws InterruptedException, TimeoutException, CancellationException {
-		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
-		Objects.requireNonNull(token, "'token' parameter must not be null")
-		.assignAction(() -> awaiter.signalAll(token), 
-				() -> new IllegalArgumentException("Token is already bound to an action"));
-		final var cause = awaiter.await(token, time, unit);
-		if(cause == token) throw new CancellationException("Token was cancelled before task completed");
+		final long deadlineNanos = deadline(time, unit);
+		Objects.requireNonNull(token, "'token' parameter must not be null");
+		throwForInterruptible(waitImpl(true, true, deadlineNanos, token, null));
 	}
-	
+
 	protected void awaitUninterruptiblyImpl(long time, TimeUnit unit, CancellationToken token)
 			throws TimeoutException, CancellationException {
-		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
-		Objects.requireNonNull(token, "'token' parameter must not be null")
-		.assignAction(() -> awaiter.signalAll(token), 
-				() -> new IllegalArgumentException("Token is already bound to an action"));
-		final var cause = awaiter.awaitUninterruptibly(token, time, unit);
-		if(cause == token) throw new CancellationException("Token was cancelled before task completed");
-	}
-	
-	protected SyncResult syncImpl(long time, TimeUnit unit, CancellationToken token, boolean interruptible) {
-		//Choose what to do
+		final long deadlineNanos = deadline(time, unit);
+		Objects.requireNonNull(token, "'token' parameter must not be null");
+		throwForUninterruptible(waitImpl(false, true, deadlineNanos, token, null));
+	}
+
+	protected SyncResult syncImpl(long time, TimeUnit unit, CancellationToken token, boolean interruptible, WaitStrategy strategy) {
 		final boolean useTimeout = (unit != null && time >= 0);
-		final boolean useToken = (token != null);
-		
-		//Token stuff
-		final Object permit;
-		if(useToken) {
-			token.assignAction(() -> awaiter.signalAll(token), 
-					() -> new IllegalArgumentException("Token is already bound to an action"));
-			permit = token;
-		} else {
-			permit = Awaiter.MASTER_PERMIT;
-		}
-		
-		//The call
-		final Object cause;
-		try {
-			if(interruptible && useTimeout) {
-				cause = awaiter.await(permit, time, unit);
-			} else if(!interruptible && useTimeout) {
-				cause = awaiter.awaitUninterruptibly(permit, time, unit);
-			} else if(interruptible && !useTimeout) {
-				cause = awaiter.await(permit);
-			} else { /*!interruptible && !useTimeout*/
-				cause = awaiter.awaitUninterruptibly(permit);
-			}
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-			return SyncResult.THREAD_INTERRUPTED;
-		} catch (TimeoutException e) {
-			return SyncResult.WAIT_TIMEOUT;
-		}
-		
-		if(useToken && cause == permit) {
-			return SyncResult.WAIT_CANCELLED;
-		}
-		
-		return SyncResult.THREAD_SYNCHRONIZED;
+		final var syncResult = waitImpl(interruptible, useTimeout, useTimeout ? System.nanoTime() + unit.toNanos(time) : NO_DEADLINE,
+				token, strategy);
+		//The flag was cleared when the wait was interrupted, and sync reports it through the flag
+		if(syncResult == SyncResult.THREAD_INTERRUPTED) Thread.currentThread().interrupt();
+		return syncResult;
+	}
+
+	/*
+	 * Handlers
+	 */
+
+	/**
+	 * Registers a {@code when*} action.
+	 * @param kind One of the {@code ON_*} constants, matching the type of the action
+	 * @param action The action, must not be {@code null}
+	 * @param executor The executor that runs the action, or {@code null} to run it on the completing thread
+	 * @return The listener, which removes itself when closed
+	 */
+	/*package*/ Registration listen(int kind, Object action, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		return listen(new Listener(kind, action, executor));
+	}
+
+	/**
+	 * Registers a listener that was created by a subclass.
+	 * @param listener The listener, must not be pushed to any other task
+	 * @return The listener, which removes itself when closed
+	 */
+	/*package*/ Registration listen(Listener listener) {
+		push(listener);
+		return listener;
+	}
+
+	protected void whenDoneImpl(Runnable action, Executor executor) {
+		listen(ON_DONE, action, executor);
+	}
+
+	protected void whenSuccessImpl(Consumer<? super T> action, Executor executor) {
+		listen(ON_SUCCESS, action, executor);
+	}
+
+	protected void whenSuccessImpl(Runnable action, Executor executor) {
+		listen(ON_SUCCESS_RUN, action, executor);
+	}
+
+	protected void whenFailedImpl(Consumer<? super Throwable> action, Executor executor) {
+		listen(ON_FAILED, action, executor);
+	}
+
+	protected void whenCancelledImpl(Runnable action, Executor executor) {
+		listen(ON_CANCELLED, action, executor);
+	}
+
+	/*
+	 * Results
+	 */
+
+	/**
+	 * @return The outcome of a task that is done and not cancelled
+	 * @throws CancellationException When the task was cancelled
+	 * @throws TaskNotDoneException When the task is not done
+	 */
+	/*package*/ Object outcomeIfNotCancelled() throws CancellationException, TaskNotDoneException {
+		final var outcome = result;
+		if(outcome == null) throw new TaskNotDoneException();
+		if(isCancelledOutcome(outcome)) throw (CancellationException) ((AltResult) outcome).ex;
+		return outcome;
+	}
+
+	private static Throwable failureReason(Object outcome) {
+		return outcome instanceof AltResult ? ((AltResult) outcome).ex : null;
 	}
-	
+
+	/**
+	 * @return A new {@link ExecutionException} for a failed outcome, {@code null} for a successful outcome
+	 */
+	/*package*/ static ExecutionException wrappedFailureReason(Object outcome) {
+		return isFailureOutcome(outcome) ? ((AltResult) outcome).wrappedFailure() : null;
+	}
+
 	private final class TaskImpl implements Task {
 
 		@Override
@@ -165,6 +1059,12 @@ import aa4j.TaskNotDoneException;
 			return this;
 		}
 
+		@Override
+		public Task await(WaitStrategy strategy) throws InterruptedException {
+			awaitImpl(Objects.requireNonNull(strategy, "'strategy' parameter must not be null"));
+			return this;
+		}
+
 		@Override
 		public Task awaitUninterruptibly() {
 			awaitUninterruptiblyImpl();
@@ -211,7 +1111,13 @@ import aa4j.TaskNotDoneException;
 
 		@Override
 		public SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible) {
-			return syncImpl(time, unit, token, interruptible);
+			return syncImpl(time, unit, token, interruptible, null);
+		}
+
+		@Override
+		public SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible,
+				WaitStrategy strategy) {
+			return syncImpl(time, unit, token, interruptible, Objects.requireNonNull(strategy, "'strategy' parameter must not be null"));
 		}
 
 		@Override
@@ -221,7 +1127,8 @@ import aa4j.TaskNotDoneException;
 
 		@Override
 		public Task checkSuccess() throws ExecutionException, CancellationException {
-			taskOfView.getResult(); //Just ignore the result
+			final var ex = wrappedFailureReason(outcomeIfNotCancelled());
+			if(ex != null) throw ex;
 			return this;
 		}
 
@@ -237,77 +1144,117 @@ import aa4j.TaskNotDoneException;
 
 		@Override
 		public Future<?> future() {
-			return futureView;
+			return futureView();
 		}
 
 		@Override
 		public CompletionStage<?> stage() {
-			return stage;
+			return stageView();
 		}
 
 		@Override
 		public TaskOf<?> taskOf() {
-			return taskOfView;
+			return taskOfView();
 		}
 
 		@Override
 		public Task whenDone(Runnable action) {
-			stage.whenComplete(whenDoneImpl(action));
+			whenDoneImpl(action, null);
 			return this;
 		}
 
 		@Override
 		public Task whenSuccess(Runnable action) {
-			stage.whenComplete(whenSuccessImpl(action));
+			whenSuccessImpl(action, null);
 			return this;
 		}
 
 		@Override
 		public Task whenFailed(Consumer<? super Throwable> action) {
-			stage.whenComplete(whenFailedImpl(action));
+			whenFailedImpl(action, null);
 			return this;
 		}
 
 		@Override
 		public Task whenCancelled(Runnable action) {
-			stage.whenComplete(whenCancelledImpl(action));
+			whenCancelledImpl(action, null);
 			return this;
 		}
 
 		@Override
-		public Task whenDoneAsync(Runnable action) {
-			stage.whenCompleteAsync(whenDoneImpl(action));
+		public Registration registerWhenDone(Runnable action) {
+			return listen(ON_DONE, action, null);
+		}
+
+		@Override
+		public Registration registerWhenSuccess(Runnable action) {
+			return listen(ON_SUCCESS_RUN, action, null);
+		}
+
+		@Override
+		public Registration registerWhenFailed(Consumer<? super Throwable> action) {
+			return listen(ON_FAILED, action, null);
+		}
+
+		@Override
+		public Registration registerWhenCancelled(Runnable action) {
+			return listen(ON_CANCELLED, action, null);
+		}
+
+		@Override
+		public Registration registerWhenDoneAsync(Runnable action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			return listen(ON_DONE, action, executor);
+		}
+
+		@Override
+		public Task whenDoneAsync(Runnable action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			whenDoneImpl(action, executor);
 			return this;
 		}
 
 		@Override
-		public Task whenSuccessAsync(Runnable action) {
-			stage.whenCompleteAsync(whenSuccessImpl(action));
+		public Task whenSuccessAsync(Runnable action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			whenSuccessImpl(action, executor);
 			return this;
 		}
 
 		@Override
-		public Task whenFailedAsync(Consumer<? super Throwable> action) {
-			stage.whenCompleteAsync(whenFailedImpl(action));
+		public Task whenFailedAsync(Consumer<? super Throwable> action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			whenFailedImpl(action, executor);
 			return this;
 		}
 
 		@Override
-		public Task whenCancelledAsync(Runnable action) {
-			stage.whenCompleteAsync(whenCancelledImpl(action));
+		public Task whenCancelledAsync(Runnable action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			whenCancelledImpl(action, executor);
 			return this;
 		}
-		
+
 	}
-	
+
 	private final class TaskOfImpl implements TaskOf<T> {
 
+		private AbstractCompletionStageTask<T> core() {
+			return AbstractCompletionStageTask.this;
+		}
+
 		@Override
 		public TaskOf<T> await() throws InterruptedException {
 			awaitImpl();
 			return this;
 		}
 
+		@Override
+		public TaskOf<T> await(WaitStrategy strategy) throws InterruptedException {
+			awaitImpl(Objects.requireNonNull(strategy, "'strategy' parameter must not be null"));
+			return this;
+		}
+
 		@Override
 		public TaskOf<T> awaitUninterruptibly() {
 			awaitUninterruptiblyImpl();
@@ -354,7 +1301,13 @@ import aa4j.TaskNotDoneException;
 
 		@Override
 		public SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible) {
-			return syncImpl(time, unit, token, interruptible);
+			return syncImpl(time, unit, token, interruptible, null);
+		}
+
+		@Override
+		public SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible,
+				WaitStrategy strategy) {
+			return syncImpl(time, unit, token, interruptible, Objects.requireNonNull(strategy, "'strategy' parameter must not be null"));
 		}
 
 		@Override
@@ -367,60 +1320,36 @@ import aa4j.TaskNotDoneException;
 			return getStateImpl();
 		}
 
-		private T getResultIfComplete() throws CompletionException, CancellationException, TaskNotDoneException {
-			final Object sentinel = new Object(); //unique object only available in this scope
-			
-			//The one time I am thankful that java generics cast everything to Object anyways
-			@SuppressWarnings("unchecked")
-			final var res = stage.getNow((T) sentinel);
-			
-			if(res == sentinel) {
-				throw new TaskNotDoneException();
-			} else {
-				return res;
-			}
-		}
-		
 		@Override
 		public T getResult() throws ExecutionException, CancellationException, TaskNotDoneException {
-			try {
-				return getResultIfComplete();
-			} catch (CompletionException ex) {
-				//getNow gives a CompletionException, but we want an ExecutionException.
-				throw unwrapThrownFailureReason(ex);
-			} //the CancellationException can pass right through
-			
+			final var outcome = outcomeIfNotCancelled();
+			final var ex = wrappedFailureReason(outcome);
+			if(ex != null) throw ex;
+			return valueOf(outcome);
 		}
 
 		@Override
 		public T getResultOr(T value) {
-			try {
-				return stage.getNow(value);
-			} catch (CompletionException | CancellationException ex) {
-				return value;
-			}
+			final var outcome = result;
+			return outcome != null && isSuccessOutcome(outcome) ? valueOf(outcome) : value;
 		}
 
 		@Override
 		public T getResultOr(T valueWhenIncomplete, T valueWhenFailed, T valueWhenCancelled) {
-			try {
-				return stage.getNow(valueWhenIncomplete);
-			} catch (CancellationException ex) {
-				return valueWhenCancelled;
-			} catch (CompletionException ex) {
-				return valueWhenFailed;
-			}
+			final var outcome = result;
+			if(outcome == null) return valueWhenIncomplete;
+			if(isCancelledOutcome(outcome)) return valueWhenCancelled;
+			if(isFailureOutcome(outcome)) return valueWhenFailed;
+			return valueOf(outcome);
 		}
 
 		@Override
 		public T getResult(Function<? super Throwable, ? extends RuntimeException> remainingExs)
 				throws CancellationException, TaskNotDoneException {
-			try {
-				return getResultIfComplete();
-			} catch (CompletionException e) {
-				final var innerEx = unwrapFailureReason(e);
-				throw remainingExs.apply(innerEx);
-			}
+			final var outcome = outcomeIfNotCancelled();
+			final var ex = failureReason(outcome);
+			if(ex != null) throw remainingExs.apply(ex);
+			return valueOf(outcome);
 		}
 
 		@Override
@@ -428,17 +1357,16 @@ import aa4j.TaskNotDoneException;
 		public <E1 extends Throwable> T getResult(Class<E1> ex1,
 				Function<? super Throwable, ? extends RuntimeException> remainingExs)
 				throws E1, CancellationException, TaskNotDoneException {
-			try {
-				return getResultIfComplete();
-			} catch (CompletionException e) {
-				final var innerEx = unwrapFailureReason(e);
-				
+			final var outcome = outcomeIfNotCancelled();
+			final var innerEx = failureReason(outcome);
+			if(innerEx != null) {
 				if(ex1.isInstance(innerEx)) {
 					throw (E1) innerEx;
 				} else {
 					throw remainingExs.apply(innerEx);
 				}
 			}
+			return valueOf(outcome);
 		}
 
 		@Override
@@ -446,11 +1374,9 @@ import aa4j.TaskNotDoneException;
 		public <E1 extends Throwable, E2 extends Throwable> T getResult(Class<E1> ex1, Class<E2> ex2,
 				Function<? super Throwable, ? extends RuntimeException> remainingExs)
 				throws E1, E2, CancellationException, TaskNotDoneException {
-			try {
-				return getResultIfComplete();
-			} catch (CompletionException e) {
-				final var innerEx = unwrapFailureReason(e);
-				
+			final var outcome = outcomeIfNotCancelled();
+			final var innerEx = failureReason(outcome);
+			if(innerEx != null) {
 				if(ex1.isInstance(innerEx)) {
 					throw (E1) innerEx;
 				} else if(ex2.isInstance(innerEx)) {
@@ -459,6 +1385,7 @@ import aa4j.TaskNotDoneException;
 					throw remainingExs.apply(innerEx);
 				}
 			}
+			return valueOf(outcome);
 		}
 
 		@Override
@@ -466,11 +1393,9 @@ import aa4j.TaskNotDoneException;
 		public <E1 extends Throwable, E2 extends Throwable, E3 extends Throwable> T getResult(Class<E1> ex1,
 				Class<E2> ex2, Class<E3> ex3, Function<? super Throwable, ? extends RuntimeException> remainingExs)
 				throws E1, E2, E3, CancellationException, TaskNotDoneException {
-			try {
-				return getResultIfComplete();
-			} catch (CompletionException e) {
-				final var innerEx = unwrapFailureReason(e);
-				
+			final var outcome = outcomeIfNotCancelled();
+			final var innerEx = failureReason(outcome);
+			if(innerEx != null) {
 				if(ex1.isInstance(innerEx)) {
 					throw (E1) innerEx;
 				} else if(ex2.isInstance(innerEx)) {
@@ -481,91 +1406,121 @@ import aa4j.TaskNotDoneException;
 					throw remainingExs.apply(innerEx);
 				}
 			}
+			return valueOf(outcome);
 		}
-		
+
 		@Override
 		public Optional<T> getResultIfSuccess() {
-			try {
-				return Optional.ofNullable(getResultIfComplete());
-			} catch (CompletionException | CancellationException | TaskNotDoneException e) {
-				return Optional.empty();
-			}
+			final var outcome = result;
+			return outcome != null && isSuccessOutcome(outcome) ? Optional.ofNullable(valueOf(outcome)) : Optional.empty();
 		}
 
 		@Override
 		public Optional<T> getResultIfPresent() throws ExecutionException, CancellationException {
-			try {
-				return Optional.ofNullable(getResult());
-			} catch (TaskNotDoneException e) {
-				return Optional.empty();
-			}
+			if(result == null) return Optional.empty();
+			return Optional.ofNullable(getResult());
+		}
+
+		@Override
+		public TaskOutcome<T> getOutcome() {
+			return getOutcomeImpl();
 		}
 
 		@Override
 		public Future<T> future() {
-			return futureView;
+			return futureView();
 		}
 
 		@Override
 		public CompletionStage<T> stage() {
-			return stage;
+			return stageView();
 		}
 
 		@Override
 		public Task task() {
-			return taskView;
+			return taskView();
 		}
 
 		@Override
 		public TaskOf<T> whenDone(Runnable action) {
-			stage.whenComplete(whenDoneImpl(action));
+			whenDoneImpl(action, null);
 			return this;
 		}
 
 		@Override
 		public TaskOf<T> whenSuccess(Consumer<? super T> action) {
-			stage.whenComplete(whenSuccessImpl(action));
+			whenSuccessImpl(action, null);
 			return this;
 		}
 
 		@Override
 		public TaskOf<T> whenFailed(Consumer<? super Throwable> action) {
-			stage.whenComplete(whenFailedImpl(action));
+			whenFailedImpl(action, null);
 			return this;
 		}
 
 		@Override
 		public TaskOf<T> whenCancelled(Runnable action) {
-			stage.whenComplete(whenCancelledImpl(action));
+			whenCancelledImpl(action, null);
 			return this;
 		}
 
 		@Override
-		public TaskOf<T> whenDoneAsync(Runnable action) {
-			stage.whenCompleteAsync(whenDoneImpl(action));
+		public Registration registerWhenDone(Runnable action) {
+			return listen(ON_DONE, action, null);
+		}
+
+		@Override
+		public Registration registerWhenSuccess(Consumer<? super T> action) {
+			return listen(ON_SUCCESS, action, null);
+		}
+
+		@Override
+		public Registration registerWhenFailed(Consumer<? super Throwable> action) {
+			return listen(ON_FAILED, action, null);
+		}
+
+		@Override
+		public Registration registerWhenCancelled(Runnable action) {
+			return listen(ON_CANCELLED, action, null);
+		}
+
+		@Override
+		public Registration registerWhenDoneAsync(Runnable action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			return listen(ON_DONE, action, executor);
+		}
+
+		@Override
+		public TaskOf<T> whenDoneAsync(Runnable action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			whenDoneImpl(action, executor);
 			return this;
 		}
 
 		@Override
-		public TaskOf<T> whenSuccessAsync(Consumer<? super T> action) {
-			stage.whenCompleteAsync(whenSuccessImpl(action));
+		public TaskOf<T> whenSuccessAsync(Consumer<? super T> action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			whenSuccessImpl(action, executor);
 			return this;
 		}
 
 		@Override
-		public TaskOf<T> whenFailedAsync(Consumer<? super Throwable> action) {
-			stage.whenCompleteAsync(whenFailedImpl(action));
+		public TaskOf<T> whenFailedAsync(Consumer<? super Throwable> action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			whenFailedImpl(action, executor);
 			return this;
 		}
 
 		@Override
-		public TaskOf<T> whenCancelledAsync(Runnable action) {
-			stage.whenCompleteAsync(whenCancelledImpl(action));
+		public TaskOf<T> whenCancelledAsync(Runnable action, Executor executor) {
+			Objects.requireNonNull(executor, "'executor' parameter must not be null");
+			whenCancelledImpl(action, executor);
 			return this;
 		}
-		
+
 	}
-	
+
 	private final class FutureImpl implements Future<T> {
 
 		@Override
@@ -575,161 +1530,67 @@ import aa4j.TaskNotDoneException;
 
 		@Override
 		public boolean isCancelled() {
-			return getStateImpl().isCancelled();
+			return isCancelledOutcome(result);
 		}
 
 		@Override
 		public boolean isDone() {
-			return getStateImpl().isDone();
+			return result != null;
 		}
 
 		@Override
 		public T get() throws InterruptedException, ExecutionException {
-			return taskOfView.awaitResult();
+			return taskOfView().awaitResult();
 		}
 
 		@Override
 		public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
-			return taskOfView.await(timeout, unit).getResult();
+			return taskOfView().await(timeout, unit).getResult();
 		}
-		
+
 	}
 
 	/**
-	 * Contains an exception that otherwise would have a special meaning inside the
-	 * CompletableFuture. Those are: CancellationException, CompletionException
+	 * A {@link CompletableFuture} that mirrors the outcome of the task. It cannot be completed from the outside,
+	 * cancelling it cancels the task.
 	 */
-	private static final class LiteralException extends Exception {
-		private static final long serialVersionUID = -2172236355312586767L;
-		
-		public LiteralException(Throwable cause) {
-			super(Objects.requireNonNull(cause));
-		}
-	}
-	
+	private final class StageView extends CompletableFuture<T> {
 
-	protected CancelResult fromDoneState() {
-		var state = getStateImpl();
-		if(!state.isDone()) throw new IllegalStateException("State is not done");
-		if(state.isSuccess()) return CancelResult.ALREADY_SUCCEEDED;
-		if(state.isFailed()) return CancelResult.ALREADY_FAILED;
-		return CancelResult.ALREADY_CANCELLED;
-	}
-	
-	protected static <V> BiConsumer<V, ? super Throwable> whenDoneImpl(Runnable action) {
-		Objects.requireNonNull(action);
-		return (value, ex) -> action.run();
-	}
-	
-	protected static <V> BiConsumer<V, ? super Throwable> whenFailedImpl(Consumer<? super Throwable> action) {
-		Objects.requireNonNull(action);
-		return (value, ex) -> {
-			if(ex != null && !isCancelledBy(ex)) {
-				action.accept(unwrapFailureReason(ex));
-			}
-		};
-	}
-	
-	protected static <V> BiConsumer<V, ? super Throwable> whenCancelledImpl(Runnable action) {
-		Objects.requireNonNull(action);
-		return (value, ex) -> {
-			if(ex != null && isCancelledBy(ex)) {
-				action.run();
-			}
-		};
-	}
-	
-	protected static <V> BiConsumer<V, ? super Throwable> whenSuccessImpl(Consumer<V> action) {
-		Objects.requireNonNull(action);
-		return (value, ex) -> {
-			if(ex == null)  {
-				action.accept(value);
-			}
-		};
-	}
-	
-	protected static <V> BiConsumer<V, ? super Throwable> whenSuccessImpl(Runnable action) {
-		Objects.requireNonNull(action);
-		return (value, ex) -> {
-			if(ex == null)  {
-				action.run();
+		private void mirror(Object outcome) {
+			if(isSuccessOutcome(outcome)) {
+				super.complete(valueOf(outcome));
+			} else {
+				final var alt = (AltResult) outcome;
+				//A failure with a CancellationException must not look like a cancelled stage
+				super.completeExceptionally(alt.state == TaskState.FAILED && alt.ex instanceof CancellationException ? new CompletionException(alt.ex) : alt.ex);
 			}
-		};
-	}
-	
-	/**
-	 * Checks whether an exception as a CompletableFutures result
-	 * result means cancellation
-	 * @param ex not null
-	 * @return
-	 */
-	private static boolean isCancelledBy(Throwable ex) {
-		if(ex == null) return false;
-		return unwrapHandler(ex) instanceof CancellationException;
-	}
-	
-	/**
-	 * Extracts form {@link CompletionException}s 
-	 * @param ex the exception
-	 * @return ex, or the extracted cause
-	 */
-	private static Throwable unwrapHandler(Throwable ex) {
-		if(ex == null) return null;
-		
-		if(ex instanceof CompletionException) {
-			return ex.getCause();
-		} else {
-			return ex;
 		}
-	}
-	
-	
-	
-	/**
-	 * If we call fail(CancellationException), this would cancel the task instead.
-	 * Instead we wrap it in a LiteralException and unwrap later
-	 * @param ex the throwable to (possibly) wrap
-	 * @return a wrapped exception 
-	 */
-	protected static Throwable wrapFailureReason(Throwable ex) {
-		if(ex == null) return null;
-		
-		if(ex instanceof CancellationException || ex instanceof CompletionException || ex instanceof ExecutionException) {
-			return new LiteralException(ex);
-		} else {
-			return ex;
-		}
-	}
-	
-	protected static Throwable unwrapFailureReason(Throwable ex) {
-		if(ex == null) return null;
-		
-		final var realEx = ex instanceof CompletionException ? ex.getCause() : ex;
-		return realEx instanceof LiteralException ? realEx.getCause() : realEx;
-	}
-	
-	@Deprecated //unused
-	protected static ExecutionException unwrapThrownFailureReason(ExecutionException ex) throws CancellationException {
-		var cause = Objects.requireNonNull(ex).getCause();
-		
-		if(cause instanceof LiteralException) {
-			return new ExecutionException(cause.getCause());
-		} else if(cause instanceof CancellationException) {
-			throw (CancellationException) cause;
-		} else {
-			return ex;
+
+		@Override
+		public boolean complete(T value) {
+			throw new UnsupportedOperationException("Task stage cannot be completed");
 		}
-	}
-	
-	protected static ExecutionException unwrapThrownFailureReason(CompletionException ex) throws CancellationException{
-		var cause = Objects.requireNonNull(ex).getCause();
-		
-		if(cause instanceof LiteralException) {
-			return new ExecutionException(cause.getCause());
-		} else if(cause instanceof CancellationException) {
-			throw (CancellationException) cause;
-		} else {
-			return new ExecutionException(ex.getCause());
+
+		@Override
+		public boolean completeExceptionally(Throwable ex) {
+			throw new UnsupportedOperationException("Task stage cannot be completed");
+		}
+
+		@Override
+		public void obtrudeValue(T value) {
+			throw new UnsupportedOperationException("Task stage cannot be completed");
+		}
+
+		@Override
+		public void obtrudeException(Throwable ex) {
+			throw new UnsupportedOperationException("Task stage cannot be completed");
 		}
+
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			cancelImpl();
+			return isCancelled();
+		}
+
 	}
 }
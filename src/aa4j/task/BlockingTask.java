@@ -1,7 +1,5 @@
 package aa4j.task;
 
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.CompletableFuture;
 import aa4j.CancellationStatusSupplier;
 
 /**
@@ -13,15 +11,14 @@ import aa4j.CancellationStatusSupplier;
 	private volatile boolean cancellationRequested;
 	private final boolean isCancellable;
 	
-	protected BlockingTask(CompletableFuture<T> usedCpf, boolean canCancelFlag) {
-		super(usedCpf);
+	protected BlockingTask(boolean canCancelFlag) {
 		isCancellable = canCancelFlag;
 		cancellationRequested = false;
 	}
 
 	@Override
 	protected CancelResult cancelImpl() {
-		if(getStateImpl().isDone()) return fromDoneState();
+		if(isDoneImpl()) return fromDoneState();
 		
 		if(isCancellable) {
 			cancellationRequested = true;
@@ -31,14 +28,6 @@ import aa4j.CancellationStatusSupplier;
 		}
 	}
 	
-	protected boolean succeedImpl(T value) {
-		return stage.complete(value);
-	}
-	
-	protected boolean failImpl(Throwable ex) {
-		return stage.completeExceptionally(wrapFailureReason(ex));
-	}
-	
 	protected CancellationToken token() {
 		var t = CancellationToken.unbound();
 		t.assignAction(() -> cancelImpl(), null);
@@ -47,7 +36,7 @@ import aa4j.CancellationStatusSupplier;
 	
 	protected boolean confirmCancelImpl() {
 		if(cancellationRequested) {
-			return stage.completeExceptionally(new CancellationException());
+			return cancelledImpl();
 		} else {
 			throw new IllegalStateException("Cannot confirm cancellation: not requested");
 		}
@@ -0,0 +1,84 @@
+package aa4j.task;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import aa4j.task.MappedTask.ChainedCancellationRequest;
+
+/**
+ * Forwards cancellation of a chained task to the stage that is currently running.
+ * Shared by all kinds of chained tasks, which only have to report when the first stage completed
+ * and which task runs as the second stage.
+ * <p>
+ * While the second stage is being started, there is nothing to cancel yet. A cancellation request in that window
+ * is recorded, and the thread that installs the second stage cancels it right after. No thread ever waits for another.
+ * </p>
+ */
+/*package*/ final class ChainCancellation implements ChainedCancellationRequest {
+
+	private static final int STAGE_1 = 0; //executing stage 1
+	private static final int CRQ = 1; //cancellation requested before stage 1 completed
+	private static final int CHECKED = 2; //cancellation state checked, will install task2ccrq soon
+	private static final int CHECKED_CRQ = 3; //cancellation requested while CHECKED, the installing thread applies it
+	private static final int STAGE_2 = 4; //task2ccrq installed
+
+	private final ChainedCancellationRequest task1ccrq;
+	private volatile ChainedCancellationRequest task2ccrq; //published by the transition to STAGE_2
+	private final AtomicInteger cancellationState;
+
+	/*package*/ ChainCancellation(ChainedCancellationRequest task1ccrq) {
+		this.task1ccrq = task1ccrq;
+		this.task2ccrq = null;
+		this.cancellationState = new AtomicInteger(STAGE_1);
+	}
+
+	/**
+	 * Must only be called while the chained task is not done.
+	 */
+	@Override
+	public CancelResult cancel() {
+		while(true) {
+			switch (cancellationState.get()) {
+			case STAGE_1:
+				if(!cancellationState.compareAndSet(STAGE_1, CRQ)) continue;
+				final var result = task1ccrq.cancel();
+				return result.isCancelledByAction() ? result : CancelResult.CANCELLATION_PENDING;
+			case CHECKED:
+				if(!cancellationState.compareAndSet(CHECKED, CHECKED_CRQ)) continue;
+				return CancelResult.CANCELLATION_PENDING;
+			case STAGE_2:
+				return task2ccrq.cancel();
+			default: //CRQ or CHECKED_CRQ, already requested
+				return CancelResult.CANCELLATION_PENDING;
+			}
+		}
+	}
+
+	/**
+	 * Called once when the first stage completed successfully. If this returns {@code true},
+	 * {@link #stage2(ChainedCancellationRequest)} must be called next.
+	 * @return {@code true} if the second stage may start, {@code false} if cancellation was
+	 * requested before and the chained task must be cancelled instead
+	 */
+	/*package*/ boolean enterStage2() {
+		final var cancelCode = cancellationState.compareAndExchange(STAGE_1, CHECKED);
+		if(cancelCode == STAGE_1) {
+			return true; //We are good to go
+		} else if(cancelCode == CRQ) {
+			task2ccrq = () -> CancelResult.ALREADY_CANCELLED;
+			cancellationState.set(STAGE_2);
+			return false; //Don't even try to start the next stage
+		} else {
+			throw new Error("Invalid ChainedTask cancellation state: " + cancelCode);
+		}
+	}
+
+	/**
+	 * Installs the second stage. If cancellation was requested since {@link #enterStage2()}, the second stage
+	 * is cancelled right away on the calling thread.
+	 * @param ccrq Cancels the second stage, or reports the state of the chained task if the second stage did not start
+	 */
+	/*package*/ void stage2(ChainedCancellationRequest ccrq) {
+		task2ccrq = ccrq;
+		if(cancellationState.getAndSet(STAGE_2) == CHECKED_CRQ) ccrq.cancel();
+	}
+}
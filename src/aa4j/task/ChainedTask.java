@@ -1,82 +1,104 @@
 package aa4j.task;
 
-import java.util.concurrent.CancellationException;
-import java.util.concurrent.CompletionStage;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.Function;
-import aa4j.task.MappedTask.ChainedCancellationRequest;
 
 class ChainedTask<T> extends AbstractCompletionStageTask<T> {
 
-	private static final int STAGE_1 = 0; //executing stage 1
-	private static final int CRQ = 1; //cancellation requested before stage 1 completed
-	private static final int CHECKED = 2; //cancellation state checked, will push task2ccrq soon
+	private final ChainCancellation cancellation;
 	
-	private final StateHolder state;
-	
-	private ChainedTask(StateHolder state, CompletionStage<T> stage) {
-		super(stage);
-		this.state = state;
+	private ChainedTask(TaskOf<?> task1) {
+		this.cancellation = new ChainCancellation(task1::cancel);
 	}
 
 	@Override
 	protected CancelResult cancelImpl() {
-		if(state.cancellationState.compareAndSet(STAGE_1, CRQ)) {
-			var result = state.task1ccrq.cancel();
-			return result.isCancelledByAction() ? result : CancelResult.CANCELLATION_PENDING;
-		} else { //Either already cancelled or checked
-			if(state.cancellationState.get() == CHECKED) {
-				//Spin-wait until the second ccrq is filled in
-				while(state.task2ccrq == null) Thread.onSpinWait();
-				return state.task2ccrq.cancel();
-			} else { //CRQ active -> pending
-				return CancelResult.CANCELLATION_PENDING;
-			}
-		}
+		if(isDoneImpl()) return fromDoneState();
+		return cancellation.cancel();
 	}
 
+	/**
+	 * @return This task if it was completed by this call, see {@link Completion#fire(Object)}
+	 */
+	private <U> AbstractCompletionStageTask<?> stage1Completed(Object outcome, Function<U, TaskOf<T>> chainedTask) {
+		if(!isSuccessOutcome(outcome)) { //Failures and cancellation are immutable and can be shared
+			return setOutcome(outcome) ? this : null;
+		}
+		
+		//first, check cancellation state
+		if(!cancellation.enterStage2()) {
+			return setOutcome(encodeCancellation()) ? this : null;
+		}
+		final TaskOf<T> task2;
+		try {
+			task2 = chainedTask.apply(decodeValue(outcome));
+			if(task2 == null) throw new NullPointerException("Chained task function returned null");
+		} catch (Throwable ex) {
+			final boolean completed = setOutcome(encodeFailure(ex));
+			cancellation.stage2(this::fromDoneState); //Only valid after the outcome is set
+			return completed ? this : null;
+		}
+		cancellation.stage2(task2::cancel);
+		onDone(task2, new Relay(this));
+		return null;
+	}
 	
-	
-	private static <U, T> Function<U, CompletionStage<T>> futureSupplier(Function<U, TaskOf<T>> chainedTask, StateHolder state) {
-		return u -> {
-			//first, check cancellation state
-			final var cancelCode = state.cancellationState.getAndSet(CHECKED);
-			if(cancelCode == CRQ) {
-				state.task2ccrq = () -> CancelResult.ALREADY_CANCELLED;
-				throw new CancellationException(); //Don't even try to start the next stage
-			} else if(cancelCode == STAGE_1) {
-				//We are good to go
-				final var task = chainedTask.apply(u);
-				state.task2ccrq = task::cancel;
-				return task.stage();
-			} else { //Alerady CHECKED??? ---should not happen at all ever, unless someone is messing with the AtomicInteger
-				state.task2ccrq = () -> {
-					throw new Error("Invalid ChainedTask cancellation state caused wait for CancelResult to fail");
-				}; //at this point, we are already fucked, but at least don't leave another thread in an infinite spin-wait 
-				throw new Error("Invalid ChainedTask cancellation state");
-			}
-		};
+	/**
+	 * Chains a first task that is already done. No chained task is needed: This returns the second task itself,
+	 * or a completed task with the failure or cancellation of the first task.
+	 */
+	protected static <U, T> TaskOf<T> chainDone(TaskOf<U> task, Function<U, TaskOf<T>> chainedTask) {
+		final var outcome = doneOutcomeOf(task);
+		if(!isSuccessOutcome(outcome)) return CompletedTask.fromOutcome(outcome);
+		try {
+			final var task2 = chainedTask.apply(decodeValue(outcome));
+			if(task2 == null) throw new NullPointerException("Chained task function returned null");
+			return task2;
+		} catch (Throwable ex) {
+			return CompletedTask.failure(ex);
+		}
 	}
 	
 	/**
-	 * This is required instead of a constructor, because a StateHolder needs to exist and be initialized
-	 * before the super constructor is called.
+	 * @param executor Runs the function that starts the second stage, or {@code null} to run it on the thread
+	 * that completes the first stage
 	 */
-	protected static <U, T> ChainedTask<T> create(TaskOf<U> task, Function<U, TaskOf<T>> chainedTask) {
-		final var sh = new StateHolder(task);
-		final var sup = futureSupplier(chainedTask, sh);
-		return new ChainedTask<>(sh, task.stage().thenCompose(sup));
+	protected static <U, T> ChainedTask<T> create(TaskOf<U> task, Function<U, TaskOf<T>> chainedTask, Executor executor) {
+		final var ct = new ChainedTask<T>(task);
+		onDone(task, new Completion() {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+				return ct.stage1Completed(outcome, chainedTask);
+			}
+
+			@Override
+			/*package*/ Executor executorFor(Object outcome) {
+				return isSuccessOutcome(outcome) ? executor : null;
+			}
+
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> rejected(RejectedExecutionException ex) {
+				//The second stage never starts, so this fails the task like an exception in the function
+				return ct.stage1Completed(encodeValue(null), _null -> { throw ex; });
+			}
+		});
+		return ct;
 	}
 	
-	private static final class StateHolder {
-		private final ChainedCancellationRequest task1ccrq;
-		private volatile ChainedCancellationRequest task2ccrq;
-		private final AtomicInteger cancellationState;
+	/**
+	 * Completes the chained task with the outcome of the second task
+	 */
+	private static final class Relay extends Completion {
+		private final ChainedTask<?> target;
 		
-		private StateHolder(TaskOf<?> task1) {
-			this.task1ccrq = task1::cancel;
-			this.task2ccrq = null;
-			this.cancellationState = new AtomicInteger(STAGE_1);
+		private Relay(ChainedTask<?> target) {
+			this.target = target;
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+			return target.setOutcome(outcome) ? target : null;
 		}
 	}
 }
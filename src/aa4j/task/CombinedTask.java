@@ -0,0 +1,154 @@
+package aa4j.task;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A task that completes when a group of input tasks completes.
+ * <p>
+ * Every input gets one {@link Completion} node that knows its index. The results are written to a presized array,
+ * and a single countdown decides which node completes the combined task, so no intermediate tasks are created.
+ * Cancelling the combined task cancels every input. When the task completes before all inputs are done,
+ * the nodes are removed from the inputs that are still pending.
+ * </p>
+ * @param <T> The result type of the combined task
+ */
+/*package*/ final class CombinedTask<T> extends AbstractCompletionStageTask<T> {
+
+	private static final VarHandle REMAINING;
+	static {
+		try {
+			REMAINING = MethodHandles.lookup().findVarHandle(CombinedTask.class, "remaining", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static final int ALL = 0; //List of all results, or the first failure or cancellation
+	private static final int ANY = 1; //The outcome of the first input that is done
+	private static final int ALL_SETTLED = 2; //List of the TaskOutcomes of all inputs
+
+	private final int mode;
+	private final TaskOf<?>[] inputs;
+	private final Object[] values; //null for ANY
+	private volatile int remaining;
+	private volatile Completion[] slots; //The pushed nodes, published after all of them were added
+
+	private CombinedTask(int mode, TaskOf<?>[] inputs) {
+		this.mode = mode;
+		this.inputs = inputs;
+		this.values = mode == ANY ? null : new Object[inputs.length];
+		this.remaining = inputs.length;
+	}
+
+	/**
+	 * Adds the nodes to the inputs. Inputs that are already done complete the task right here.
+	 */
+	private CombinedTask<T> start() {
+		if(inputs.length == 0) completeWith(encodeValue(Collections.emptyList())); //ANY rejects empty inputs
+		final var pushed = new Completion[inputs.length];
+		for(int i = 0; i < inputs.length; i++) {
+			pushed[i] = onDone(inputs[i], new Slot(this, i));
+		}
+		slots = pushed;
+		//Either this thread or the one that completes the task sees both the nodes and the done state
+		if(isDoneImpl()) releaseInputs(pushed);
+		return this;
+	}
+
+	/**
+	 * Removes the nodes from inputs that are still pending after the task completed early.
+	 * @param pushed The nodes, or {@code null} if they are not all added yet
+	 */
+	private void releaseInputs(Completion[] pushed) {
+		if(pushed == null) return; //start() releases them when it is done adding
+		for(int i = 0; i < inputs.length; i++) {
+			unlinkFrom(inputs[i], pushed[i]);
+		}
+	}
+
+	/**
+	 * Completes the task before all inputs are done.
+	 * @return This task if it was completed by this call, see {@link Completion#fire(Object)}
+	 */
+	private AbstractCompletionStageTask<?> completeEarly(Object outcome) {
+		if(!setOutcome(outcome)) return null;
+		releaseInputs(slots);
+		return this;
+	}
+
+	/*package*/ static <T> CombinedTask<List<T>> all(TaskOf<?>[] inputs) {
+		return new CombinedTask<List<T>>(ALL, inputs).start();
+	}
+
+	/*package*/ static <T> CombinedTask<T> any(TaskOf<?>[] inputs) {
+		return new CombinedTask<T>(ANY, inputs).start();
+	}
+
+	/*package*/ static <T> CombinedTask<List<TaskOutcome<T>>> allSettled(TaskOf<?>[] inputs) {
+		return new CombinedTask<List<TaskOutcome<T>>>(ALL_SETTLED, inputs).start();
+	}
+
+	@Override
+	protected CancelResult cancelImpl() {
+		if(isDoneImpl()) return fromDoneState();
+		boolean requested = false;
+		for(var input : inputs) {
+			requested |= input.cancel().isCancelledByAction();
+		}
+		if(isDoneImpl()) {
+			return requested && getStateImpl().isCancelled() ? CancelResult.SUCCESSFULLY_CANCELLED : fromDoneState();
+		}
+		return requested ? CancelResult.CANCELLATION_PENDING : CancelResult.UNABLE_TO_CANCEL;
+	}
+
+	/**
+	 * @return This task if it was completed by this call, see {@link Completion#fire(Object)}
+	 */
+	private AbstractCompletionStageTask<?> inputDone(int index, Object outcome) {
+		switch (mode) {
+		case ANY:
+			return completeEarly(outcome);
+		case ALL:
+			//Failures and cancellation are immutable and can be shared
+			if(!isSuccessOutcome(outcome)) return completeEarly(outcome);
+			values[index] = decodeValue(outcome);
+			break;
+		default:
+			values[index] = settledOutcome(outcome);
+		}
+		//The full fence of the countdown publishes the array element to the node that completes the task
+		if((int) REMAINING.getAndAdd(this, -1) != 1) return null;
+		return setOutcome(encodeValue(Collections.unmodifiableList(Arrays.asList(values)))) ? this : null;
+	}
+
+	private static TaskOutcome<?> settledOutcome(Object outcome) {
+		if(isSuccessOutcome(outcome)) return TaskOutcome.succeeded(decodeValue(outcome));
+		final var ex = ((AltResult) outcome).ex;
+		return isCancelledOutcome(outcome) ? TaskOutcome.cancelled((CancellationException) ex) : TaskOutcome.failed(ex);
+	}
+
+	private static final class Slot extends Completion {
+		private final CombinedTask<?> task;
+		private final int index;
+
+		private Slot(CombinedTask<?> task, int index) {
+			this.task = task;
+			this.index = index;
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+			return task.inputDone(index, outcome);
+		}
+
+		@Override
+		/*package*/ boolean isLive() {
+			return !task.isDoneImpl(); //Inputs that lose an any or a failed all must not keep the node
+		}
+	}
+}
@@ -4,9 +4,12 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
@@ -14,16 +17,79 @@ import java.util.function.Function;
 
 import aa4j.TaskNotDoneException;
 
-/*package*/ final class CompletedTask<T> {
+/*package*/ final class CompletedTask<T> implements TaskOf<T> {
 	
-	static final Task success_untyped = new CompletedTask<>(null, null, TaskState.SUCCEEDED).taskView;
+	//Canonical instances for common results. Completed tasks are immutable, so they can be shared freely
+	private static final CompletedTask<?> SUCCESS_NULL = new CompletedTask<>(null, null, TaskState.SUCCEEDED);
+	private static final CompletedTask<Boolean> SUCCESS_TRUE = new CompletedTask<>(Boolean.TRUE, null, TaskState.SUCCEEDED);
+	private static final CompletedTask<Boolean> SUCCESS_FALSE = new CompletedTask<>(Boolean.FALSE, null, TaskState.SUCCEEDED);
+	private static final CompletedTask<?> SUCCESS_EMPTY = new CompletedTask<>(Optional.empty(), null, TaskState.SUCCEEDED);
+	private static final int SMALL_INT_MIN = -128;
+	private static final int SMALL_INT_MAX = 127;
+	//Filled during class initialization, which publishes the tasks safely to all threads
+	private static final CompletedTask<?>[] SUCCESS_SMALL_INT = new CompletedTask<?>[SMALL_INT_MAX - SMALL_INT_MIN + 1];
+	static {
+		for(int i = SMALL_INT_MIN; i <= SMALL_INT_MAX; i++) {
+			SUCCESS_SMALL_INT[i - SMALL_INT_MIN] = new CompletedTask<>(Integer.valueOf(i), null, TaskState.SUCCEEDED);
+		}
+	}
+	
+	private static final CompletedTask<?> CANCELLED_SHARED = new CompletedTask<>(null,
+			AbstractCompletionStageTask.SHARED_CANCELLATION.ex, TaskState.CANCELLED);
+	static final Task success_untyped = SUCCESS_NULL.task();
 	private static final Runnable NOOP = () -> {};
+	private static final Registration DONE_REGISTRATION = () -> {}; //Handlers run immediately, so there is nothing to remove
+	
+	/**
+	 * A successful task with the value. Returns a shared instance for {@code null}, {@link Boolean}s,
+	 * the empty {@link Optional} and the {@link Integer}s that {@link Integer#valueOf(int)} caches.
+	 * The shared instances return the same value instance that was passed to this method.
+	 */
+	@SuppressWarnings("unchecked")
+	/*package*/ static <T> TaskOf<T> success(T value) {
+		if(value == null) return (TaskOf<T>) SUCCESS_NULL;
+		if(value == Boolean.TRUE) return (TaskOf<T>) SUCCESS_TRUE;
+		if(value == Boolean.FALSE) return (TaskOf<T>) SUCCESS_FALSE;
+		if(value == Optional.empty()) return (TaskOf<T>) SUCCESS_EMPTY;
+		if(value instanceof Integer) {
+			final int i = (Integer) value;
+			//Only values that are the cached instance, so the result has the same identity as the value
+			if(i >= SMALL_INT_MIN && i <= SMALL_INT_MAX && value == Integer.valueOf(i)) {
+				return (TaskOf<T>) SUCCESS_SMALL_INT[i - SMALL_INT_MIN];
+			}
+		}
+		return new CompletedTask<>(value, null, TaskState.SUCCEEDED);
+	}
+	
+	/*package*/ static <T> TaskOf<T> failure(Throwable failureReason) {
+		return new CompletedTask<>(null, failureReason, TaskState.FAILED);
+	}
+	
+	/**
+	 * A cancelled task. While {@link Tasks#isStacklessCancellation()} is enabled, this is one shared task whose exception
+	 * has no stack trace. Otherwise every task gets its own {@link CancellationException} with the stack trace of this call.
+	 */
+	@SuppressWarnings("unchecked")
+	/*package*/ static <T> TaskOf<T> cancelled() {
+		if(Tasks.isStacklessCancellation()) return (TaskOf<T>) CANCELLED_SHARED;
+		return new CompletedTask<>(null, null, TaskState.CANCELLED);
+	}
+	
+	/**
+	 * A task with an encoded outcome, see {@link AbstractCompletionStageTask#encodeValue(Object)}.
+	 */
+	/*package*/ static <T> TaskOf<T> fromOutcome(Object outcome) {
+		if(AbstractCompletionStageTask.isSuccessOutcome(outcome)) return success(AbstractCompletionStageTask.decodeValue(outcome));
+		final var reason = ((AbstractCompletionStageTask.AltResult) outcome).ex; //The stored exception is kept
+		if(AbstractCompletionStageTask.isCancelledOutcome(outcome)) return new CompletedTask<>(null, reason, TaskState.CANCELLED);
+		return failure(reason);
+	}
 	
 	private ExecutionException throwableFailureReason() {
-		return new ExecutionException(unwrapFailureReason());
+		return new ExecutionException(unwrapFailureReason()); //Not shared, callers can modify it
 	}
 	private Throwable unwrapFailureReason() {
-		return AbstractCompletionStageTask.unwrapFailureReason((Throwable) value);
+		return (Throwable) value;
 	}
 	private CancellationException unwrapCancellationReason() {
 		return (CancellationException) value;
@@ -36,9 +102,11 @@ import aa4j.TaskNotDoneException;
 	
 	private final TaskState state;
 	private final Object value; //Can be T, CancellationException, Throwable
-	protected final TaskOf<T> taskOfView;
-	protected final Task taskView;
-	protected final Future<T> futureView;
+	private volatile TaskOutcome<T> outcome; //created on first use
+	//Most completed tasks are only used as a TaskOf, so the other views are created on first use.
+	//Creation can race, but the views have no state of their own
+	private Task taskView;
+	private Future<T> futureView;
 	
 	protected CompletedTask(T completionValue, Throwable altValue, TaskState state) {
 		this.state = state;
@@ -46,309 +114,368 @@ import aa4j.TaskNotDoneException;
 		if(state == TaskState.SUCCEEDED) {
 			value = completionValue;
 		} else if(state == TaskState.CANCELLED) {
-			value = new CancellationException();
+			value = altValue != null ? (CancellationException) altValue : Tasks.newCancellationException();
 		} else if(state == TaskState.FAILED) {
-			value = AbstractCompletionStageTask.wrapFailureReason(Objects.requireNonNull(altValue));
+			value = Objects.requireNonNull(altValue);
 		} else {
 			throw new IllegalArgumentException("Invalid state for CompletedTask: " + state);
 		}
-		
-		this.taskOfView = new TaskOfView();
-		this.taskView = new TaskView();
-		this.futureView = new FutureView();
 	}
 	
+	private Task taskView() {
+		var view = taskView;
+		if(view == null) taskView = view = new TaskView();
+		return view;
+	}
 	
-	private final class TaskOfView implements TaskOf<T> {
-		
-		@Override
-		public TaskOf<T> await() throws InterruptedException {
-			return this;
-		}
+	private Future<T> futureView() {
+		var view = futureView;
+		if(view == null) futureView = view = new FutureView();
+		return view;
+	}
+	
+	@Override
+	public TaskOf<T> await() throws InterruptedException {
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> awaitUninterruptibly() {
-			return this;
-		}
+	@Override
+	public TaskOf<T> awaitUninterruptibly() {
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> await(long time, TimeUnit unit) throws InterruptedException, TimeoutException {
-			if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
-			Objects.requireNonNull(unit, "'unit' parameter must not be null");
-			return this;
-		}
+	@Override
+	public TaskOf<T> await(long time, TimeUnit unit) throws InterruptedException, TimeoutException {
+		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
+		Objects.requireNonNull(unit, "'unit' parameter must not be null");
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> awaitUninterruptibly(long time, TimeUnit unit) throws TimeoutException {
-			if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
-			Objects.requireNonNull(unit, "'unit' parameter must not be null");
-			return this;
-		}
+	@Override
+	public TaskOf<T> awaitUninterruptibly(long time, TimeUnit unit) throws TimeoutException {
+		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
+		Objects.requireNonNull(unit, "'unit' parameter must not be null");
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> await(CancellationToken token) throws InterruptedException, CancellationException {
-			Objects.requireNonNull(token, "'token' parameter must not be null")
-				.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
-			return this;
-		}
+	@Override
+	public TaskOf<T> await(CancellationToken token) throws InterruptedException, CancellationException {
+		Objects.requireNonNull(token, "'token' parameter must not be null")
+			.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> awaitUninterruptibly(CancellationToken token) throws CancellationException {
-			Objects.requireNonNull(token, "'token' parameter must not be null")
-				.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
-			return this;
-		}
+	@Override
+	public TaskOf<T> awaitUninterruptibly(CancellationToken token) throws CancellationException {
+		Objects.requireNonNull(token, "'token' parameter must not be null")
+			.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> await(long time, TimeUnit unit, CancellationToken token)
-				throws InterruptedException, TimeoutException, CancellationException {
-			if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
-			Objects.requireNonNull(unit, "'unit' parameter must not be null");
-			Objects.requireNonNull(token, "'token' parameter must not be null")
-				.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
-			return this;
-		}
+	@Override
+	public TaskOf<T> await(long time, TimeUnit unit, CancellationToken token)
+			throws InterruptedException, TimeoutException, CancellationException {
+		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
+		Objects.requireNonNull(unit, "'unit' parameter must not be null");
+		Objects.requireNonNull(token, "'token' parameter must not be null")
+			.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> awaitUninterruptibly(long time, TimeUnit unit, CancellationToken token)
-				throws TimeoutException, CancellationException {
-			Objects.requireNonNull(unit, "'unit' parameter must not be null");
-			Objects.requireNonNull(token, "'token' parameter must not be null")
-				.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
-			return this;
-		}
+	@Override
+	public TaskOf<T> awaitUninterruptibly(long time, TimeUnit unit, CancellationToken token)
+			throws TimeoutException, CancellationException {
+		Objects.requireNonNull(unit, "'unit' parameter must not be null");
+		Objects.requireNonNull(token, "'token' parameter must not be null")
+			.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
+		return this;
+	}
 
-		@Override
-		public SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible) {
-			if(token != null) token.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
-			return SyncResult.THREAD_SYNCHRONIZED;
-		}
+	@Override
+	public SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible) {
+		if(token != null) token.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
+		return SyncResult.THREAD_SYNCHRONIZED;
+	}
 
-		@Override
-		public CancelResult cancel() {
-			//only done states are possible
-			if(state.isSuccess()) return CancelResult.ALREADY_SUCCEEDED;
-			if(state.isFailed()) return CancelResult.ALREADY_FAILED;
-			return CancelResult.ALREADY_CANCELLED;
-		}
+	@Override
+	public CancelResult cancel() {
+		//only done states are possible
+		if(state.isSuccess()) return CancelResult.ALREADY_SUCCEEDED;
+		if(state.isFailed()) return CancelResult.ALREADY_FAILED;
+		return CancelResult.ALREADY_CANCELLED;
+	}
 
-		@Override
-		public TaskState getState() {
-			return state;
-		}
-		
-		@Override
-		public T getResult() throws ExecutionException, CancellationException, TaskNotDoneException {
-			if(state.isCancelled()) {
-				throw unwrapCancellationReason();
-			} else if(state.isFailed()) {
-				throw throwableFailureReason();
-			} else {
-				return unwrapValue();
-			}
+	@Override
+	public TaskState getState() {
+		return state;
+	}
+	
+	@Override
+	public T getResult() throws ExecutionException, CancellationException, TaskNotDoneException {
+		if(state.isCancelled()) {
+			throw unwrapCancellationReason();
+		} else if(state.isFailed()) {
+			throw throwableFailureReason();
+		} else {
+			return unwrapValue();
 		}
+	}
 
-		@Override
-		public T getResultOr(T altValue) {
-			if(state.isSuccess()) {
-				return unwrapValue();
-			} else {
-				return altValue;
-			}
+	@Override
+	public T getResultOr(T altValue) {
+		if(state.isSuccess()) {
+			return unwrapValue();
+		} else {
+			return altValue;
 		}
+	}
 
-		@Override
-		public T getResultOr(T valueWhenIncomplete, T valueWhenFailed, T valueWhenCancelled) {
-			if(state.isSuccess()) {
-				return unwrapValue();
-			} else if(state.isFailed()) {
-				return valueWhenFailed;
-			} else { //No other state possible
-				return valueWhenCancelled;
-			}
+	@Override
+	public T getResultOr(T valueWhenIncomplete, T valueWhenFailed, T valueWhenCancelled) {
+		if(state.isSuccess()) {
+			return unwrapValue();
+		} else if(state.isFailed()) {
+			return valueWhenFailed;
+		} else { //No other state possible
+			return valueWhenCancelled;
 		}
+	}
 
-		@Override
-		public T getResult(Function<? super Throwable, ? extends RuntimeException> remainingExs)
-				throws CancellationException, TaskNotDoneException {
-			if(state.isSuccess()) {
-				return unwrapValue();
-			} else if(state.isFailed()) {
-				throw remainingExs.apply(unwrapFailureReason());
-			} else { //Cancelled
-				throw unwrapCancellationReason();
-			}
+	@Override
+	public T getResult(Function<? super Throwable, ? extends RuntimeException> remainingExs)
+			throws CancellationException, TaskNotDoneException {
+		if(state.isSuccess()) {
+			return unwrapValue();
+		} else if(state.isFailed()) {
+			throw remainingExs.apply(unwrapFailureReason());
+		} else { //Cancelled
+			throw unwrapCancellationReason();
 		}
+	}
 
-		
-		@Override
-		@SuppressWarnings("unchecked")
-		public <E1 extends Throwable> T getResult(Class<E1> ex1,
-				Function<? super Throwable, ? extends RuntimeException> remainingExs)
-				throws E1, CancellationException, TaskNotDoneException {
-			if(state.isSuccess()) {
-				return unwrapValue();
-			} else if(state.isFailed()) {
-				//value is some throwable
-				final var ex = unwrapFailureReason();
-				if(ex1.isInstance(ex)) {
-					throw (E1) ex;
-				} else {
-					throw remainingExs.apply(ex);
-				}
-			} else { //Cancelled
-				throw unwrapCancellationReason();
+	
+	@Override
+	@SuppressWarnings("unchecked")
+	public <E1 extends Throwable> T getResult(Class<E1> ex1,
+			Function<? super Throwable, ? extends RuntimeException> remainingExs)
+			throws E1, CancellationException, TaskNotDoneException {
+		if(state.isSuccess()) {
+			return unwrapValue();
+		} else if(state.isFailed()) {
+			//value is some throwable
+			final var ex = unwrapFailureReason();
+			if(ex1.isInstance(ex)) {
+				throw (E1) ex;
+			} else {
+				throw remainingExs.apply(ex);
 			}
+		} else { //Cancelled
+			throw unwrapCancellationReason();
 		}
+	}
 
-		@Override
-		@SuppressWarnings("unchecked")
-		public <E1 extends Throwable, E2 extends Throwable> T getResult(Class<E1> ex1, Class<E2> ex2,
-				Function<? super Throwable, ? extends RuntimeException> remainingExs)
-				throws E1, E2, CancellationException, TaskNotDoneException {
-			if(state.isSuccess()) {
-				return unwrapValue();
-			} else if(state.isFailed()) {
-				final var ex = unwrapFailureReason();
-				if(ex1.isInstance(ex)) {
-					throw (E1) ex;
-				} else if(ex2.isInstance(ex)) {
-					throw (E2) ex;
-				} else {
-					throw remainingExs.apply(ex);
-				}
+	@Override
+	@SuppressWarnings("unchecked")
+	public <E1 extends Throwable, E2 extends Throwable> T getResult(Class<E1> ex1, Class<E2> ex2,
+			Function<? super Throwable, ? extends RuntimeException> remainingExs)
+			throws E1, E2, CancellationException, TaskNotDoneException {
+		if(state.isSuccess()) {
+			return unwrapValue();
+		} else if(state.isFailed()) {
+			final var ex = unwrapFailureReason();
+			if(ex1.isInstance(ex)) {
+				throw (E1) ex;
+			} else if(ex2.isInstance(ex)) {
+				throw (E2) ex;
 			} else {
-				throw unwrapCancellationReason();
+				throw remainingExs.apply(ex);
 			}
+		} else {
+			throw unwrapCancellationReason();
 		}
+	}
 
-		@Override
-		@SuppressWarnings("unchecked")
-		public <E1 extends Throwable, E2 extends Throwable, E3 extends Throwable> T getResult(Class<E1> ex1,
-				Class<E2> ex2, Class<E3> ex3, Function<? super Throwable, ? extends RuntimeException> remainingExs)
-				throws E1, E2, E3, CancellationException, TaskNotDoneException {
-			if(state.isSuccess()) {
-				return unwrapValue();
-			} else if(state.isFailed()) {
-				final var ex = unwrapFailureReason();
-				if(ex1.isInstance(ex)) {
-					throw (E1) ex;
-				} else if(ex2.isInstance(ex)) {
-					throw (E2) ex;
-				} else if(ex3.isInstance(ex)) {
-					throw (E3) ex;
-				} else {
-					throw remainingExs.apply(ex);
-				}
+	@Override
+	@SuppressWarnings("unchecked")
+	public <E1 extends Throwable, E2 extends Throwable, E3 extends Throwable> T getResult(Class<E1> ex1,
+			Class<E2> ex2, Class<E3> ex3, Function<? super Throwable, ? extends RuntimeException> remainingExs)
+			throws E1, E2, E3, CancellationException, TaskNotDoneException {
+		if(state.isSuccess()) {
+			return unwrapValue();
+		} else if(state.isFailed()) {
+			final var ex = unwrapFailureReason();
+			if(ex1.isInstance(ex)) {
+				throw (E1) ex;
+			} else if(ex2.isInstance(ex)) {
+				throw (E2) ex;
+			} else if(ex3.isInstance(ex)) {
+				throw (E3) ex;
 			} else {
-				throw unwrapCancellationReason();
+				throw remainingExs.apply(ex);
 			}
+		} else {
+			throw unwrapCancellationReason();
 		}
-		
-		@Override
-		public Optional<T> getResultIfSuccess() {
-			if(state.isSuccess()) {
-				return Optional.ofNullable(unwrapValue());
-			} else {
-				return Optional.empty();
-			}
+	}
+	
+	@Override
+	public Optional<T> getResultIfSuccess() {
+		if(state.isSuccess()) {
+			return Optional.ofNullable(unwrapValue());
+		} else {
+			return Optional.empty();
+		}
+	}
+
+	@Override
+	public Optional<T> getResultIfPresent() throws ExecutionException, CancellationException {
+		if(state.isSuccess()) {
+			return Optional.ofNullable(unwrapValue());
+		} else if(state.isCancelled()) {
+			throw unwrapCancellationReason();
+		} else if(state.isFailed()) {
+			throw throwableFailureReason(); 
+		} else {
+			return Optional.empty();
 		}
+	}
+	
 
-		@Override
-		public Optional<T> getResultIfPresent() throws ExecutionException, CancellationException {
+	@Override
+	public TaskOutcome<T> getOutcome() {
+		var o = outcome;
+		if(o == null) {
 			if(state.isSuccess()) {
-				return Optional.ofNullable(unwrapValue());
-			} else if(state.isCancelled()) {
-				throw unwrapCancellationReason();
+				o = TaskOutcome.succeeded(unwrapValue());
 			} else if(state.isFailed()) {
-				throw throwableFailureReason(); 
+				o = TaskOutcome.failed(unwrapFailureReason());
 			} else {
-				return Optional.empty();
+				o = TaskOutcome.cancelled(unwrapCancellationReason());
 			}
+			outcome = o; //Creation can race, but TaskOutcome is immutable
 		}
-		
+		return o;
+	}
 
-		@Override
-		public Future<T> future() {
-			return futureView;
+	@Override
+	public Future<T> future() {
+		return futureView();
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public CompletionStage<T> stage() {
+		if(state.isSuccess()) {
+			return CompletableFuture.completedStage((T) value);
+		} else if(state.isFailed() && value instanceof CancellationException) {
+			//A failure with a CancellationException must not look like a cancelled stage
+			return CompletableFuture.failedStage(new CompletionException((Throwable) value));
+		} else {
+			return CompletableFuture.failedStage((Throwable) value);
 		}
+	}
 
-		@Override
-		@SuppressWarnings("unchecked")
-		public CompletionStage<T> stage() {
-			//Directly copy, without unwrap calls
-			if(state.isSuccess()) {
-				return CompletableFuture.completedStage((T) value);
-			} else {
-				return CompletableFuture.failedStage((Throwable) value);
-			}
+	@Override
+	public Task task() {
+		return taskView();
+	}
+
+	@Override
+	public TaskOf<T> whenDone(Runnable action) {
+		action.run();
+		return this;
+	}
+
+	@Override
+	public TaskOf<T> whenSuccess(Consumer<? super T> action) {
+		if(state.isSuccess()) {
+			action.accept(unwrapValue());
 		}
+		return this;
+	}
 
-		@Override
-		public Task task() {
-			return taskView;
+	@Override
+	public TaskOf<T> whenFailed(Consumer<? super Throwable> action) {
+		if(state.isFailed()) {
+			action.accept(unwrapFailureReason());
 		}
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> whenDone(Runnable action) {
+	@Override
+	public TaskOf<T> whenCancelled(Runnable action) {
+		if(state.isCancelled()) {
 			action.run();
-			return this;
 		}
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> whenSuccess(Consumer<? super T> action) {
-			if(state.isSuccess()) {
-				action.accept(unwrapValue());
-			}
-			return this;
-		}
+	@Override
+	public Registration registerWhenDone(Runnable action) {
+		whenDone(action);
+		return DONE_REGISTRATION;
+	}
 
-		@Override
-		public TaskOf<T> whenFailed(Consumer<? super Throwable> action) {
-			if(state.isFailed()) {
-				action.accept(unwrapFailureReason());
-			}
-			return this;
-		}
+	@Override
+	public Registration registerWhenSuccess(Consumer<? super T> action) {
+		whenSuccess(action);
+		return DONE_REGISTRATION;
+	}
 
-		@Override
-		public TaskOf<T> whenCancelled(Runnable action) {
-			if(state.isCancelled()) {
-				action.run();
-			}
-			return this;
-		}
+	@Override
+	public Registration registerWhenFailed(Consumer<? super Throwable> action) {
+		whenFailed(action);
+		return DONE_REGISTRATION;
+	}
 
-		@Override
-		public TaskOf<T> whenDoneAsync(Runnable action) {
-			//use common pool
-			Tasks.defaultExecutor().submit(action);
-			return this;
-		}
-		
-		@Override
-		public TaskOf<T> whenSuccessAsync(Consumer<? super T> action) {
-			if(state.isSuccess()) {
-				Tasks.defaultExecutor().submit(() -> action.accept(unwrapValue()));
-			}
-			return this;
+	@Override
+	public Registration registerWhenCancelled(Runnable action) {
+		whenCancelled(action);
+		return DONE_REGISTRATION;
+	}
+
+	@Override
+	public Registration registerWhenDoneAsync(Runnable action, Executor executor) {
+		whenDoneAsync(action, executor);
+		return DONE_REGISTRATION;
+	}
+
+	@Override
+	public TaskOf<T> whenDoneAsync(Runnable action, Executor executor) {
+		executeAsync(executor, action);
+		return this;
+	}
+	
+	@Override
+	public TaskOf<T> whenSuccessAsync(Consumer<? super T> action, Executor executor) {
+		if(state.isSuccess()) {
+			executeAsync(executor, () -> action.accept(unwrapValue()));
 		}
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> whenFailedAsync(Consumer<? super Throwable> action) {
-			if(state.isFailed()) {
-				Tasks.defaultExecutor().submit(() -> action.accept(unwrapFailureReason()));
-			}
-			return this;
+	@Override
+	public TaskOf<T> whenFailedAsync(Consumer<? super Throwable> action, Executor executor) {
+		if(state.isFailed()) {
+			executeAsync(executor, () -> action.accept(unwrapFailureReason()));
 		}
+		return this;
+	}
 
-		@Override
-		public TaskOf<T> whenCancelledAsync(Runnable action) {
-			if(state.isCancelled()) {
-				Tasks.defaultExecutor().submit(action);
-			}
-			return this;
+	@Override
+	public TaskOf<T> whenCancelledAsync(Runnable action, Executor executor) {
+		if(state.isCancelled()) {
+			executeAsync(executor, action);
 		}
+		return this;
+	}
+	
+	/**
+	 * Runs a handler on the executor. Like for tasks that are not done yet, a rejection is reported, see {@link Tasks#executeHandler(Executor, Runnable)}.
+	 */
+	private static void executeAsync(Executor executor, Runnable action) {
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		Tasks.executeHandler(executor, action);
 	}
 	
 	
@@ -443,18 +570,18 @@ import aa4j.TaskNotDoneException;
 
 		@Override
 		public Future<?> future() {
-			return futureView;
+			return futureView();
 		}
 
 		@Override
 		public CompletionStage<?> stage() {
 			//delegate this, b/c taskOfView knows about T and canc infer that return type
-			return taskOfView.stage();
+			return CompletedTask.this.stage();
 		}
 
 		@Override
 		public TaskOf<?> taskOf() {
-			return taskOfView;
+			return CompletedTask.this;
 		}
 
 		@Override
@@ -482,26 +609,56 @@ import aa4j.TaskNotDoneException;
 		}
 
 		@Override
-		public Task whenDoneAsync(Runnable action) {
-			Tasks.defaultExecutor().submit(action);
+		public Registration registerWhenDone(Runnable action) {
+			whenDone(action);
+			return DONE_REGISTRATION;
+		}
+
+		@Override
+		public Registration registerWhenSuccess(Runnable action) {
+			whenSuccess(action);
+			return DONE_REGISTRATION;
+		}
+
+		@Override
+		public Registration registerWhenFailed(Consumer<? super Throwable> action) {
+			whenFailed(action);
+			return DONE_REGISTRATION;
+		}
+
+		@Override
+		public Registration registerWhenCancelled(Runnable action) {
+			whenCancelled(action);
+			return DONE_REGISTRATION;
+		}
+
+		@Override
+		public Registration registerWhenDoneAsync(Runnable action, Executor executor) {
+			whenDoneAsync(action, executor);
+			return DONE_REGISTRATION;
+		}
+
+		@Override
+		public Task whenDoneAsync(Runnable action, Executor executor) {
+			executeAsync(executor, action);
 			return this;
 		}
 
 		@Override
-		public Task whenSuccessAsync(Runnable action) {
-			if(state.isSuccess()) Tasks.defaultExecutor().submit(action);
+		public Task whenSuccessAsync(Runnable action, Executor executor) {
+			if(state.isSuccess()) executeAsync(executor, action);
 			return this;
 		}
 
 		@Override
-		public Task whenFailedAsync(Consumer<? super Throwable> action) {
-			if(state.isFailed()) Tasks.defaultExecutor().submit(() -> action.accept(unwrapFailureReason()));
+		public Task whenFailedAsync(Consumer<? super Throwable> action, Executor executor) {
+			if(state.isFailed()) executeAsync(executor, () -> action.accept(unwrapFailureReason()));
 			return this;
 		}
 
 		@Override
-		public Task whenCancelledAsync(Runnable action) {
-			if(state.isCancelled()) Tasks.defaultExecutor().submit(action);
+		public Task whenCancelledAsync(Runnable action, Executor executor) {
+			if(state.isCancelled()) executeAsync(executor, action);
 			return this;
 		}
 	}
@@ -525,14 +682,14 @@ import aa4j.TaskNotDoneException;
 
 		@Override
 		public T get() throws InterruptedException, ExecutionException {
-			return taskOfView.getResult();
+			return CompletedTask.this.getResult();
 		}
 
 		@Override
 		public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
 			Objects.requireNonNull(unit, "'unit' parameter must not be null"); //can help to catch cases where this is null acccidentally
 			//done, so no wait anyways
-			return taskOfView.getResult();
+			return CompletedTask.this.getResult();
 		}
 		
 	}
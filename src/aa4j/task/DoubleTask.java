@@ -0,0 +1,193 @@
+package aa4j.task;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+
+import aa4j.TaskNotDoneException;
+
+/**
+ * A task with a {@code double} result. It works like a {@link TaskOf}{@code <Double>}, but the result is never boxed
+ * unless the task is used through its {@link #boxed()} view.<br>
+ * Use {@link Tasks#createDouble()} to create a task that can be completed manually, and the {@code map} and {@code chain}
+ * methods in {@link Tasks} to build pipelines of primitive tasks.
+ */
+public interface DoubleTask {
+
+	//Await methods
+	/**
+	 * Waits until the task is done, or the waiting thread is interrupted.
+	 * @return {@code this}
+	 * @throws InterruptedException When the waiting thread is interrupted while waiting
+	 * @see TaskOf#await()
+	 */
+	public DoubleTask await() throws InterruptedException;
+	/**
+	 * Waits until the task is done. Interrupts are ignored, but the interrupt flag remains set.
+	 * @return {@code this}
+	 * @see TaskOf#awaitUninterruptibly()
+	 */
+	public DoubleTask awaitUninterruptibly();
+	/**
+	 * Waits until the task is done, the waiting thread is interrupted or the timeout expires.
+	 * @param time The maximum time to wait
+	 * @param unit The {@link TimeUnit} for the time parameter
+	 * @return {@code this}
+	 * @throws InterruptedException When the waiting thread is interrupted while waiting
+	 * @throws TimeoutException When the timeout expires before the task was done
+	 * @see TaskOf#await(long, TimeUnit)
+	 */
+	public DoubleTask await(long time, TimeUnit unit) throws InterruptedException, TimeoutException;
+	/**
+	 * Waits until the task is done or the timeout expires. Interrupts are ignored, but the interrupt flag remains set.
+	 * @param time The maximum time to wait
+	 * @param unit The {@link TimeUnit} for the time parameter
+	 * @return {@code this}
+	 * @throws TimeoutException When the timeout expires before the task was done
+	 * @see TaskOf#awaitUninterruptibly(long, TimeUnit)
+	 */
+	public DoubleTask awaitUninterruptibly(long time, TimeUnit unit) throws TimeoutException;
+	/**
+	 * Waits until the task is done, the waiting thread is interrupted or the token is cancelled.
+	 * @param token The {@link CancellationToken} that can cancel the waiting
+	 * @return {@code this}
+	 * @throws InterruptedException When the waiting thread is interrupted while waiting
+	 * @throws CancellationException When the token was cancelled before the task was done
+	 * @see TaskOf#await(CancellationToken)
+	 */
+	public DoubleTask await(CancellationToken token) throws InterruptedException, CancellationException;
+	/**
+	 * Waits until the task is done or the token is cancelled. Interrupts are ignored, but the interrupt flag remains set.
+	 * @param token The {@link CancellationToken} that can cancel the waiting
+	 * @return {@code this}
+	 * @throws CancellationException When the token was cancelled before the task was done
+	 * @see TaskOf#awaitUninterruptibly(CancellationToken)
+	 */
+	public DoubleTask awaitUninterruptibly(CancellationToken token) throws CancellationException;
+
+	/**
+	 * Attempts to cancel the task.
+	 * @return The result of the cancellation attempt
+	 * @see TaskOf#cancel()
+	 */
+	public CancelResult cancel();
+
+	//State methods
+	/**
+	 * The state of the task.
+	 * @return The current {@link TaskState} of this task
+	 * @see TaskOf#getState()
+	 */
+	public TaskState getState();
+	/**
+	 * @return {@code true} if the task is currently running, {@code false} if not
+	 * @see TaskState#isRunning()
+	 */
+	public default boolean isRunning() {
+		return getState().isRunning();
+	}
+	/**
+	 * @return {@code true} if the task is done in any way, {@code false} if not
+	 * @see TaskState#isDone()
+	 */
+	public default boolean isDone() {
+		return getState().isDone();
+	}
+	/**
+	 * @return {@code true} if the task was successful, {@code false} otherwise
+	 * @see TaskState#isSuccess()
+	 */
+	public default boolean isSuccess() {
+		return getState().isSuccess();
+	}
+	/**
+	 * @return {@code true} if the task was cancelled, {@code false} otherwise
+	 * @see TaskState#isCancelled()
+	 */
+	public default boolean isCancelled() {
+		return getState().isCancelled();
+	}
+	/**
+	 * @return {@code true} if the task has failed, {@code false} otherwise
+	 * @see TaskState#isFailed()
+	 */
+	public default boolean isFailed() {
+		return getState().isFailed();
+	}
+
+	//Result methods
+	/**
+	 * Waits until the task is done or the waiting thread is interrupted and returns the
+	 * result of the task.
+	 * @return The result of the task, if the task was successful
+	 * @throws ExecutionException When the task has failed with an exception. That exception is
+	 * available through {@link ExecutionException#getCause()}.
+	 * @throws CancellationException When the task was cancelled before completion
+	 * @throws InterruptedException When the calling thread was interrupted while waiting
+	 */
+	public default double awaitAsDouble() throws ExecutionException, CancellationException, InterruptedException {
+		return await().getAsDouble();
+	}
+	/**
+	 * Gets the result of this task only if it is already completed.
+	 * @return The result of this task, if the task was successful
+	 * @throws ExecutionException When the task has failed with an exception. That exception is
+	 * available through {@link ExecutionException#getCause()}.
+	 * @throws CancellationException When the task was cancelled before completion
+	 * @throws TaskNotDoneException When the task is not done
+	 * @see TaskOf#getResult()
+	 */
+	public double getAsDouble() throws ExecutionException, CancellationException, TaskNotDoneException;
+	/**
+	 * Gets the result of this task immediately, or returns an alternate value
+	 * when no result is available.
+	 * @param value The value to be returned when the task is not yet complete, failed with an exception or cancelled
+	 * @return The result of the task, if the task was successful
+	 */
+	public double getAsDoubleOr(double value);
+
+	//Views
+	/**
+	 * The {@link Task} view of this task.
+	 * @return A {@link Task} for this task
+	 */
+	public Task task();
+	/**
+	 * A {@link TaskOf} view of this task. The result is boxed every time it is read through the view.
+	 * @return A {@link TaskOf} for this task
+	 */
+	public TaskOf<Double> boxed();
+
+	//Handlers
+	/**
+	 * Registers an action to be executed when the task is done.<br>
+	 * If the task is already done, the action is run immediately on the calling thread.
+	 * @param action The action that should run when the task is done
+	 * @return {@code this}
+	 */
+	public DoubleTask whenDone(Runnable action);
+	/**
+	 * Registers an action to be executed when the task completes successfully.<br>
+	 * If the task is already done, the action is run immediately on the calling thread.
+	 * @param action The action that should run with the result when the task succeeds
+	 * @return {@code this}
+	 */
+	public DoubleTask whenSuccess(DoubleConsumer action);
+	/**
+	 * Registers an action to be executed when the task fails.<br>
+	 * If the task is already done, the action is run immediately on the calling thread.
+	 * @param action The action that should run with the failure reason when the task fails
+	 * @return {@code this}
+	 */
+	public DoubleTask whenFailed(Consumer<? super Throwable> action);
+	/**
+	 * Registers an action to be executed when the task is cancelled.<br>
+	 * If the task is already done, the action is run immediately on the calling thread.
+	 * @param action The action that should run when the task is cancelled
+	 * @return {@code this}
+	 */
+	public DoubleTask whenCancelled(Runnable action);
+}
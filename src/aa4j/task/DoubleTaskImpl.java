@@ -0,0 +1,235 @@
+package aa4j.task;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ToDoubleFunction;
+
+import aa4j.TaskNotDoneException;
+import aa4j.task.MappedTask.ChainedCancellationRequest;
+
+/**
+ * The implementation of {@link DoubleTask} and the primitive operators for it.
+ */
+/*package*/ final class DoubleTaskImpl extends PrimitiveTask<Double, DoubleTaskImpl> implements DoubleTask {
+
+	private static final DoubleTaskImpl CANCELLED_SHARED = new DoubleTaskImpl(false).completedWith(SHARED_CANCELLATION);
+
+	private double value; //written after claim(), published by the outcome word
+
+	/*package*/ DoubleTaskImpl(boolean canCancel) {
+		super(canCancel);
+	}
+
+	/*package*/ DoubleTaskImpl(ChainedCancellationRequest upstream) {
+		super(upstream);
+	}
+
+	@Override
+	protected DoubleTaskImpl self() {
+		return this;
+	}
+
+	/*package*/ boolean succeedDouble(double result) {
+		if(!claim()) return false;
+		value = result;
+		return completeStored();
+	}
+
+	/**
+	 * @return This task if it was completed by this call, see {@link Completion#fire(Object)}
+	 */
+	private AbstractCompletionStageTask<?> setDouble(double result) {
+		if(!claim()) return null;
+		value = result;
+		return setStoredOutcome();
+	}
+
+	@Override
+	protected Double boxedValue() {
+		return value;
+	}
+
+	@Override
+	/*package*/ void acceptStored(Object action) {
+		((DoubleConsumer) action).accept(value);
+	}
+
+	/*package*/ DoubleTaskCompletionSource source() {
+		return new DoubleTaskCompletionSource() {
+			@Override
+			public boolean succeed(double value) {
+				return succeedDouble(value);
+			}
+
+			@Override
+			public boolean fail(Throwable exception) {
+				return failImpl(exception);
+			}
+
+			@Override
+			public DoubleTask task() {
+				return DoubleTaskImpl.this;
+			}
+		};
+	}
+
+	@Override
+	public double getAsDouble() throws ExecutionException, CancellationException, TaskNotDoneException {
+		final var ex = wrappedFailureReason(outcomeIfNotCancelled());
+		if(ex != null) throw ex;
+		return value;
+	}
+
+	@Override
+	public double getAsDoubleOr(double altValue) {
+		return outcomeImpl() == STORED_VALUE ? value : altValue;
+	}
+
+	@Override
+	public DoubleTask whenSuccess(DoubleConsumer action) {
+		whenStoredImpl(action);
+		return this;
+	}
+
+	/*
+	 * Operators
+	 */
+
+	/*package*/ static DoubleTaskImpl succeeded(double value) {
+		final var task = new DoubleTaskImpl(false);
+		task.succeedDouble(value);
+		return task;
+	}
+
+	/*package*/ static DoubleTaskImpl failed(Throwable reason) {
+		return new DoubleTaskImpl(false).completedWith(encodeFailure(reason));
+	}
+
+	/**
+	 * @return The shared cancelled task while {@link Tasks#isStacklessCancellation()} is enabled,
+	 * otherwise a new cancelled task with its own {@link CancellationException}
+	 */
+	/*package*/ static DoubleTaskImpl cancelled() {
+		if(Tasks.isStacklessCancellation()) return CANCELLED_SHARED;
+		return new DoubleTaskImpl(false).completedWith(encodeCancellation());
+	}
+
+	/**
+	 * Other implementations of {@link DoubleTask} are copied to an {@link DoubleTaskImpl}, so the operators can read the result field.
+	 */
+	private static DoubleTaskImpl of(DoubleTask task) {
+		if(task instanceof DoubleTaskImpl) return (DoubleTaskImpl) task;
+		final var copy = new DoubleTaskImpl(task::cancel);
+		task.whenDone(() -> {
+			if(task.isSuccess()) {
+				copy.succeedDouble(task.getAsDoubleOr(0));
+			} else {
+				copy.copyUnsuccessful(task.boxed());
+			}
+		});
+		return copy;
+	}
+
+	/**
+	 * @param executor Runs the mapping function, or {@code null} to run it on the thread that completes the source task.
+	 * Without an executor, a source task that is already done is mapped right away.
+	 */
+	/*package*/ static DoubleTask map(DoubleTask task, DoubleUnaryOperator mapFunc, Executor executor) {
+		final var source = of(task);
+		if(executor == null && source.isDoneImpl()) {
+			if(source.outcomeImpl() != STORED_VALUE) return new DoubleTaskImpl(false).completedWith(source.outcomeImpl());
+			try {
+				return succeeded(mapFunc.applyAsDouble(source.value));
+			} catch (Throwable ex) {
+				return failed(ex);
+			}
+		}
+		final var target = new DoubleTaskImpl(source::cancel);
+		source.push(new StoredCompletion(target, executor) {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fireStored() {
+				final double mapped;
+				try {
+					mapped = mapFunc.applyAsDouble(source.value);
+				} catch (Throwable ex) {
+					return fail(target, ex);
+				}
+				return target.setDouble(mapped);
+			}
+		});
+		return target;
+	}
+
+	/**
+	 * @param executor Runs the mapping function, or {@code null}, see {@link #map(DoubleTask, DoubleUnaryOperator, Executor)}
+	 */
+	/*package*/ static <R> TaskOf<R> mapToObj(DoubleTask task, DoubleFunction<? extends R> mapFunc, Executor executor) {
+		return mapStored(of(task), source -> mapFunc.apply(source.value), executor);
+	}
+
+	/*package*/ static <T> DoubleTask mapToDouble(TaskOf<T> task, ToDoubleFunction<? super T> mapFunc) {
+		final var target = new DoubleTaskImpl(task::cancel);
+		onDone(task, new Completion() {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+				if(!isSuccessOutcome(outcome)) return propagate(target, outcome);
+				final double mapped;
+				try {
+					mapped = mapFunc.applyAsDouble(decodeValue(outcome));
+				} catch (Throwable ex) {
+					return fail(target, ex);
+				}
+				return target.setDouble(mapped);
+			}
+		});
+		return target;
+	}
+
+	/**
+	 * @param executor Runs the function that starts the second task, or {@code null}, see {@link #map(DoubleTask, DoubleUnaryOperator, Executor)}
+	 */
+	/*package*/ static DoubleTask chain(DoubleTask task, DoubleFunction<? extends DoubleTask> chainedTask, Executor executor) {
+		final var source = of(task);
+		if(executor == null && source.isDoneImpl()) {
+			if(source.outcomeImpl() != STORED_VALUE) return new DoubleTaskImpl(false).completedWith(source.outcomeImpl());
+			try {
+				final var next = chainedTask.apply(source.value);
+				if(next == null) throw new NullPointerException("Chained task function returned null");
+				return next;
+			} catch (Throwable ex) {
+				return failed(ex);
+			}
+		}
+		final var cancellation = new ChainCancellation(source::cancel);
+		final var target = new DoubleTaskImpl(cancellation);
+		source.push(new StoredCompletion(target, executor) {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fireStored() {
+				if(!cancellation.enterStage2()) return propagate(target, encodeCancellation());
+				final DoubleTaskImpl task2;
+				try {
+					final var next = chainedTask.apply(source.value);
+					if(next == null) throw new NullPointerException("Chained task function returned null");
+					task2 = of(next);
+				} catch (Throwable ex) {
+					final var completed = fail(target, ex);
+					cancellation.stage2(target::fromDoneState); //Only valid after the outcome is set
+					return completed;
+				}
+				cancellation.stage2(task2::cancel);
+				task2.push(new Completion() {
+					@Override
+					/*package*/ AbstractCompletionStageTask<?> fire(Object outcome2) {
+						return outcome2 == STORED_VALUE ? target.setDouble(task2.value) : propagate(target, outcome2);
+					}
+				});
+				return null;
+			}
+		});
+		return target;
+	}
+}
@@ -0,0 +1,156 @@
+package aa4j.task;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A {@link TaskStream} that fetches its values with a function that returns a task for one value.
+ * <p>
+ * The function is only called again after the previous task is done. It is called when the consumer waits for a value,
+ * or when fewer than {@code prefetch} values are buffered, so the buffer never grows beyond that.
+ * </p>
+ * @param <T> The type of the values
+ */
+/*package*/ final class FetchingTaskStream<T> implements TaskStream<T> {
+
+	private static final Object END = AbstractCompletionStageTask.encodeValue(Optional.empty());
+
+	private final Supplier<? extends TaskOf<Optional<T>>> fetch;
+	private final int prefetch;
+	//All guarded by this
+	private final ArrayDeque<T> buffer;
+	private NonBlockingTask<Optional<T>> waiter; //The consumer waits for the next value
+	private boolean fetching; //Only one fetch runs at a time
+	private TaskOf<?> fetchTask; //The task of the running fetch, once the function returned it
+	private boolean pumping; //A thread is starting fetches
+	private Object end; //The encoded outcome that ended the stream, once it ended
+	private boolean closed;
+
+	/*package*/ FetchingTaskStream(Supplier<? extends TaskOf<Optional<T>>> fetch, int prefetch) {
+		this.fetch = fetch;
+		this.prefetch = prefetch;
+		this.buffer = new ArrayDeque<>(Math.max(prefetch, 1));
+	}
+
+	@Override
+	public TaskOf<Optional<T>> next() {
+		T value = null;
+		Object outcome = null;
+		NonBlockingTask<Optional<T>> waiting = null;
+		synchronized (this) {
+			if(!buffer.isEmpty()) {
+				value = buffer.poll();
+			} else if(end != null) {
+				outcome = end;
+			} else {
+				waiter = waiting = new NonBlockingTask<>(true);
+			}
+		}
+		pump();
+		if(value != null) return CompletedTask.success(Optional.of(value));
+		if(outcome != null) return CompletedTask.fromOutcome(outcome);
+		return waiting.taskOfView();
+	}
+
+	@Override
+	public boolean tryNext(Consumer<? super T> action) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		final T value;
+		synchronized (this) {
+			value = buffer.poll();
+		}
+		pump(); //Refill the buffer, or start fetching for the next call to next()
+		if(value == null) return false;
+		action.accept(value);
+		return true;
+	}
+
+	@Override
+	public void close() {
+		final NonBlockingTask<Optional<T>> waiting;
+		final TaskOf<?> running;
+		synchronized (this) {
+			if(closed) return;
+			closed = true;
+			if(end == null) end = END;
+			buffer.clear();
+			waiting = waiter;
+			waiter = null;
+			running = fetchTask;
+		}
+		if(waiting != null) waiting.completeWith(END);
+		if(running != null) running.cancel();
+	}
+
+	/**
+	 * Starts fetches until there is no more demand. Fetches that complete on this thread are handled
+	 * in the same loop instead of recursively.
+	 */
+	private void pump() {
+		synchronized (this) {
+			if(pumping) return; //That thread sees the state after our change
+			pumping = true;
+		}
+		while(true) {
+			synchronized (this) {
+				if(fetching || end != null || (waiter == null && buffer.size() >= prefetch)) {
+					pumping = false;
+					return;
+				}
+				fetching = true;
+			}
+			TaskOf<Optional<T>> task;
+			try {
+				task = Objects.requireNonNull(fetch.get(), "Fetch function returned null");
+			} catch (Throwable ex) {
+				task = CompletedTask.failure(ex);
+			}
+			final var fetched = task;
+			final boolean cancel;
+			synchronized (this) {
+				fetchTask = fetched;
+				cancel = closed;
+			}
+			if(cancel) fetched.cancel();
+			if(fetched.isDone()) {
+				fetched(fetched);
+			} else {
+				fetched.whenDone(() -> fetched(fetched));
+			}
+		}
+	}
+
+	private void fetched(TaskOf<Optional<T>> task) {
+		final var outcome = AbstractCompletionStageTask.doneOutcomeOf(task);
+		Optional<T> value = null;
+		Object delivered = outcome;
+		final NonBlockingTask<Optional<T>> waiting;
+		synchronized (this) {
+			fetching = false;
+			fetchTask = null;
+			if(closed) return;
+			if(AbstractCompletionStageTask.isSuccessOutcome(outcome)) {
+				value = AbstractCompletionStageTask.decodeValue(outcome);
+				if(value == null) delivered = AbstractCompletionStageTask.encodeFailure(
+						new NullPointerException("Fetch task succeeded with null instead of an Optional"));
+			}
+			if(value == null || value.isEmpty()) {
+				end = delivered; //Failed, cancelled or no more values
+				value = null;
+			} else if(waiter == null) {
+				buffer.add(value.get());
+			}
+			waiting = waiter; //Only set if there is no buffered value
+			waiter = null;
+		}
+		if(waiting != null && !waiting.completeWith(delivered) && value != null) {
+			synchronized (this) { //The consumer cancelled the wait, so the value is the next one
+				if(!closed) buffer.addFirst(value.get());
+			}
+		}
+		pump();
+	}
+}
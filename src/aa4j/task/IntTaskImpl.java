@@ -0,0 +1,250 @@
+package aa4j.task;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+import aa4j.TaskNotDoneException;
+import aa4j.task.MappedTask.ChainedCancellationRequest;
+
+/**
+ * The implementation of {@link IntTask} and the primitive operators for it.
+ */
+/*package*/ final class IntTaskImpl extends PrimitiveTask<Integer, IntTaskImpl> implements IntTask {
+
+	private static final int SMALL_MIN = -128;
+	private static final int SMALL_MAX = 127;
+	//Filled during class initialization, which publishes the tasks safely to all threads
+	private static final IntTaskImpl[] SUCCESS_SMALL = new IntTaskImpl[SMALL_MAX - SMALL_MIN + 1];
+	static {
+		for(int i = SMALL_MIN; i <= SMALL_MAX; i++) {
+			final var task = new IntTaskImpl(false);
+			task.succeedInt(i);
+			SUCCESS_SMALL[i - SMALL_MIN] = task;
+		}
+	}
+	private static final IntTaskImpl CANCELLED_SHARED = new IntTaskImpl(false).completedWith(SHARED_CANCELLATION);
+	
+	private int value; //written after claim(), published by the outcome word
+
+	/*package*/ IntTaskImpl(boolean canCancel) {
+		super(canCancel);
+	}
+
+	/*package*/ IntTaskImpl(ChainedCancellationRequest upstream) {
+		super(upstream);
+	}
+
+	@Override
+	protected IntTaskImpl self() {
+		return this;
+	}
+
+	/*package*/ boolean succeedInt(int result) {
+		if(!claim()) return false;
+		value = result;
+		return completeStored();
+	}
+
+	/**
+	 * @return This task if it was completed by this call, see {@link Completion#fire(Object)}
+	 */
+	private AbstractCompletionStageTask<?> setInt(int result) {
+		if(!claim()) return null;
+		value = result;
+		return setStoredOutcome();
+	}
+
+	@Override
+	protected Integer boxedValue() {
+		return value;
+	}
+
+	@Override
+	/*package*/ void acceptStored(Object action) {
+		((IntConsumer) action).accept(value);
+	}
+
+	/*package*/ IntTaskCompletionSource source() {
+		return new IntTaskCompletionSource() {
+			@Override
+			public boolean succeed(int value) {
+				return succeedInt(value);
+			}
+
+			@Override
+			public boolean fail(Throwable exception) {
+				return failImpl(exception);
+			}
+
+			@Override
+			public IntTask task() {
+				return IntTaskImpl.this;
+			}
+		};
+	}
+
+	@Override
+	public int getAsInt() throws ExecutionException, CancellationException, TaskNotDoneException {
+		final var ex = wrappedFailureReason(outcomeIfNotCancelled());
+		if(ex != null) throw ex;
+		return value;
+	}
+
+	@Override
+	public int getAsIntOr(int altValue) {
+		return outcomeImpl() == STORED_VALUE ? value : altValue;
+	}
+
+	@Override
+	public IntTask whenSuccess(IntConsumer action) {
+		whenStoredImpl(action);
+		return this;
+	}
+
+	/*
+	 * Operators
+	 */
+
+	/**
+	 * @return A successful task, shared for the values that {@link Integer#valueOf(int)} caches
+	 */
+	/*package*/ static IntTaskImpl succeeded(int value) {
+		if(value >= SMALL_MIN && value <= SMALL_MAX) return SUCCESS_SMALL[value - SMALL_MIN];
+		final var task = new IntTaskImpl(false);
+		task.succeedInt(value);
+		return task;
+	}
+
+	/*package*/ static IntTaskImpl failed(Throwable reason) {
+		return new IntTaskImpl(false).completedWith(encodeFailure(reason));
+	}
+
+	/**
+	 * @return The shared cancelled task while {@link Tasks#isStacklessCancellation()} is enabled,
+	 * otherwise a new cancelled task with its own {@link CancellationException}
+	 */
+	/*package*/ static IntTaskImpl cancelled() {
+		if(Tasks.isStacklessCancellation()) return CANCELLED_SHARED;
+		return new IntTaskImpl(false).completedWith(encodeCancellation());
+	}
+
+	/**
+	 * Other implementations of {@link IntTask} are copied to an {@link IntTaskImpl}, so the operators can read the result field.
+	 */
+	private static IntTaskImpl of(IntTask task) {
+		if(task instanceof IntTaskImpl) return (IntTaskImpl) task;
+		final var copy = new IntTaskImpl(task::cancel);
+		task.whenDone(() -> {
+			if(task.isSuccess()) {
+				copy.succeedInt(task.getAsIntOr(0));
+			} else {
+				copy.copyUnsuccessful(task.boxed());
+			}
+		});
+		return copy;
+	}
+
+	/**
+	 * @param executor Runs the mapping function, or {@code null} to run it on the thread that completes the source task.
+	 * Without an executor, a source task that is already done is mapped right away.
+	 */
+	/*package*/ static IntTask map(IntTask task, IntUnaryOperator mapFunc, Executor executor) {
+		final var source = of(task);
+		if(executor == null && source.isDoneImpl()) {
+			if(source.outcomeImpl() != STORED_VALUE) return new IntTaskImpl(false).completedWith(source.outcomeImpl());
+			try {
+				return succeeded(mapFunc.applyAsInt(source.value));
+			} catch (Throwable ex) {
+				return failed(ex);
+			}
+		}
+		final var target = new IntTaskImpl(source::cancel);
+		source.push(new StoredCompletion(target, executor) {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fireStored() {
+				final int mapped;
+				try {
+					mapped = mapFunc.applyAsInt(source.value);
+				} catch (Throwable ex) {
+					return fail(target, ex);
+				}
+				return target.setInt(mapped);
+			}
+		});
+		return target;
+	}
+
+	/**
+	 * @param executor Runs the mapping function, or {@code null}, see {@link #map(IntTask, IntUnaryOperator, Executor)}
+	 */
+	/*package*/ static <R> TaskOf<R> mapToObj(IntTask task, IntFunction<? extends R> mapFunc, Executor executor) {
+		return mapStored(of(task), source -> mapFunc.apply(source.value), executor);
+	}
+
+	/*package*/ static <T> IntTask mapToInt(TaskOf<T> task, ToIntFunction<? super T> mapFunc) {
+		final var target = new IntTaskImpl(task::cancel);
+		onDone(task, new Completion() {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+				if(!isSuccessOutcome(outcome)) return propagate(target, outcome);
+				final int mapped;
+				try {
+					mapped = mapFunc.applyAsInt(decodeValue(outcome));
+				} catch (Throwable ex) {
+					return fail(target, ex);
+				}
+				return target.setInt(mapped);
+			}
+		});
+		return target;
+	}
+
+	/**
+	 * @param executor Runs the function that starts the second task, or {@code null}, see {@link #map(IntTask, IntUnaryOperator, Executor)}
+	 */
+	/*package*/ static IntTask chain(IntTask task, IntFunction<? extends IntTask> chainedTask, Executor executor) {
+		final var source = of(task);
+		if(executor == null && source.isDoneImpl()) {
+			if(source.outcomeImpl() != STORED_VALUE) return new IntTaskImpl(false).completedWith(source.outcomeImpl());
+			try {
+				final var next = chainedTask.apply(source.value);
+				if(next == null) throw new NullPointerException("Chained task function returned null");
+				return next;
+			} catch (Throwable ex) {
+				return failed(ex);
+			}
+		}
+		final var cancellation = new ChainCancellation(source::cancel);
+		final var target = new IntTaskImpl(cancellation);
+		source.push(new StoredCompletion(target, executor) {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fireStored() {
+				if(!cancellation.enterStage2()) return propagate(target, encodeCancellation());
+				final IntTaskImpl task2;
+				try {
+					final var next = chainedTask.apply(source.value);
+					if(next == null) throw new NullPointerException("Chained task function returned null");
+					task2 = of(next);
+				} catch (Throwable ex) {
+					final var completed = fail(target, ex);
+					cancellation.stage2(target::fromDoneState); //Only valid after the outcome is set
+					return completed;
+				}
+				cancellation.stage2(task2::cancel);
+				task2.push(new Completion() {
+					@Override
+					/*package*/ AbstractCompletionStageTask<?> fire(Object outcome2) {
+						return outcome2 == STORED_VALUE ? target.setInt(task2.value) : propagate(target, outcome2);
+					}
+				});
+				return null;
+			}
+		});
+		return target;
+	}
+}
@@ -0,0 +1,27 @@
+package aa4j.task;
+
+/**
+ * This interface allows arbitrary completion of an {@link LongTask}
+ */
+public interface LongTaskCompletionSource {
+	/**
+	 * Completes the task with the provided value, if possible.
+	 * @param value The result value for the task
+	 * @return {@code true} if the call caused the task to succeed, {@code false} if the
+	 * task was already done when this method was called.
+	 */
+	public boolean succeed(long value);
+	/**
+	 * Fails the task with the provided exception, if possible.
+	 * @param exception The exception that causes the task to fail
+	 * @return {@code true} if the call caused the task to fail, {@code false}
+	 * if the task was already done when this method was called
+	 */
+	public boolean fail(Throwable exception);
+	/**
+	 * The task that will be completed by this completer.
+	 * @return The task for this completer
+	 */
+	public LongTask task();
+
+}
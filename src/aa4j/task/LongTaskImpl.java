@@ -0,0 +1,235 @@
+package aa4j.task;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToLongFunction;
+
+import aa4j.TaskNotDoneException;
+import aa4j.task.MappedTask.ChainedCancellationRequest;
+
+/**
+ * The implementation of {@link LongTask} and the primitive operators for it.
+ */
+/*package*/ final class LongTaskImpl extends PrimitiveTask<Long, LongTaskImpl> implements LongTask {
+
+	private static final LongTaskImpl CANCELLED_SHARED = new LongTaskImpl(false).completedWith(SHARED_CANCELLATION);
+
+	private long value; //written after claim(), published by the outcome word
+
+	/*package*/ LongTaskImpl(boolean canCancel) {
+		super(canCancel);
+	}
+
+	/*package*/ LongTaskImpl(ChainedCancellationRequest upstream) {
+		super(upstream);
+	}
+
+	@Override
+	protected LongTaskImpl self() {
+		return this;
+	}
+
+	/*package*/ boolean succeedLong(long result) {
+		if(!claim()) return false;
+		value = result;
+		return completeStored();
+	}
+
+	/**
+	 * @return This task if it was completed by this call, see {@link Completion#fire(Object)}
+	 */
+	private AbstractCompletionStageTask<?> setLong(long result) {
+		if(!claim()) return null;
+		value = result;
+		return setStoredOutcome();
+	}
+
+	@Override
+	protected Long boxedValue() {
+		return value;
+	}
+
+	@Override
+	/*package*/ void acceptStored(Object action) {
+		((LongConsumer) action).accept(value);
+	}
+
+	/*package*/ LongTaskCompletionSource source() {
+		return new LongTaskCompletionSource() {
+			@Override
+			public boolean succeed(long value) {
+				return succeedLong(value);
+			}
+
+			@Override
+			public boolean fail(Throwable exception) {
+				return failImpl(exception);
+			}
+
+			@Override
+			public LongTask task() {
+				return LongTaskImpl.this;
+			}
+		};
+	}
+
+	@Override
+	public long getAsLong() throws ExecutionException, CancellationException, TaskNotDoneException {
+		final var ex = wrappedFailureReason(outcomeIfNotCancelled());
+		if(ex != null) throw ex;
+		return value;
+	}
+
+	@Override
+	public long getAsLongOr(long altValue) {
+		return outcomeImpl() == STORED_VALUE ? value : altValue;
+	}
+
+	@Override
+	public LongTask whenSuccess(LongConsumer action) {
+		whenStoredImpl(action);
+		return this;
+	}
+
+	/*
+	 * Operators
+	 */
+
+	/*package*/ static LongTaskImpl succeeded(long value) {
+		final var task = new LongTaskImpl(false);
+		task.succeedLong(value);
+		return task;
+	}
+
+	/*package*/ static LongTaskImpl failed(Throwable reason) {
+		return new LongTaskImpl(false).completedWith(encodeFailure(reason));
+	}
+
+	/**
+	 * @return The shared cancelled task while {@link Tasks#isStacklessCancellation()} is enabled,
+	 * otherwise a new cancelled task with its own {@link CancellationException}
+	 */
+	/*package*/ static LongTaskImpl cancelled() {
+		if(Tasks.isStacklessCancellation()) return CANCELLED_SHARED;
+		return new LongTaskImpl(false).completedWith(encodeCancellation());
+	}
+
+	/**
+	 * Other implementations of {@link LongTask} are copied to an {@link LongTaskImpl}, so the operators can read the result field.
+	 */
+	private static LongTaskImpl of(LongTask task) {
+		if(task instanceof LongTaskImpl) return (LongTaskImpl) task;
+		final var copy = new LongTaskImpl(task::cancel);
+		task.whenDone(() -> {
+			if(task.isSuccess()) {
+				copy.succeedLong(task.getAsLongOr(0));
+			} else {
+				copy.copyUnsuccessful(task.boxed());
+			}
+		});
+		return copy;
+	}
+
+	/**
+	 * @param executor Runs the mapping function, or {@code null} to run it on the thread that completes the source task.
+	 * Without an executor, a source task that is already done is mapped right away.
+	 */
+	/*package*/ static LongTask map(LongTask task, LongUnaryOperator mapFunc, Executor executor) {
+		final var source = of(task);
+		if(executor == null && source.isDoneImpl()) {
+			if(source.outcomeImpl() != STORED_VALUE) return new LongTaskImpl(false).completedWith(source.outcomeImpl());
+			try {
+				return succeeded(mapFunc.applyAsLong(source.value));
+			} catch (Throwable ex) {
+				return failed(ex);
+			}
+		}
+		final var target = new LongTaskImpl(source::cancel);
+		source.push(new StoredCompletion(target, executor) {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fireStored() {
+				final long mapped;
+				try {
+					mapped = mapFunc.applyAsLong(source.value);
+				} catch (Throwable ex) {
+					return fail(target, ex);
+				}
+				return target.setLong(mapped);
+			}
+		});
+		return target;
+	}
+
+	/**
+	 * @param executor Runs the mapping function, or {@code null}, see {@link #map(LongTask, LongUnaryOperator, Executor)}
+	 */
+	/*package*/ static <R> TaskOf<R> mapToObj(LongTask task, LongFunction<? extends R> mapFunc, Executor executor) {
+		return mapStored(of(task), source -> mapFunc.apply(source.value), executor);
+	}
+
+	/*package*/ static <T> LongTask mapToLong(TaskOf<T> task, ToLongFunction<? super T> mapFunc) {
+		final var target = new LongTaskImpl(task::cancel);
+		onDone(task, new Completion() {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+				if(!isSuccessOutcome(outcome)) return propagate(target, outcome);
+				final long mapped;
+				try {
+					mapped = mapFunc.applyAsLong(decodeValue(outcome));
+				} catch (Throwable ex) {
+					return fail(target, ex);
+				}
+				return target.setLong(mapped);
+			}
+		});
+		return target;
+	}
+
+	/**
+	 * @param executor Runs the function that starts the second task, or {@code null}, see {@link #map(LongTask, LongUnaryOperator, Executor)}
+	 */
+	/*package*/ static LongTask chain(LongTask task, LongFunction<? extends LongTask> chainedTask, Executor executor) {
+		final var source = of(task);
+		if(executor == null && source.isDoneImpl()) {
+			if(source.outcomeImpl() != STORED_VALUE) return new LongTaskImpl(false).completedWith(source.outcomeImpl());
+			try {
+				final var next = chainedTask.apply(source.value);
+				if(next == null) throw new NullPointerException("Chained task function returned null");
+				return next;
+			} catch (Throwable ex) {
+				return failed(ex);
+			}
+		}
+		final var cancellation = new ChainCancellation(source::cancel);
+		final var target = new LongTaskImpl(cancellation);
+		source.push(new StoredCompletion(target, executor) {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fireStored() {
+				if(!cancellation.enterStage2()) return propagate(target, encodeCancellation());
+				final LongTaskImpl task2;
+				try {
+					final var next = chainedTask.apply(source.value);
+					if(next == null) throw new NullPointerException("Chained task function returned null");
+					task2 = of(next);
+				} catch (Throwable ex) {
+					final var completed = fail(target, ex);
+					cancellation.stage2(target::fromDoneState); //Only valid after the outcome is set
+					return completed;
+				}
+				cancellation.stage2(task2::cancel);
+				task2.push(new Completion() {
+					@Override
+					/*package*/ AbstractCompletionStageTask<?> fire(Object outcome2) {
+						return outcome2 == STORED_VALUE ? target.setLong(task2.value) : propagate(target, outcome2);
+					}
+				});
+				return null;
+			}
+		});
+		return target;
+	}
+}
@@ -1,23 +1,92 @@
 package aa4j.task;
 
-import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 /**
- * A task that has no completion logic on its own, it completes through another completion stage
+ * A task that has no completion logic on its own, it completes when the source task completes
  * @param <T> Result type
  */
 class MappedTask<T> extends AbstractCompletionStageTask<T> {
 
-	private final ChainedCancellationRequest ccrq;
+	private final ChainedCancellationRequest source;
 	
-	protected MappedTask(CompletionStage<T> mappedStage, ChainedCancellationRequest ccrq) {
-		super(mappedStage);
-		this.ccrq = ccrq;
+	/**
+	 * @param source Cancels the source task
+	 */
+	/*package*/ MappedTask(ChainedCancellationRequest source) {
+		this.source = source;
 	}
 
 	@Override
 	protected CancelResult cancelImpl() {
-		return ccrq.cancel();
+		if(isDoneImpl()) return fromDoneState(); //The mapping function can fail even if the source succeeded
+		return source.cancel();
+	}
+	
+	/**
+	 * Creates a task that completes with the mapped result of the source task, or with the same
+	 * failure or cancellation as the source task.
+	 * @param executor Runs the mapping function, or {@code null} to run it on the thread that completes the source task
+	 */
+	protected static <U, T> MappedTask<T> create(TaskOf<U> source, Function<? super U, ? extends T> mapFunc, Executor executor) {
+		final var task = new MappedTask<T>(source::cancel);
+		onDone(source, new MapCompletion<>(task, mapFunc, executor));
+		return task;
+	}
+	
+	/**
+	 * Maps a source task that is already done. No task is created that would complete right away: The result is
+	 * a completed task with the mapped value, or with the same failure or cancellation as the source task.
+	 */
+	protected static <U, T> TaskOf<T> mapDone(TaskOf<U> source, Function<? super U, ? extends T> mapFunc) {
+		final var outcome = doneOutcomeOf(source);
+		if(isSuccessOutcome(outcome)) {
+			try {
+				return CompletedTask.success(mapFunc.apply(decodeValue(outcome)));
+			} catch (Throwable ex) {
+				return CompletedTask.failure(ex);
+			}
+		}
+		return CompletedTask.fromOutcome(outcome);
+	}
+	
+	private static final class MapCompletion<U, T> extends Completion {
+		private final MappedTask<T> task;
+		private final Function<? super U, ? extends T> mapFunc;
+		private final Executor executor;
+		
+		private MapCompletion(MappedTask<T> task, Function<? super U, ? extends T> mapFunc, Executor executor) {
+			this.task = task;
+			this.mapFunc = mapFunc;
+			this.executor = executor;
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+			Object mapped;
+			if(isSuccessOutcome(outcome)) {
+				try {
+					mapped = encodeValue(mapFunc.apply(decodeValue(outcome)));
+				} catch (Throwable ex) {
+					mapped = encodeFailure(ex);
+				}
+			} else { //Failures and cancellation are immutable and can be shared
+				mapped = outcome;
+			}
+			return task.setOutcome(mapped) ? task : null;
+		}
+
+		@Override
+		/*package*/ Executor executorFor(Object outcome) {
+			return isSuccessOutcome(outcome) ? executor : null; //Only the mapping function needs the executor
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> rejected(RejectedExecutionException ex) {
+			return task.setOutcome(encodeFailure(ex)) ? task : null;
+		}
 	}
 	
 	@FunctionalInterface
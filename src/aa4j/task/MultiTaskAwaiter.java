@@ -0,0 +1,195 @@
+package aa4j.task;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import aa4j.Awaiter;
+import aa4j.WaitStrategy;
+
+/**
+ * Lets a thread wait for many tasks at once. Every task gets the same completion handler,
+ * which counts down (all) or records the first task (any) and signals a single shared {@link Awaiter}.
+ * The waiting thread only ever waits on that awaiter, no matter how many tasks there are.
+ */
+/*package*/ abstract class MultiTaskAwaiter {
+
+	private static final Runnable NOOP = () -> {};
+
+	protected final Awaiter awaiter;
+	private final WaitStrategy strategy;
+
+	/**
+	 * @param strategy The {@link WaitStrategy} to use, or {@code null} for {@link Tasks#defaultWaitStrategy()}
+	 */
+	private MultiTaskAwaiter(WaitStrategy strategy) {
+		this.strategy = strategy != null ? strategy : Tasks.defaultWaitStrategy();
+		this.awaiter = new Awaiter(this.strategy);
+	}
+
+	/**
+	 * Waits for the awaiter to be signalled.
+	 * @param time The time to wait, or a negative value to not use a timeout
+	 * @param unit The unit of the time value, or {@code null} to not use a timeout
+	 * @param token An unbound token, or {@code null} to not use a token
+	 * @param interruptible Whether the thread can be interrupted
+	 */
+	protected void waitForSignal(long time, TimeUnit unit, CancellationToken token, boolean interruptible)
+			throws InterruptedException, TimeoutException, CancellationException {
+		if(token != null) {
+			token.assignAction(() -> awaiter.signalAll(token),
+					() -> new IllegalArgumentException("Token is already bound to an action"));
+		}
+		final var cause = awaiter.await(token, time, unit, interruptible, strategy);
+		if(token != null && cause == token) throw new CancellationException("Token was cancelled before the tasks completed");
+	}
+
+	/**
+	 * Waits until all tasks are done.
+	 * @param tasks The tasks, not null
+	 * @param time The time to wait, or a negative value to not use a timeout
+	 * @param unit The unit of the time value, or {@code null} to not use a timeout
+	 * @param token An unbound token, or {@code null} to not use a token
+	 * @param interruptible Whether the thread can be interrupted
+	 * @param strategy The {@link WaitStrategy} to use, or {@code null} for {@link Tasks#defaultWaitStrategy()}
+	 */
+	/*package*/ static void awaitAll(Collection<? extends TaskOf<?>> tasks, long time, TimeUnit unit,
+			CancellationToken token, boolean interruptible, WaitStrategy strategy) throws InterruptedException, TimeoutException, CancellationException {
+		Objects.requireNonNull(tasks, "'tasks' parameter must not be null");
+
+		//Fast path when everything is done already, without allocation for RandomAccess lists
+		if(allDone(tasks)) {
+			if(token != null) token.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
+			return;
+		}
+
+		final var all = new AllOf(strategy);
+		var registrations = new Registration[tasks.size()]; //Grows only if the collection grows while registering
+		try {
+			int count = 0;
+			for(var task : tasks) {
+				if(!task.isDone()) {
+					all.remaining.incrementAndGet();
+					if(count == registrations.length) registrations = Arrays.copyOf(registrations, count * 2 + 1);
+					registrations[count++] = task.registerWhenDone(all);
+				}
+			}
+			all.run(); //Release the guard count, this signals if all tasks completed during registration
+			all.waitForSignal(time, unit, token, interruptible);
+		} finally {
+			closeAll(registrations); //Tasks that are still pending after a timeout, interrupt or cancellation keep no handler
+		}
+	}
+
+	/**
+	 * Waits until any of the tasks is done.
+	 * @param <T> The type of the tasks
+	 * @param tasks The tasks, not null or empty
+	 * @param time The time to wait, or a negative value to not use a timeout
+	 * @param unit The unit of the time value, or {@code null} to not use a timeout
+	 * @param token An unbound token, or {@code null} to not use a token
+	 * @param interruptible Whether the thread can be interrupted
+	 * @param strategy The {@link WaitStrategy} to use, or {@code null} for {@link Tasks#defaultWaitStrategy()}
+	 * @return The first task that was found to be done
+	 */
+	/*package*/ static <T extends TaskOf<?>> T awaitAny(Collection<? extends T> tasks, long time, TimeUnit unit,
+			CancellationToken token, boolean interruptible, WaitStrategy strategy) throws InterruptedException, TimeoutException, CancellationException {
+		Objects.requireNonNull(tasks, "'tasks' parameter must not be null");
+		if(tasks.isEmpty()) throw new IllegalArgumentException("'tasks' parameter must not be empty");
+
+		//Fast path when something is done already, without allocation for RandomAccess lists
+		final T done = firstDone(tasks);
+		if(done != null) {
+			if(token != null) token.assignAction(NOOP, () -> new IllegalArgumentException("Token is already bound to an action"));
+			return done;
+		}
+
+		final var any = new AnyOf<T>(strategy);
+		var registrations = new Registration[tasks.size()]; //Grows only if the collection grows while registering
+		try {
+			int count = 0;
+			for(var task : tasks) {
+				if(any.first.get() != null) break; //No need to register on the rest
+				if(count == registrations.length) registrations = Arrays.copyOf(registrations, count * 2 + 1);
+				registrations[count++] = task.registerWhenDone(any.handlerFor(task));
+			}
+			any.waitForSignal(time, unit, token, interruptible);
+			return any.first.get();
+		} finally {
+			closeAll(registrations); //The tasks that did not complete first keep no handler
+		}
+	}
+
+	private static void closeAll(Registration[] registrations) {
+		for(var registration : registrations) {
+			if(registration == null) return; //The array is filled from the start
+			registration.close();
+		}
+	}
+
+	private static boolean allDone(Collection<? extends TaskOf<?>> tasks) {
+		if(tasks instanceof RandomAccess && tasks instanceof List) {
+			final var list = (List<? extends TaskOf<?>>) tasks;
+			for(int i = 0, size = list.size(); i < size; i++) {
+				if(!list.get(i).isDone()) return false;
+			}
+			return true;
+		}
+		for(var task : tasks) {
+			if(!task.isDone()) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return The first task in iteration order that is done, or {@code null} if none is done
+	 */
+	private static <T extends TaskOf<?>> T firstDone(Collection<? extends T> tasks) {
+		if(tasks instanceof RandomAccess && tasks instanceof List) {
+			final var list = (List<? extends T>) tasks;
+			for(int i = 0, size = list.size(); i < size; i++) {
+				final T task = list.get(i);
+				if(task.isDone()) return task;
+			}
+			return null;
+		}
+		for(var task : tasks) {
+			if(task.isDone()) return task;
+		}
+		return null;
+	}
+
+	private static final class AllOf extends MultiTaskAwaiter implements Runnable {
+		private final AtomicInteger remaining = new AtomicInteger(1); //One guard count, released after registration
+
+		private AllOf(WaitStrategy strategy) {
+			super(strategy);
+		}
+
+		@Override
+		public void run() {
+			if(remaining.decrementAndGet() == 0) awaiter.signalAll(Awaiter.MASTER_PERMIT);
+		}
+	}
+
+	private static final class AnyOf<T> extends MultiTaskAwaiter {
+		private final AtomicReference<T> first = new AtomicReference<>(null);
+
+		private AnyOf(WaitStrategy strategy) {
+			super(strategy);
+		}
+
+		private Runnable handlerFor(T task) {
+			return () -> {
+				if(first.compareAndSet(null, task)) awaiter.signalAll(Awaiter.MASTER_PERMIT);
+			};
+		}
+	}
+}
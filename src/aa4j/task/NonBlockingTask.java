@@ -1,7 +1,11 @@
 package aa4j.task;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Objects;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Future;
 
@@ -11,72 +15,100 @@ import java.util.concurrent.Future;
  */
 /*package*/ final class NonBlockingTask<T> extends AbstractCompletionStageTask<T> implements TaskAccess<T> {
 	
-	private final TaskCompletionSource tcsView;
-	private final TaskCompletionSourceOf<T> tcsOfView;
+	private static final VarHandle TCS_VIEW;
+	private static final VarHandle TCS_OF_VIEW;
+	static {
+		try {
+			final var lookup = MethodHandles.lookup();
+			TCS_VIEW = lookup.findVarHandle(NonBlockingTask.class, "tcsView", TaskCompletionSource.class);
+			TCS_OF_VIEW = lookup.findVarHandle(NonBlockingTask.class, "tcsOfView", TaskCompletionSourceOf.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	
+	private volatile TaskCompletionSource tcsView; //created on first use
+	private volatile TaskCompletionSourceOf<T> tcsOfView; //created on first use
 	private final boolean isCancellable;
+	private final CompletableFuture<T> source; //null if the task is not driven by an existing stage
+	
+	protected NonBlockingTask(Runnable cancellationHandler) {
+		this(true);
+		whenCancelledImpl(Objects.requireNonNull(cancellationHandler), null);
+	}
 	
-	protected NonBlockingTask(CompletionStage<T> usedCpf, Runnable cancellationHandler) {
-		this(usedCpf, true);
-		Objects.requireNonNull(cancellationHandler);
-		stage.whenComplete(whenCancelledImpl(cancellationHandler));
+	protected NonBlockingTask(boolean canCancel) {
+		this.isCancellable = canCancel;
+		this.source = null;
 	}
 	
-	protected NonBlockingTask(CompletionStage<T> usedCpf, boolean canCancel) {
-		super(usedCpf);
+	protected NonBlockingTask(CompletionStage<T> source, boolean canCancel) {
 		this.isCancellable = canCancel;
-		this.tcsView = new TCS();
-		this.tcsOfView = new TCSOf();
+		this.source = source.toCompletableFuture();
+		//The stage completes the task, whoever completes the stage
+		this.source.whenComplete((value, ex) -> {
+			if(ex == null) {
+				succeedImpl(value);
+			} else {
+				final var cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+				if(cause instanceof CancellationException) {
+					cancelledImpl();
+				} else {
+					failImpl(cause);
+				}
+			}
+		});
 	}
 
 	@Override
 	protected CancelResult cancelImpl() {
 		if(isCancellable) { //The easy case. We can cancel whenever
-			if(stage.completeExceptionally(new CancellationException())) {
+			if(cancelledImpl()) {
+				if(source != null) source.cancel(false);
 				return CancelResult.SUCCESSFULLY_CANCELLED;
 			} else { //It better be done then
 				return fromDoneState();
 			}
 		} else { //cannot even try to cancel, either unable or already 
-			return getStateImpl().isDone() ? fromDoneState() : CancelResult.UNABLE_TO_CANCEL;
+			return isDoneImpl() ? fromDoneState() : CancelResult.UNABLE_TO_CANCEL;
 		}
 	}
 
-	protected boolean succeedImpl(T value) {
-		return stage.complete(value);
-	}
-	
-	protected boolean failImpl(Throwable ex) {
-		return stage.completeExceptionally(wrapFailureReason(ex));
+	@Override
+	protected CompletionStage<T> stageView() {
+		return source != null ? source : super.stageView();
 	}
 	
 	@Override
 	public TaskOf<T> taskOf() {
-		return taskOfView;
+		return taskOfView();
 	}
 
 	@Override
 	public Task task() {
-		return taskView;
+		return taskView();
 	}
 
 	@Override
 	public TaskCompletionSourceOf<T> tcsOf() {
-		return tcsOfView;
+		final var view = tcsOfView;
+		return view != null ? view : lazyInit(TCS_OF_VIEW, new TCSOf());
 	}
 
 	@Override
 	public TaskCompletionSource tcs() {
-		return tcsView;
+		final var view = tcsView;
+		return view != null ? view : lazyInit(TCS_VIEW, new TCS());
 	}
 
 	@Override
 	public CompletionStage<T> stage() {
-		return stage;
+		return stageView();
 	}
 
 	@Override
 	public Future<T> future() {
-		return futureView;
+		return futureView();
 	}
 
 	@Override
@@ -100,7 +132,7 @@ import java.util.concurrent.Future;
 
 		@Override
 		public Task task() {
-			return taskView;
+			return taskView();
 		}
 		
 	}
@@ -119,7 +151,7 @@ import java.util.concurrent.Future;
 
 		@Override
 		public TaskOf<T> taskOf() {
-			return taskOfView;
+			return taskOfView();
 		}
 		
 	}
@@ -0,0 +1,111 @@
+package aa4j.task;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * A task that applies a function to every element of an array on an executor.
+ * <p>
+ * The elements are split into a few chunks per worker. At most {@code maxConcurrency} workers are submitted,
+ * and each of them claims chunks until none are left, so there is no task or executor submission per element.
+ * Results are written to a presized array. The first failure completes the task, and cancelling it stops
+ * all workers after their current element.
+ * </p>
+ * @param <T> The result type of the task
+ */
+/*package*/ final class ParallelTask<T> extends AbstractCompletionStageTask<T> {
+
+	private static final VarHandle NEXT_CHUNK;
+	private static final VarHandle REMAINING;
+	static {
+		try {
+			final var lookup = MethodHandles.lookup();
+			NEXT_CHUNK = lookup.findVarHandle(ParallelTask.class, "nextChunk", int.class);
+			REMAINING = lookup.findVarHandle(ParallelTask.class, "remaining", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static final int CHUNKS_PER_WORKER = 4; //Workers that finish early can take over some of the work
+
+	private final Object[] elements;
+	private final Function<Object, Object> function;
+	private final Object[] values; //null if the results are discarded
+	private final int chunks;
+	private volatile int nextChunk;
+	private volatile int remaining; //chunks that are not done
+
+	private ParallelTask(Object[] elements, Function<Object, Object> function, boolean keepValues, int maxConcurrency) {
+		this.elements = elements;
+		this.function = function;
+		this.values = keepValues ? new Object[elements.length] : null;
+		this.chunks = (int) Math.min(elements.length, (long) maxConcurrency * CHUNKS_PER_WORKER);
+		this.nextChunk = 0;
+		this.remaining = chunks;
+	}
+
+	/**
+	 * Submits the workers. A rejected worker fails the task.
+	 */
+	private ParallelTask<T> start(int maxConcurrency, Executor executor) {
+		if(chunks == 0) {
+			completeWith(encodeValue(values == null ? null : Collections.emptyList()));
+			return this;
+		}
+		final int workers = Math.min(maxConcurrency, chunks);
+		for(int i = 0; i < workers && !isDoneImpl(); i++) {
+			try {
+				executor.execute(this::work);
+			} catch (RejectedExecutionException ex) {
+				failImpl(ex);
+			}
+		}
+		return this;
+	}
+
+	@SuppressWarnings("unchecked")
+	/*package*/ static <T, R> ParallelTask<List<R>> map(Object[] elements, Function<? super T, ? extends R> mapFunc,
+			int maxConcurrency, Executor executor) {
+		return new ParallelTask<List<R>>(elements, (Function<Object, Object>) mapFunc, true, maxConcurrency)
+				.start(maxConcurrency, executor);
+	}
+
+	/*package*/ static ParallelTask<Void> forEach(Object[] elements, Function<Object, Object> action,
+			int maxConcurrency, Executor executor) {
+		return new ParallelTask<Void>(elements, action, false, maxConcurrency).start(maxConcurrency, executor);
+	}
+
+	@Override
+	protected CancelResult cancelImpl() {
+		return cancelledImpl() ? CancelResult.SUCCESSFULLY_CANCELLED : fromDoneState();
+	}
+
+	private void work() {
+		int chunk;
+		while((chunk = (int) NEXT_CHUNK.getAndAdd(this, 1)) < chunks) {
+			final int from = (int) ((long) elements.length * chunk / chunks);
+			final int to = (int) ((long) elements.length * (chunk + 1) / chunks);
+			for(int i = from; i < to; i++) {
+				if(isDoneImpl()) return; //Failed or cancelled
+				try {
+					final var value = function.apply(elements[i]);
+					if(values != null) values[i] = value;
+				} catch (Throwable ex) {
+					failImpl(ex);
+					return;
+				}
+			}
+			//The full fence of the countdown publishes the array elements to the worker that completes the task
+			if((int) REMAINING.getAndAdd(this, -1) == 1) {
+				completeWith(encodeValue(values == null ? null : Collections.unmodifiableList(Arrays.asList(values))));
+			}
+		}
+	}
+}
@@ -0,0 +1,345 @@
+package aa4j.task;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import aa4j.task.MappedTask.ChainedCancellationRequest;
+
+/**
+ * Base class for the tasks with a primitive result ({@link IntTask}, {@link LongTask}, {@link DoubleTask}).
+ * <p>
+ * The result is kept in a primitive field of the subclass, and a successful task completes with the
+ * {@link #STORED_VALUE} marker. Only the thread that {@link #claim()}s the task writes the field, before it publishes
+ * the marker, so every thread that sees the marker also sees the result. The result is only boxed for the generic views
+ * and for generic dependent tasks.
+ * </p>
+ * <p>
+ * The methods that are the same for all primitive task interfaces are implemented here and return the subclass,
+ * so the subclass only adds the methods that use its primitive type.
+ * </p>
+ * @param <T> The boxed result type
+ * @param <P> The subclass
+ */
+/*package*/ abstract class PrimitiveTask<T, P extends PrimitiveTask<T, P>> extends AbstractCompletionStageTask<T> {
+
+	private static final VarHandle CLAIMED;
+	static {
+		try {
+			CLAIMED = MethodHandles.lookup().findVarHandle(PrimitiveTask.class, "claimed", boolean.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private volatile boolean claimed;
+	private final ChainedCancellationRequest upstream; //null if the task is completed by a completion source
+	private final boolean isCancellable;
+
+	/**
+	 * Creates a task that is completed by a completion source.
+	 * @param canCancel Whether {@link #cancelImpl()} can cancel the task
+	 */
+	protected PrimitiveTask(boolean canCancel) {
+		this.upstream = null;
+		this.isCancellable = canCancel;
+	}
+
+	/**
+	 * Creates a task that depends on other tasks.
+	 * @param upstream Cancels the tasks that this task depends on
+	 */
+	protected PrimitiveTask(ChainedCancellationRequest upstream) {
+		this.upstream = upstream;
+		this.isCancellable = false;
+	}
+
+	/**
+	 * @return This task
+	 */
+	protected abstract P self();
+
+	@Override
+	protected CancelResult cancelImpl() {
+		if(isDoneImpl()) return fromDoneState();
+		if(upstream != null) return upstream.cancel();
+		if(!isCancellable) return CancelResult.UNABLE_TO_CANCEL;
+		return cancelledImpl() ? CancelResult.SUCCESSFULLY_CANCELLED : fromDoneState();
+	}
+
+	public P await() throws InterruptedException {
+		awaitImpl();
+		return self();
+	}
+
+	public P awaitUninterruptibly() {
+		awaitUninterruptiblyImpl();
+		return self();
+	}
+
+	public P await(long time, TimeUnit unit) throws InterruptedException, TimeoutException {
+		awaitImpl(time, unit);
+		return self();
+	}
+
+	public P awaitUninterruptibly(long time, TimeUnit unit) throws TimeoutException {
+		awaitUninterruptiblyImpl(time, unit);
+		return self();
+	}
+
+	public P await(CancellationToken token) throws InterruptedException, CancellationException {
+		awaitImpl(token);
+		return self();
+	}
+
+	public P awaitUninterruptibly(CancellationToken token) throws CancellationException {
+		awaitUninterruptiblyImpl(token);
+		return self();
+	}
+
+	public CancelResult cancel() {
+		return cancelImpl();
+	}
+
+	public TaskState getState() {
+		return getStateImpl();
+	}
+
+	public Task task() {
+		return taskView();
+	}
+
+	public TaskOf<T> boxed() {
+		return taskOfView();
+	}
+
+	public P whenDone(Runnable action) {
+		whenDoneImpl(action, null);
+		return self();
+	}
+
+	public P whenFailed(Consumer<? super Throwable> action) {
+		whenFailedImpl(action, null);
+		return self();
+	}
+
+	public P whenCancelled(Runnable action) {
+		whenCancelledImpl(action, null);
+		return self();
+	}
+
+	/**
+	 * Completes this task with an outcome of another task. Used for new tasks that are done right away.
+	 * @param outcome A failed or cancelled outcome, or {@link #SHARED_CANCELLATION}
+	 * @return This task
+	 */
+	/*package*/ P completedWith(Object outcome) {
+		completeWith(outcome);
+		return self();
+	}
+
+	/**
+	 * Completes a copy of another implementation of a primitive task interface, if the other task did not succeed.
+	 * @param foreign The boxed view of the other task, which is done
+	 */
+	/*package*/ void copyUnsuccessful(TaskOf<T> foreign) {
+		completeWith(outcomeOf(foreign));
+	}
+
+	/**
+	 * Reserves the result field for the calling thread. The result must be written and then published with
+	 * {@link #completeStored()} or {@link #setStoredOutcome()}.
+	 * @return {@code true} if the calling thread may write the result field, {@code false} if another thread
+	 * already completes the task with a result
+	 */
+	protected boolean claim() {
+		return CLAIMED.compareAndSet(this, false, true);
+	}
+
+	/**
+	 * Publishes the result that was written after {@link #claim()}. This can still fail if the task was
+	 * cancelled or failed in the meantime.
+	 * @return {@code true} if this call completed the task, {@code false} if it was already done
+	 */
+	protected boolean completeStored() {
+		return completeWith(STORED_VALUE);
+	}
+
+	/**
+	 * Like {@link #completeStored()}, but for {@link Completion} nodes.
+	 * @return This task if it was completed by this call, see {@link Completion#fire(Object)}
+	 */
+	protected AbstractCompletionStageTask<?> setStoredOutcome() {
+		return setOutcome(STORED_VALUE) ? this : null;
+	}
+
+	/**
+	 * @return The boxed result. Only valid after {@link #STORED_VALUE} was observed.
+	 */
+	protected abstract T boxedValue();
+
+	@Override
+	protected T valueOf(Object outcome) {
+		return outcome == STORED_VALUE ? boxedValue() : super.valueOf(outcome);
+	}
+
+	@Override
+	/*package*/ Completion pushDecoding(Completion node) {
+		final var decoding = new Completion() {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+				return node.fire(decode(outcome));
+			}
+
+			@Override
+			/*package*/ Executor executorFor(Object outcome) {
+				return node.executorFor(decode(outcome));
+			}
+
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> rejected(RejectedExecutionException ex) {
+				return node.rejected(ex);
+			}
+
+			@Override
+			/*package*/ boolean isLive() {
+				return node.isLive();
+			}
+
+			private Object decode(Object outcome) {
+				return outcome == STORED_VALUE ? encodeValue(boxedValue()) : outcome;
+			}
+		};
+		push(decoding);
+		return decoding;
+	}
+
+	/**
+	 * Adds a handler that runs only if the task succeeds. The action is passed to {@link #acceptStored(Object)},
+	 * which calls it with the primitive result.
+	 * @param action The primitive consumer
+	 */
+	protected void whenStoredImpl(Object action) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		listen(new StoredListener(action));
+	}
+
+	/**
+	 * Calls a primitive consumer with the result. Only called after the task succeeded.
+	 * @param action The action passed to {@link #whenStoredImpl(Object)}
+	 */
+	/*package*/ abstract void acceptStored(Object action);
+
+	/**
+	 * A listener for a primitive consumer, which reads the result field instead of a boxed value.
+	 */
+	private final class StoredListener extends Listener {
+		private StoredListener(Object action) {
+			super(ON_SUCCESS, action, null);
+		}
+
+		@Override
+		/*package*/ void invoke(Object action, Object outcome) {
+			acceptStored(action);
+		}
+	}
+
+	/**
+	 * Maps the result of a primitive task to an object, with the same fast path and executor handling
+	 * as {@link Tasks#map(TaskOf, Function, Executor)}.
+	 * @param source The task to map
+	 * @param mapFunc Reads the result field of the source task and applies the mapping function
+	 * @param executor Runs the mapping function, or {@code null} to run it on the thread that completes the source task
+	 */
+	/*package*/ static <P extends PrimitiveTask<?, P>, R> TaskOf<R> mapStored(P source, Function<? super P, ? extends R> mapFunc, Executor executor) {
+		if(executor == null && source.isDoneImpl()) {
+			final var outcome = source.outcomeImpl();
+			if(outcome != STORED_VALUE) return CompletedTask.fromOutcome(outcome);
+			try {
+				return CompletedTask.success(mapFunc.apply(source));
+			} catch (Throwable ex) {
+				return CompletedTask.failure(ex);
+			}
+		}
+		final var target = new MappedTask<R>(source::cancel);
+		source.push(new StoredCompletion(target, executor) {
+			@Override
+			/*package*/ AbstractCompletionStageTask<?> fireStored() {
+				Object mapped;
+				try {
+					mapped = encodeValue(mapFunc.apply(source));
+				} catch (Throwable ex) {
+					mapped = encodeFailure(ex);
+				}
+				return propagate(target, mapped);
+			}
+		});
+		return target.taskOfView();
+	}
+
+	/**
+	 * A node that runs a function with the result field of a primitive task, on an executor if one was given.
+	 * Failures and cancellation are passed on to the dependent task without the executor.
+	 */
+	/*package*/ static abstract class StoredCompletion extends Completion {
+		private final AbstractCompletionStageTask<?> target;
+		private final Executor executor;
+
+		/**
+		 * @param target The dependent task
+		 * @param executor Runs {@link #fireStored()}, or {@code null}
+		 */
+		/*package*/ StoredCompletion(AbstractCompletionStageTask<?> target, Executor executor) {
+			this.target = target;
+			this.executor = executor;
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+			return outcome == STORED_VALUE ? fireStored() : propagate(target, outcome);
+		}
+
+		/**
+		 * Called when the source task succeeded, its result field can be read.
+		 * @return The dependent task if it was completed by this call, see {@link Completion#fire(Object)}
+		 */
+		/*package*/ abstract AbstractCompletionStageTask<?> fireStored();
+
+		@Override
+		/*package*/ Executor executorFor(Object outcome) {
+			return outcome == STORED_VALUE ? executor : null;
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> rejected(RejectedExecutionException ex) {
+			return fail(target, ex);
+		}
+	}
+
+	/**
+	 * Converts the outcome of a completed first stage into the outcome of a dependent task,
+	 * for all outcomes that are not {@link #STORED_VALUE}.
+	 * @param target The dependent task
+	 * @param outcome The failure or cancellation of the first stage
+	 * @return The target if it was completed by this call, see {@link Completion#fire(Object)}
+	 */
+	/*package*/ static AbstractCompletionStageTask<?> propagate(AbstractCompletionStageTask<?> target, Object outcome) {
+		return target.setOutcome(outcome) ? target : null;
+	}
+
+	/**
+	 * @param target The dependent task
+	 * @param ex The exception thrown by a mapping function
+	 * @return The target if it was completed by this call, see {@link Completion#fire(Object)}
+	 */
+	/*package*/ static AbstractCompletionStageTask<?> fail(AbstractCompletionStageTask<?> target, Throwable ex) {
+		return target.setOutcome(encodeFailure(ex)) ? target : null;
+	}
+}
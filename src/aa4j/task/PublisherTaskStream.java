@@ -0,0 +1,168 @@
+package aa4j.task;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+
+/**
+ * A {@link TaskStream} that subscribes to a {@link Flow.Publisher}.
+ * <p>
+ * It requests {@code prefetch} values at first, and then half of that every time the consumer took that many values,
+ * so the buffer never holds more than {@code prefetch} values. The count of taken values is a lock-free counter,
+ * and {@link Flow.Subscription#request(long)} is never called while holding a lock.
+ * </p>
+ * @param <T> The type of the values
+ */
+/*package*/ final class PublisherTaskStream<T> implements TaskStream<T>, Flow.Subscriber<T> {
+
+	private static final VarHandle TAKEN;
+	static {
+		try {
+			TAKEN = MethodHandles.lookup().findVarHandle(PublisherTaskStream.class, "taken", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static final Object END = AbstractCompletionStageTask.encodeValue(Optional.empty());
+
+	private final int prefetch;
+	private final int batch; //Values that are requested at once after the first request
+	private volatile long taken; //Values that were handed to the consumer
+	//All guarded by this
+	private final ArrayDeque<T> buffer;
+	private Flow.Subscription subscription;
+	private NonBlockingTask<Optional<T>> waiter; //The consumer waits for the next value
+	private Object end; //The encoded outcome that ended the stream, once it ended
+	private boolean closed;
+
+	/*package*/ PublisherTaskStream(int prefetch) {
+		this.prefetch = prefetch;
+		this.batch = Math.max(1, prefetch / 2);
+		this.buffer = new ArrayDeque<>(prefetch);
+	}
+
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		Objects.requireNonNull(subscription, "'subscription' parameter must not be null");
+		final boolean accepted;
+		synchronized (this) {
+			accepted = this.subscription == null && !closed;
+			if(accepted) this.subscription = subscription;
+		}
+		if(accepted) {
+			subscription.request(prefetch);
+		} else {
+			subscription.cancel();
+		}
+	}
+
+	@Override
+	public void onNext(T item) {
+		Objects.requireNonNull(item, "'item' parameter must not be null");
+		final NonBlockingTask<Optional<T>> waiting;
+		synchronized (this) {
+			if(closed) return;
+			waiting = waiter;
+			if(waiting == null) {
+				buffer.add(item);
+			} else {
+				waiter = null;
+			}
+		}
+		if(waiting == null) return;
+		if(waiting.completeWith(AbstractCompletionStageTask.encodeValue(Optional.of(item)))) {
+			taken();
+		} else {
+			synchronized (this) { //The consumer cancelled the wait, so the item is the next one
+				if(!closed) buffer.addFirst(item);
+			}
+		}
+	}
+
+	@Override
+	public void onError(Throwable throwable) {
+		Objects.requireNonNull(throwable, "'throwable' parameter must not be null");
+		ended(AbstractCompletionStageTask.encodeFailure(throwable));
+	}
+
+	@Override
+	public void onComplete() {
+		ended(END);
+	}
+
+	private void ended(Object outcome) {
+		final NonBlockingTask<Optional<T>> waiting;
+		synchronized (this) {
+			if(end != null) return;
+			end = outcome;
+			waiting = waiter;
+			waiter = null;
+		}
+		if(waiting != null) waiting.completeWith(outcome);
+	}
+
+	@Override
+	public TaskOf<Optional<T>> next() {
+		T value = null;
+		Object outcome = null;
+		NonBlockingTask<Optional<T>> waiting = null;
+		synchronized (this) {
+			if(!buffer.isEmpty()) {
+				value = buffer.poll();
+			} else if(end != null) {
+				outcome = end;
+			} else {
+				waiter = waiting = new NonBlockingTask<>(true);
+			}
+		}
+		if(value != null) {
+			taken();
+			return CompletedTask.success(Optional.of(value));
+		}
+		if(outcome != null) return CompletedTask.fromOutcome(outcome);
+		return waiting.taskOfView();
+	}
+
+	@Override
+	public boolean tryNext(Consumer<? super T> action) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		final T value;
+		synchronized (this) {
+			value = buffer.poll();
+		}
+		if(value == null) return false;
+		taken();
+		action.accept(value);
+		return true;
+	}
+
+	/**
+	 * Requests the next batch once the consumer took a batch of values.
+	 */
+	private void taken() {
+		final long count = (long) TAKEN.getAndAdd(this, 1L) + 1;
+		if(count % batch == 0) subscription.request(batch); //A value was delivered, so the subscription is set
+	}
+
+	@Override
+	public void close() {
+		final NonBlockingTask<Optional<T>> waiting;
+		final Flow.Subscription current;
+		synchronized (this) {
+			if(closed) return;
+			closed = true;
+			if(end == null) end = END;
+			buffer.clear();
+			waiting = waiter;
+			waiter = null;
+			current = subscription;
+		}
+		if(waiting != null) waiting.completeWith(END);
+		if(current != null) current.cancel();
+	}
+}
@@ -0,0 +1,22 @@
+package aa4j.task;
+
+/**
+ * A handler that was added to a task and can be removed again, so handlers on long-lived tasks do not accumulate.
+ * <p>
+ * Of the handlers that run on an executor, only {@code registerWhenDoneAsync} returns a registration. Handlers added with
+ * {@code whenSuccessAsync}, {@code whenFailedAsync} and {@code whenCancelledAsync} cannot be removed; a removable handler
+ * for one outcome can use {@code registerWhenDoneAsync} and check the state of the task.
+ * Tasks that are not implemented by this library may not support removing handlers at all, see {@link TaskOf#registerWhenDone(Runnable)}.
+ * </p>
+ * @see TaskOf#registerWhenDone(Runnable)
+ * @see Task#registerWhenDone(Runnable)
+ */
+public interface Registration extends AutoCloseable {
+	/**
+	 * Removes the handler from the task. The handler will not run if it has not started yet,
+	 * but this method does not wait for a handler that is already running.<br>
+	 * Calling this method more than once, or after the task is done, has no effect.
+	 */
+	@Override
+	public void close();
+}
@@ -0,0 +1,269 @@
+package aa4j.task;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * The operators of {@link TaskStream}. Each operator pulls values from the stream before it, buffered values
+ * without creating a task. Waiting for a value continues in a loop on the thread that completes it,
+ * so skipping any number of values does not build up tasks or stack frames.
+ */
+/*package*/ final class StreamOperators {
+	private StreamOperators() {}
+
+	/**
+	 * Turns the values of the upstream into values of this stream, one at a time.
+	 * The stream has a single consumer, but a {@link #next()} task that the consumer cancelled still waits for its
+	 * upstream task on another thread. The state is guarded by the operator, and the upstream value that the cancelled
+	 * task would have received is kept for the next call.
+	 * @param <T> The type of the upstream values
+	 * @param <R> The type of the values of this stream
+	 */
+	private static abstract class Operator<T, R> implements TaskStream<R> {
+		protected final TaskStream<T> upstream;
+		private final Consumer<T> acceptor = this::acceptBuffered; //Created once, so tryNext does not allocate
+		//All guarded by this
+		private boolean ready; //A value can be emitted
+		private TaskOf<Optional<T>> waiting; //The upstream task that a next() task waits for, or null
+		private Object kept; //The outcome that a cancelled next() task did not receive, or null
+
+		protected Operator(TaskStream<T> upstream) {
+			this.upstream = upstream;
+		}
+
+		/**
+		 * @return {@code true} if a value can be emitted now
+		 */
+		protected abstract boolean accept(T value);
+		/**
+		 * @return The value that is ready, never {@code null}
+		 */
+		protected abstract R emit();
+		/**
+		 * @return A value that is emitted when the upstream ended, or {@code null} if there is none
+		 */
+		protected R finish() {
+			return null;
+		}
+
+		private void acceptBuffered(T value) {
+			ready = accept(value);
+		}
+
+		@Override
+		public synchronized boolean tryNext(Consumer<? super R> action) {
+			Objects.requireNonNull(action, "'action' parameter must not be null");
+			if(kept != null || waiting != null) return false; //Only next() can take over from a cancelled task
+			while(!ready && upstream.tryNext(acceptor));
+			if(!ready) return false;
+			ready = false;
+			action.accept(emit());
+			return true;
+		}
+
+		@Override
+		public synchronized TaskOf<Optional<R>> next() {
+			if(kept != null) {
+				final var outcome = kept;
+				kept = null;
+				return CompletedTask.fromOutcome(outcome);
+			}
+			var task = waiting;
+			if(task == null) {
+				try {
+					while(!ready && upstream.tryNext(acceptor));
+					if(ready) {
+						ready = false;
+						return CompletedTask.success(Optional.of(emit()));
+					}
+				} catch (Throwable ex) {
+					return CompletedTask.failure(ex);
+				}
+				task = upstream.next();
+			}
+			waiting = null;
+			while(task.isDone()) { //Only the end of the upstream, or a value that is done after all
+				final var outcome = step(task);
+				if(outcome != null) return CompletedTask.fromOutcome(outcome);
+				task = upstream.next();
+			}
+			final var result = new NonBlockingTask<Optional<R>>(true);
+			waiting = task;
+			whenDone(task, result);
+			return result.taskOfView();
+		}
+
+		private void whenDone(TaskOf<Optional<T>> task, NonBlockingTask<Optional<R>> result) {
+			task.whenDone(() -> resume(task, result));
+		}
+
+		private synchronized void resume(TaskOf<Optional<T>> task, NonBlockingTask<Optional<R>> result) {
+			if(waiting != task) return; //A later next() took over the task
+			var current = task;
+			while(current.isDone()) {
+				if(result.isDoneImpl()) return; //Cancelled by the consumer, the upstream task stays waiting for the next call
+				waiting = null;
+				final var outcome = step(current);
+				if(outcome != null) {
+					if(!result.completeWith(outcome)) kept = outcome; //Cancelled while the value was mapped
+					return;
+				}
+				current = upstream.next();
+				waiting = current;
+			}
+			whenDone(current, result);
+		}
+
+		/**
+		 * @return The encoded outcome for the value of the upstream task, or {@code null} if that value was not emitted
+		 */
+		private Object step(TaskOf<Optional<T>> task) {
+			final var outcome = AbstractCompletionStageTask.doneOutcomeOf(task);
+			if(!AbstractCompletionStageTask.isSuccessOutcome(outcome)) return outcome;
+			try {
+				final Optional<T> value = AbstractCompletionStageTask.decodeValue(outcome);
+				if(value.isEmpty()) {
+					final var last = finish();
+					return AbstractCompletionStageTask.encodeValue(Optional.ofNullable(last));
+				}
+				if(!accept(value.get())) return null;
+				return AbstractCompletionStageTask.encodeValue(Optional.of(emit()));
+			} catch (Throwable ex) {
+				return AbstractCompletionStageTask.encodeFailure(ex);
+			}
+		}
+
+		@Override
+		public void close() {
+			upstream.close();
+		}
+	}
+
+	/*package*/ static final class Mapped<T, R> extends Operator<T, R> {
+		private final Function<? super T, ? extends R> mapFunc;
+		private R value;
+
+		/*package*/ Mapped(TaskStream<T> upstream, Function<? super T, ? extends R> mapFunc) {
+			super(upstream);
+			this.mapFunc = mapFunc;
+		}
+
+		@Override
+		protected boolean accept(T value) {
+			this.value = Objects.requireNonNull(mapFunc.apply(value), "Mapping function returned null");
+			return true;
+		}
+
+		@Override
+		protected R emit() {
+			final var v = value;
+			value = null;
+			return v;
+		}
+	}
+
+	/*package*/ static final class Filtered<T> extends Operator<T, T> {
+		private final Predicate<? super T> predicate;
+		private T value;
+
+		/*package*/ Filtered(TaskStream<T> upstream, Predicate<? super T> predicate) {
+			super(upstream);
+			this.predicate = predicate;
+		}
+
+		@Override
+		protected boolean accept(T value) {
+			if(!predicate.test(value)) return false;
+			this.value = value;
+			return true;
+		}
+
+		@Override
+		protected T emit() {
+			final var v = value;
+			value = null;
+			return v;
+		}
+	}
+
+	/*package*/ static final class Batched<T> extends Operator<T, List<T>> {
+		private final int size;
+		private List<T> batch; //null if no value was added since the last batch
+
+		/*package*/ Batched(TaskStream<T> upstream, int size) {
+			super(upstream);
+			this.size = size;
+		}
+
+		@Override
+		protected boolean accept(T value) {
+			if(batch == null) batch = new ArrayList<>(size);
+			batch.add(value);
+			return batch.size() == size;
+		}
+
+		@Override
+		protected List<T> emit() {
+			final var b = batch;
+			batch = null;
+			return Collections.unmodifiableList(b);
+		}
+
+		@Override
+		protected List<T> finish() {
+			return batch == null ? null : emit();
+		}
+	}
+
+	/**
+	 * @see TaskStream#forEach(Consumer)
+	 */
+	/*package*/ static <T> Task forEach(TaskStream<T> stream, Consumer<? super T> action) {
+		final var result = new NonBlockingTask<Void>(stream::close);
+		forEach(stream, action, null, result);
+		return result.taskView();
+	}
+
+	/**
+	 * @param task The upstream task that was waited for, or {@code null} when starting
+	 */
+	private static <T> void forEach(TaskStream<T> stream, Consumer<? super T> action, TaskOf<Optional<T>> task,
+			NonBlockingTask<Void> result) {
+		var current = task;
+		try {
+			while(!result.isDoneImpl()) {
+				if(current == null) {
+					while(stream.tryNext(action)) {
+						if(result.isDoneImpl()) return;
+					}
+					current = stream.next();
+				}
+				if(!current.isDone()) {
+					final var waiting = current;
+					current.whenDone(() -> forEach(stream, action, waiting, result));
+					return;
+				}
+				final var outcome = AbstractCompletionStageTask.doneOutcomeOf(current);
+				current = null;
+				if(!AbstractCompletionStageTask.isSuccessOutcome(outcome)) {
+					result.completeWith(outcome);
+				} else {
+					final Optional<T> value = AbstractCompletionStageTask.decodeValue(outcome);
+					if(value.isEmpty()) {
+						result.completeWith(AbstractCompletionStageTask.encodeValue(null));
+					} else {
+						action.accept(value.get());
+					}
+				}
+			}
+		} catch (Throwable ex) {
+			if(result.failImpl(ex)) stream.close();
+		}
+	}
+}
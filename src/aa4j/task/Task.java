@@ -1,14 +1,18 @@
 package aa4j.task;
 
+import java.util.Objects;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 import aa4j.TaskNotDoneException;
+import aa4j.WaitStrategy;
 
 /**
  * An asynchonously executing task without a result
@@ -28,6 +32,23 @@ public interface Task {
 	 * @return {@code this}
 	 */
 	public Task awaitUninterruptibly();
+	/**
+	 * Wait until the task is done or the calling thread is interrupted, using the supplied {@link WaitStrategy}
+	 * instead of {@link Tasks#defaultWaitStrategy()}.<br>
+	 * Tasks that do not support different wait strategies will ignore the strategy.
+	 * @param strategy The {@link WaitStrategy} used to wait for the task
+	 * @return {@code this}
+	 * @throws InterruptedException When the thread is interrupted while waiting for the task
+	 * @throws NullPointerException When {@code strategy} is {@code null}
+	 * @see #sync(long, TimeUnit, CancellationToken, boolean, WaitStrategy)
+	 */
+	public default Task await(WaitStrategy strategy) throws InterruptedException {
+		if(sync(-1, null, null, true, strategy) == SyncResult.THREAD_INTERRUPTED) {
+			Thread.interrupted(); //sync reports the interrupt through the flag, await through the exception
+			throw new InterruptedException();
+		}
+		return this;
+	}
 	/**
 	 * Waits until the task is done, the timeout has elapsed or the calling thread is interrupted.
 	 * @param time The time to wait
@@ -127,6 +148,29 @@ public interface Task {
 	 * @throws IllegalArgumentException When the token is not {@code null} and bound to another action
 	 */
 	public SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible);
+	/**
+	 * Synchronizes the calling thread with the completion of the task, like {@link #sync(long, TimeUnit, CancellationToken, boolean)},
+	 * but uses the supplied {@link WaitStrategy} to wait.<br>
+	 * A strategy that spins before parking can reduce the latency of waking up when the task is expected to
+	 * complete within a few microseconds.
+	 * <p>
+	 * Tasks that do not support different wait strategies will ignore the strategy.
+	 * </p>
+	 * @param time The time to wait
+	 * @param unit The unit of the {@code time} value, or {@code null} to not use a timeout
+	 * @param token An unbound {@link CancellationToken}, or {@code null} to not use a token
+	 * @param interruptible {@code true} if the method should return when the thread is interrupted, {@code false}
+	 * if interrupts should be ignored
+	 * @param strategy The {@link WaitStrategy} used to wait for the task
+	 * @return A {@link SyncResult} that describes the reason why this method has returned
+	 * @throws IllegalArgumentException When the token is not {@code null} and bound to another action
+	 * @throws NullPointerException When {@code strategy} is {@code null}
+	 * @see Tasks#setDefaultWaitStrategy(WaitStrategy)
+	 */
+	public default SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible, WaitStrategy strategy) {
+		Objects.requireNonNull(strategy, "'strategy' parameter must not be null");
+		return sync(time, unit, token, interruptible);
+	}
 	
 	/**
 	 * Attempts to cancel the execution of this task. Not all task types support cancellation of the
@@ -278,38 +322,167 @@ public interface Task {
 	 * @see #whenCancelledAsync(Runnable)
 	 */
 	public Task whenCancelled(Runnable action);
+
+	/**
+	 * Like {@link #whenDone(Runnable)}, but the action can be removed again before the task is done.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.<br>
+	 * The tasks of this library support removing handlers. The default implementation of the {@code registerWhen*}
+	 * methods, for tasks implemented elsewhere, adds a handler that cannot be removed and returns a
+	 * {@link Registration} whose {@link Registration#close()} has no effect.
+	 * @param action The action that should run when the task is done
+	 * @return A {@link Registration} that removes the action when closed
+	 */
+	public default Registration registerWhenDone(Runnable action) {
+		whenDone(action);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
+	/**
+	 * Like {@link #whenSuccess(Runnable)}, but the action can be removed again before the task is done.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.
+	 * @param action The action that should run when the task is successful
+	 * @return A {@link Registration} that removes the action when closed
+	 */
+	public default Registration registerWhenSuccess(Runnable action) {
+		whenSuccess(action);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
+	/**
+	 * Like {@link #whenFailed(Consumer)}, but the action can be removed again before the task is done.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.
+	 * @param action The action that should run when the task fails
+	 * @return A {@link Registration} that removes the action when closed
+	 */
+	public default Registration registerWhenFailed(Consumer<? super Throwable> action) {
+		whenFailed(action);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
+	/**
+	 * Like {@link #whenCancelled(Runnable)}, but the action can be removed again before the task is done.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.
+	 * @param action The action that should run when the task is cancelled
+	 * @return A {@link Registration} that removes the action when closed
+	 */
+	public default Registration registerWhenCancelled(Runnable action) {
+		whenCancelled(action);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
+	/**
+	 * Like {@link #whenDoneAsync(Runnable, Executor)}, but the action can be removed again before it is submitted to the executor.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.
+	 * @param action The action that should run when the task is done
+	 * @param executor The {@link Executor} that runs the action
+	 * @return A {@link Registration} that removes the action when closed
+	 * @see #registerWhenDone(Runnable)
+	 */
+	public default Registration registerWhenDoneAsync(Runnable action, Executor executor) {
+		whenDoneAsync(action, executor);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
 	
 	/**
 	 * Registers an action to be executed when the task completes in any way.<br>
-	 * The action will run on an asynchronous executor and not block the thread that causes the task to complete.
+	 * The action will run on the {@link Tasks#defaultExecutor()} and not block the thread that causes the task to complete.
+	 * @param action The action that should run when the task is done
+	 * @return {@code this}
+	 * @see #whenDone(Runnable)
+	 * @see #whenDoneAsync(Runnable, Executor)
+	 */
+	public default Task whenDoneAsync(Runnable action) {
+		return whenDoneAsync(action, Tasks.defaultExecutor());
+	}
+	/**
+	 * Registers an action to be executed when the task completes in any way.<br>
+	 * The action will run on the executor and not block the thread that causes the task to complete.
+	 * If the executor rejects the action, it does not run and the {@link RejectedExecutionException} is passed to the
+	 * uncaught exception handler of the thread that submits it.
 	 * @param action The action that should run when the task is done
+	 * @param executor The {@link Executor} that runs the action
 	 * @return {@code this}
 	 * @see #whenDone(Runnable)
 	 */
-	public Task whenDoneAsync(Runnable action);
+	public default Task whenDoneAsync(Runnable action, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return whenDone(() -> Tasks.executeHandler(executor, action));
+	}
 	/**
 	 * Registers an action to be executed when the task completes successfully.<br>
-	 * The action will run on an asynchronous executor and not block the thread that causes the task to succeed.
+	 * The action will run on the {@link Tasks#defaultExecutor()} and not block the thread that causes the task to succeed.
 	 * @param action The action that should run when the task is successful
 	 * @return {@code this}
 	 * @see #whenSuccess(Runnable)
+	 * @see #whenSuccessAsync(Runnable, Executor)
 	 */
-	public Task whenSuccessAsync(Runnable action);
+	public default Task whenSuccessAsync(Runnable action) {
+		return whenSuccessAsync(action, Tasks.defaultExecutor());
+	}
+	/**
+	 * Registers an action to be executed when the task completes successfully.<br>
+	 * The action will run on the executor and not block the thread that causes the task to succeed.
+	 * If the executor rejects the action, it does not run and the {@link RejectedExecutionException} is passed to the
+	 * uncaught exception handler of the thread that submits it.
+	 * @param action The action that should run when the task is successful
+	 * @param executor The {@link Executor} that runs the action
+	 * @return {@code this}
+	 * @see #whenSuccess(Runnable)
+	 */
+	public default Task whenSuccessAsync(Runnable action, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return whenSuccess(() -> Tasks.executeHandler(executor, action));
+	}
 	/**
 	 * Registers an action to be executed when the task fails with an exception.
 	 * The exception that caused the task to fail will be supplied to the action.<br>
-	 * The action will run on an asynchronous executor and not block the thread that causes the task to fail.
+	 * The action will run on the {@link Tasks#defaultExecutor()} and not block the thread that causes the task to fail.
 	 * @param action The action that should run when the task fails
 	 * @return {@code this}
 	 * @see #whenFailed(Consumer)
+	 * @see #whenFailedAsync(Consumer, Executor)
 	 */
-	public Task whenFailedAsync(Consumer<? super Throwable> action);
+	public default Task whenFailedAsync(Consumer<? super Throwable> action) {
+		return whenFailedAsync(action, Tasks.defaultExecutor());
+	}
+	/**
+	 * Registers an action to be executed when the task fails with an exception.
+	 * The exception that caused the task to fail will be supplied to the action.<br>
+	 * The action will run on the executor and not block the thread that causes the task to fail.
+	 * If the executor rejects the action, it does not run and the {@link RejectedExecutionException} is passed to the
+	 * uncaught exception handler of the thread that submits it.
+	 * @param action The action that should run when the task fails
+	 * @param executor The {@link Executor} that runs the action
+	 * @return {@code this}
+	 * @see #whenFailed(Consumer)
+	 */
+	public default Task whenFailedAsync(Consumer<? super Throwable> action, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return whenFailed(ex -> Tasks.executeHandler(executor, () -> action.accept(ex)));
+	}
 	/**
 	 * Registers an action to be executed when the task is cancelled.<br>
-	 * The action will run on an asynchronous executor and not block the thread that cancels the task.
+	 * The action will run on the {@link Tasks#defaultExecutor()} and not block the thread that cancels the task.
 	 * @param action The action that should run when the task is cancelled
 	 * @return {@code this}
 	 * @see #whenCancelled(Runnable)
+	 * @see #whenCancelledAsync(Runnable, Executor)
 	 */
-	public Task whenCancelledAsync(Runnable action);
+	public default Task whenCancelledAsync(Runnable action) {
+		return whenCancelledAsync(action, Tasks.defaultExecutor());
+	}
+	/**
+	 * Registers an action to be executed when the task is cancelled.<br>
+	 * The action will run on the executor and not block the thread that cancels the task.
+	 * If the executor rejects the action, it does not run and the {@link RejectedExecutionException} is passed to the
+	 * uncaught exception handler of the thread that submits it.
+	 * @param action The action that should run when the task is cancelled
+	 * @param executor The {@link Executor} that runs the action
+	 * @return {@code this}
+	 * @see #whenCancelled(Runnable)
+	 */
+	public default Task whenCancelledAsync(Runnable action, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return whenCancelled(() -> Tasks.executeHandler(executor, action));
+	}
 }
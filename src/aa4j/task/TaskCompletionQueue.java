@@ -0,0 +1,191 @@
+package aa4j.task;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects tasks and hands them out in the order in which they complete, similar to an {@link ExecutorCompletionService}.
+ * <p>
+ * Every added task gets a completion node that appends the task to a lock-free queue when it is done, so a slow task
+ * never holds back the tasks that complete after it. Done tasks can be taken by blocking with {@link #take()} or
+ * {@link #poll(long, TimeUnit)}, or asynchronously with {@link #next()}.
+ * </p>
+ * @param <T> The result type of the tasks
+ */
+public class TaskCompletionQueue<T> {
+
+	private static final VarHandle WAITER_STATE;
+	static {
+		try {
+			WAITER_STATE = MethodHandles.lookup().findVarHandle(TaskCompletionQueue.Waiter.class, "state", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final ConcurrentLinkedQueue<TaskOf<T>> completed;
+	private final Semaphore available; //One permit for each task in the completed queue
+	private final ConcurrentLinkedQueue<Waiter> waiters; //Tasks returned by next() that wait for a task
+
+	/**
+	 * Creates a new, empty {@link TaskCompletionQueue}.
+	 */
+	public TaskCompletionQueue() {
+		completed = new ConcurrentLinkedQueue<>();
+		available = new Semaphore(0);
+		waiters = new ConcurrentLinkedQueue<>();
+	}
+
+	/**
+	 * Adds a task to the queue. It can be taken from the queue once it is done.
+	 * A task that is already done can be taken right away.
+	 * @param task The task to add
+	 * @throws NullPointerException When {@code task} is {@code null}
+	 */
+	public void add(TaskOf<? extends T> task) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		@SuppressWarnings("unchecked") //Tasks only produce values, so a task of a subtype is a task of T
+		final var added = (TaskOf<T>) task;
+		AbstractCompletionStageTask.onDone(added, new Entry<>(this, added));
+	}
+
+	/**
+	 * Adds all tasks in the collection to the queue.
+	 * @param tasks The tasks to add
+	 * @throws NullPointerException When {@code tasks} or any of the tasks is {@code null}
+	 */
+	public void addAll(Collection<? extends TaskOf<? extends T>> tasks) {
+		Objects.requireNonNull(tasks, "'tasks' parameter must not be null");
+		for(var task : tasks) add(task);
+	}
+
+	/**
+	 * Takes the task that completed first, waiting until a task completes if necessary.
+	 * If no task was added, this waits until a task is added and completes.
+	 * @return The done task
+	 * @throws InterruptedException When the thread is interrupted while waiting
+	 */
+	public TaskOf<T> take() throws InterruptedException {
+		available.acquire();
+		return completed.poll();
+	}
+
+	/**
+	 * Takes the task that completed first, if any task is done.
+	 * @return The done task, or {@code null} if no task is done
+	 */
+	public TaskOf<T> poll() {
+		return available.tryAcquire() ? completed.poll() : null;
+	}
+
+	/**
+	 * Takes the task that completed first, waiting up to the time limit until a task completes if necessary.
+	 * @param time The maximum time to wait
+	 * @param unit The unit for the time parameter
+	 * @return The done task, or {@code null} if no task completed in time
+	 * @throws InterruptedException When the thread is interrupted while waiting
+	 * @throws NullPointerException When {@code unit} is {@code null}
+	 */
+	public TaskOf<T> poll(long time, TimeUnit unit) throws InterruptedException {
+		Objects.requireNonNull(unit, "'unit' parameter must not be null");
+		return available.tryAcquire(time, unit) ? completed.poll() : null;
+	}
+
+	/**
+	 * Takes the task that completes next without blocking.<br>
+	 * If a task is done already, the returned task is done as well. Otherwise, it completes when the next task completes.
+	 * Cancelling the returned task gives up the claim, so the next task stays in the queue.
+	 * @return A task with the done task as its result
+	 */
+	public TaskOf<TaskOf<T>> next() {
+		if(available.tryAcquire()) return CompletedTask.success(completed.poll());
+		final var waiter = new Waiter();
+		waiters.offer(waiter);
+		dispatch(); //A task may have completed before the waiter was added
+		return waiter.taskOfView();
+	}
+
+	/**
+	 * The number of tasks that are done and were not taken yet.
+	 * @return The number of done tasks in the queue
+	 */
+	public int getCompletedCount() {
+		return available.availablePermits();
+	}
+
+	private void completed(TaskOf<T> task) {
+		completed.offer(task);
+		available.release();
+		dispatch();
+	}
+
+	/**
+	 * Hands done tasks to the waiting {@link #next()} tasks. A task is only taken from the queue
+	 * once a waiter is claimed for it, so it never has to be put back behind tasks that completed later.
+	 */
+	private void dispatch() {
+		while(!waiters.isEmpty() && available.tryAcquire()) {
+			Waiter waiter;
+			do {
+				waiter = waiters.poll();
+			} while(waiter != null && !waiter.claim()); //Skip cancelled waiters
+			if(waiter == null) { //Another thread took the waiters, the task stays at the head of the queue
+				available.release(); //Check again, a waiter may have been added in the meantime
+			} else {
+				waiter.completeWith(AbstractCompletionStageTask.encodeValue(completed.poll()));
+			}
+		}
+	}
+
+	/**
+	 * A task returned by {@link #next()}. It can be cancelled until a done task is assigned to it,
+	 * and removes itself from the waiters when it is cancelled.
+	 */
+	private final class Waiter extends AbstractCompletionStageTask<TaskOf<T>> {
+		private static final int WAITING = 0;
+		private static final int CLAIMED = 1;
+		private static final int CANCELLED = 2;
+
+		private volatile int state;
+
+		/**
+		 * Reserves this waiter for a task, after which it can no longer be cancelled.
+		 * @return {@code true} if the waiter was reserved, {@code false} if it was cancelled
+		 */
+		private boolean claim() {
+			return WAITER_STATE.compareAndSet(this, WAITING, CLAIMED);
+		}
+
+		@Override
+		protected CancelResult cancelImpl() {
+			if(!WAITER_STATE.compareAndSet(this, WAITING, CANCELLED)) {
+				return isDoneImpl() ? fromDoneState() : CancelResult.UNABLE_TO_CANCEL; //A task is being assigned
+			}
+			waiters.remove(this);
+			cancelledImpl();
+			return CancelResult.SUCCESSFULLY_CANCELLED;
+		}
+	}
+
+	private static final class Entry<T> extends AbstractCompletionStageTask.Completion {
+		private final TaskCompletionQueue<T> queue;
+		private final TaskOf<T> task;
+
+		private Entry(TaskCompletionQueue<T> queue, TaskOf<T> task) {
+			this.queue = queue;
+			this.task = task;
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+			queue.completed(task);
+			return null;
+		}
+	}
+}
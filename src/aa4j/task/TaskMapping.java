@@ -0,0 +1,88 @@
+package aa4j.task;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * A sequence of synchronous mapping functions for a source task that is mapped by a single task.<br>
+ * Chaining {@link Tasks#map(TaskOf, Function)} creates one task for every function, even if only the last one
+ * is used. A mapping keeps the functions instead and creates one task that applies all of them in order, so the number
+ * of tasks does not grow with the number of functions. The intermediate results are not available as tasks.
+ * <p>
+ * Instances are immutable: {@link #map(Function)} returns a new mapping, so a mapping can be extended in different ways.
+ * </p>
+ * @param <S> The result type of the source task
+ * @param <T> The result type of the last mapping function
+ * @see Tasks#mapping(TaskOf)
+ */
+public final class TaskMapping<S, T> {
+
+	private final TaskOf<S> source;
+	private final TaskMapping<S, ?> previous; //null for the mapping without functions
+	private final Function<?, ?> mapFunc;
+	private final int steps;
+
+	private TaskMapping(TaskOf<S> source, TaskMapping<S, ?> previous, Function<?, ?> mapFunc, int steps) {
+		this.source = source;
+		this.previous = previous;
+		this.mapFunc = mapFunc;
+		this.steps = steps;
+	}
+
+	/*package*/ static <S> TaskMapping<S, S> of(TaskOf<S> source) {
+		return new TaskMapping<>(source, null, null, 0);
+	}
+
+	/**
+	 * Adds a mapping function that is applied to the result of the previous one.
+	 * @param <R> The result type of the mapping function
+	 * @param mapFunc A function that maps the previous result to the required type
+	 * @return A new mapping that ends with this function
+	 */
+	public <R> TaskMapping<S, R> map(Function<T, R> mapFunc) {
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return new TaskMapping<>(source, this, mapFunc, steps + 1);
+	}
+
+	/**
+	 * Creates the task that applies all mapping functions to the result of the source task, on the thread that completes it.
+	 * If a function throws an exception, the remaining functions do not run and the task fails with that exception.
+	 * @return A task that completes after the source task and the mapping functions.
+	 * In case of cancellation or failure, the returned task will have the same state.
+	 * @see Tasks#map(TaskOf, Function)
+	 */
+	@SuppressWarnings("unchecked")
+	public TaskOf<T> task() {
+		if(steps == 0) return (TaskOf<T>) source;
+		return Tasks.map(source, composed());
+	}
+
+	/**
+	 * Creates the task that applies all mapping functions to the result of the source task, as one submission to an executor.
+	 * @param executor The {@link Executor} that runs the mapping functions
+	 * @return A task that completes after the source task and the mapping functions.
+	 * In case of cancellation or failure, the returned task will have the same state.
+	 * @see Tasks#map(TaskOf, Function, Executor)
+	 */
+	public TaskOf<T> task(Executor executor) {
+		return Tasks.map(source, composed(), executor);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Function<S, T> composed() {
+		final var functions = new Function<?, ?>[steps];
+		TaskMapping<S, ?> step = this;
+		for(int i = steps - 1; i >= 0; i--) {
+			functions[i] = step.mapFunc;
+			step = step.previous;
+		}
+		return value -> {
+			Object result = value;
+			for(var function : functions) {
+				result = ((Function<Object, Object>) function).apply(result);
+			}
+			return (T) result;
+		};
+	}
+}
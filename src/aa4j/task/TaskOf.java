@@ -1,16 +1,20 @@
 package aa4j.task;
 
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import aa4j.AA4J;
 import aa4j.TaskNotDoneException;
+import aa4j.WaitStrategy;
 
 /**
  * An asynchronously executing Task that has a typed result.
@@ -32,6 +36,23 @@ public interface TaskOf<T> {
 	 * @return {@code this}
 	 */
 	public TaskOf<T> awaitUninterruptibly();
+	/**
+	 * Wait until the task is done or the calling thread is interrupted, using the supplied {@link WaitStrategy}
+	 * instead of {@link Tasks#defaultWaitStrategy()}.<br>
+	 * Tasks that do not support different wait strategies will ignore the strategy.
+	 * @param strategy The {@link WaitStrategy} used to wait for the task
+	 * @return {@code this}
+	 * @throws InterruptedException When the thread is interrupted while waiting for the task
+	 * @throws NullPointerException When {@code strategy} is {@code null}
+	 * @see #sync(long, TimeUnit, CancellationToken, boolean, WaitStrategy)
+	 */
+	public default TaskOf<T> await(WaitStrategy strategy) throws InterruptedException {
+		if(sync(-1, null, null, true, strategy) == SyncResult.THREAD_INTERRUPTED) {
+			Thread.interrupted(); //sync reports the interrupt through the flag, await through the exception
+			throw new InterruptedException();
+		}
+		return this;
+	}
 	/**
 	 * Waits until the task is done, the timeout has elapsed or the calling thread is interrupted.
 	 * @param time The time to wait
@@ -131,6 +152,29 @@ public interface TaskOf<T> {
 	 * @throws IllegalArgumentException When the token is not {@code null} and bound to another action
 	 */
 	public SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible);
+	/**
+	 * Synchronizes the calling thread with the completion of the task, like {@link #sync(long, TimeUnit, CancellationToken, boolean)},
+	 * but uses the supplied {@link WaitStrategy} to wait.<br>
+	 * A strategy that spins before parking can reduce the latency of waking up when the task is expected to
+	 * complete within a few microseconds.
+	 * <p>
+	 * Tasks that do not support different wait strategies will ignore the strategy.
+	 * </p>
+	 * @param time The time to wait
+	 * @param unit The unit of the {@code time} value, or {@code null} to not use a timeout
+	 * @param token An unbound {@link CancellationToken}, or {@code null} to not use a token
+	 * @param interruptible {@code true} if the method should return when the thread is interrupted, {@code false}
+	 * if interrupts should be ignored
+	 * @param strategy The {@link WaitStrategy} used to wait for the task
+	 * @return A {@link SyncResult} that describes the reason why this method has returned
+	 * @throws IllegalArgumentException When the token is not {@code null} and bound to another action
+	 * @throws NullPointerException When {@code strategy} is {@code null}
+	 * @see Tasks#setDefaultWaitStrategy(WaitStrategy)
+	 */
+	public default SyncResult sync(long time, TimeUnit unit, CancellationToken token, boolean interruptible, WaitStrategy strategy) {
+		Objects.requireNonNull(strategy, "'strategy' parameter must not be null");
+		return sync(time, unit, token, interruptible);
+	}
 	
 	/**
 	 * Attempts to cancel the execution of this task. Not all task types support cancellation of the
@@ -212,7 +256,9 @@ public interface TaskOf<T> {
 	/**
 	 * Gets the result of this task only if it is already completed.<br>
 	 * A task is guaranteed to be completed after any of the {@code await...} method
-	 * returns without throwing an exception, or when {@link #isDone()} is {@code true}.
+	 * returns without throwing an exception, or when {@link #isDone()} is {@code true}.<br>
+	 * Every call on a failed task throws a new {@link ExecutionException}. Loops that read many results should use
+	 * {@link #getOutcome()} instead, which inspects the result without exceptions or allocation.
 	 * @return The result of this task, if the task was successful
 	 * @throws ExecutionException When the task has failed with an exception. That exception is
 	 * available through {@link ExecutionException#getCause()}.
@@ -331,6 +377,35 @@ public interface TaskOf<T> {
 	 */
 	public Optional<T> getResultIfPresent() throws ExecutionException, CancellationException;
 	
+	/**
+	 * The outcome of this task as a {@link TaskOutcome}, which can be inspected without handling any exceptions.<br>
+	 * The tasks created by this library return the same {@link TaskOutcome} instance for every call once they are done.
+	 * If this task is still running, the outcome is in the {@link TaskState#RUNNING} state.
+	 * @return The current outcome of this task
+	 */
+	public default TaskOutcome<T> getOutcome() {
+		switch (getState()) {
+		case SUCCEEDED: return TaskOutcome.succeeded(getResultOr(null));
+		case FAILED:
+			try {
+				getResult();
+				throw new IllegalStateException("Failed task returned a result");
+			} catch (ExecutionException e) {
+				return TaskOutcome.failed(e.getCause());
+			}
+		case CANCELLED:
+			try {
+				getResult();
+				throw new IllegalStateException("Cancelled task returned a result");
+			} catch (CancellationException e) {
+				return TaskOutcome.cancelled(e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Cancelled task failed", e);
+			}
+		default: return TaskOutcome.running();
+		}
+	}
+	
 	//Future-Like access
 	/**
 	 * Provides a view of this task as a {@link Future}. The methods of that interface map to methods
@@ -397,39 +472,169 @@ public interface TaskOf<T> {
 	 * @see #whenCancelledAsync(Runnable)
 	 */
 	public TaskOf<T> whenCancelled(Runnable action);
+
+	/**
+	 * Like {@link #whenDone(Runnable)}, but the action can be removed again before the task is done.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.<br>
+	 * The tasks of this library support removing handlers. The default implementation of the {@code registerWhen*}
+	 * methods, for tasks implemented elsewhere, adds a handler that cannot be removed and returns a
+	 * {@link Registration} whose {@link Registration#close()} has no effect.
+	 * @param action The action that should run when the task is done
+	 * @return A {@link Registration} that removes the action when closed
+	 */
+	public default Registration registerWhenDone(Runnable action) {
+		whenDone(action);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
+	/**
+	 * Like {@link #whenSuccess(Consumer)}, but the action can be removed again before the task is done.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.
+	 * @param action The action that should run when the task is successful
+	 * @return A {@link Registration} that removes the action when closed
+	 */
+	public default Registration registerWhenSuccess(Consumer<? super T> action) {
+		whenSuccess(action);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
+	/**
+	 * Like {@link #whenFailed(Consumer)}, but the action can be removed again before the task is done.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.
+	 * @param action The action that should run when the task fails
+	 * @return A {@link Registration} that removes the action when closed
+	 */
+	public default Registration registerWhenFailed(Consumer<? super Throwable> action) {
+		whenFailed(action);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
+	/**
+	 * Like {@link #whenCancelled(Runnable)}, but the action can be removed again before the task is done.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.
+	 * @param action The action that should run when the task is cancelled
+	 * @return A {@link Registration} that removes the action when closed
+	 */
+	public default Registration registerWhenCancelled(Runnable action) {
+		whenCancelled(action);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
+	/**
+	 * Like {@link #whenDoneAsync(Runnable, Executor)}, but the action can be removed again before it is submitted to the executor.
+	 * Use this for handlers on long-lived tasks that are not needed for the whole lifetime of the task.
+	 * @param action The action that should run when the task is done
+	 * @param executor The {@link Executor} that runs the action
+	 * @return A {@link Registration} that removes the action when closed
+	 * @see #registerWhenDone(Runnable)
+	 */
+	public default Registration registerWhenDoneAsync(Runnable action, Executor executor) {
+		whenDoneAsync(action, executor);
+		return Tasks.PERMANENT_REGISTRATION;
+	}
 	
 	/**
 	 * Registers an action to be executed when the task completes in any way.<br>
-	 * The action will run on an asynchronous executor and not block the thread that causes the task to complete.
+	 * The action will run on the {@link Tasks#defaultExecutor()} and not block the thread that causes the task to complete.
 	 * @param action The action that should run when the task is done
 	 * @return {@code this}
 	 * @see #whenDone(Runnable)
+	 * @see #whenDoneAsync(Runnable, Executor)
 	 */
-	public TaskOf<T> whenDoneAsync(Runnable action);
+	public default TaskOf<T> whenDoneAsync(Runnable action) {
+		return whenDoneAsync(action, Tasks.defaultExecutor());
+	}
+	/**
+	 * Registers an action to be executed when the task completes in any way.<br>
+	 * The action will run on the executor and not block the thread that causes the task to complete.
+	 * If the executor rejects the action, it does not run and the {@link RejectedExecutionException} is passed to the
+	 * uncaught exception handler of the thread that submits it.
+	 * @param action The action that should run when the task is done
+	 * @param executor The {@link Executor} that runs the action
+	 * @return {@code this}
+	 * @see #whenDone(Runnable)
+	 */
+	public default TaskOf<T> whenDoneAsync(Runnable action, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return whenDone(() -> Tasks.executeHandler(executor, action));
+	}
 	/**
 	 * Registers an action to be executed when the task completes successfully.
 	 * The result value of the task will be supplied to the action.<br>
-	 * The action will run on an asynchronous executor and not block the thread that causes the task to succeed.
+	 * The action will run on the {@link Tasks#defaultExecutor()} and not block the thread that causes the task to succeed.
 	 * @param action The action that should run when the task is successful
 	 * @return {@code this}
 	 * @see #whenSuccess(Consumer)
+	 * @see #whenSuccessAsync(Consumer, Executor)
 	 */
-	public TaskOf<T> whenSuccessAsync(Consumer<? super T> action);
+	public default TaskOf<T> whenSuccessAsync(Consumer<? super T> action) {
+		return whenSuccessAsync(action, Tasks.defaultExecutor());
+	}
+	/**
+	 * Registers an action to be executed when the task completes successfully.
+	 * The result value of the task will be supplied to the action.<br>
+	 * The action will run on the executor and not block the thread that causes the task to succeed.
+	 * If the executor rejects the action, it does not run and the {@link RejectedExecutionException} is passed to the
+	 * uncaught exception handler of the thread that submits it.
+	 * @param action The action that should run when the task is successful
+	 * @param executor The {@link Executor} that runs the action
+	 * @return {@code this}
+	 * @see #whenSuccess(Consumer)
+	 */
+	public default TaskOf<T> whenSuccessAsync(Consumer<? super T> action, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return whenSuccess(value -> Tasks.executeHandler(executor, () -> action.accept(value)));
+	}
+	/**
+	 * Registers an action to be executed when the task fails with an exception.
+	 * The exception that caused the task to fail will be supplied to the action.<br>
+	 * The action will run on the {@link Tasks#defaultExecutor()} and not block the thread that causes the task to fail.
+	 * @param action The action that should run when the task fails
+	 * @return {@code this}
+	 * @see #whenFailed(Consumer)
+	 * @see #whenFailedAsync(Consumer, Executor)
+	 */
+	public default TaskOf<T> whenFailedAsync(Consumer<? super Throwable> action) {
+		return whenFailedAsync(action, Tasks.defaultExecutor());
+	}
 	/**
 	 * Registers an action to be executed when the task fails with an exception.
 	 * The exception that caused the task to fail will be supplied to the action.<br>
-	 * The action will run on an asynchronous executor and not block the thread that causes the task to fail.
+	 * The action will run on the executor and not block the thread that causes the task to fail.
+	 * If the executor rejects the action, it does not run and the {@link RejectedExecutionException} is passed to the
+	 * uncaught exception handler of the thread that submits it.
 	 * @param action The action that should run when the task fails
+	 * @param executor The {@link Executor} that runs the action
 	 * @return {@code this}
 	 * @see #whenFailed(Consumer)
 	 */
-	public TaskOf<T> whenFailedAsync(Consumer<? super Throwable> action);
+	public default TaskOf<T> whenFailedAsync(Consumer<? super Throwable> action, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return whenFailed(ex -> Tasks.executeHandler(executor, () -> action.accept(ex)));
+	}
 	/**
 	 * Registers an action to be executed when the task is cancelled.<br>
-	 * The action will run on an asynchronous executor and not block the thread that cancels the task.
+	 * The action will run on the {@link Tasks#defaultExecutor()} and not block the thread that cancels the task.
 	 * @param action The action that should run when the task is cancelled
 	 * @return {@code this}
 	 * @see #whenCancelled(Runnable)
+	 * @see #whenCancelledAsync(Runnable, Executor)
 	 */
-	public TaskOf<T> whenCancelledAsync(Runnable action);
+	public default TaskOf<T> whenCancelledAsync(Runnable action) {
+		return whenCancelledAsync(action, Tasks.defaultExecutor());
+	}
+	/**
+	 * Registers an action to be executed when the task is cancelled.<br>
+	 * The action will run on the executor and not block the thread that cancels the task.
+	 * If the executor rejects the action, it does not run and the {@link RejectedExecutionException} is passed to the
+	 * uncaught exception handler of the thread that submits it.
+	 * @param action The action that should run when the task is cancelled
+	 * @param executor The {@link Executor} that runs the action
+	 * @return {@code this}
+	 * @see #whenCancelled(Runnable)
+	 */
+	public default TaskOf<T> whenCancelledAsync(Runnable action, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return whenCancelled(() -> Tasks.executeHandler(executor, action));
+	}
 }
@@ -0,0 +1,95 @@
+package aa4j.task;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * An immutable snapshot of the outcome of a {@link TaskOf}.<br>
+ * Unlike the {@code getResult} methods of {@link TaskOf}, reading the outcome never throws an exception,
+ * so it can be used to branch on the {@link #getState()} of a task in loops that read many results.
+ * @param <T> The result type of the task
+ */
+public final class TaskOutcome<T> {
+
+	private static final TaskOutcome<?> RUNNING = new TaskOutcome<>(TaskState.RUNNING, null, null);
+
+	private final TaskState state;
+	private final T value;
+	private final Throwable exception; //Failure reason or CancellationException
+
+	private TaskOutcome(TaskState state, T value, Throwable exception) {
+		this.state = state;
+		this.value = value;
+		this.exception = exception;
+	}
+
+	@SuppressWarnings("unchecked")
+	/*package*/ static <T> TaskOutcome<T> running() {
+		return (TaskOutcome<T>) RUNNING;
+	}
+
+	/*package*/ static <T> TaskOutcome<T> succeeded(T value) {
+		return new TaskOutcome<>(TaskState.SUCCEEDED, value, null);
+	}
+
+	/*package*/ static <T> TaskOutcome<T> failed(Throwable reason) {
+		return new TaskOutcome<>(TaskState.FAILED, null, reason);
+	}
+
+	/*package*/ static <T> TaskOutcome<T> cancelled(CancellationException reason) {
+		return new TaskOutcome<>(TaskState.CANCELLED, null, reason);
+	}
+
+	/**
+	 * The state of the task when this outcome was read. Only the {@link TaskState#RUNNING} outcome
+	 * can be outdated, all other outcomes are final.
+	 * @return The state of the task
+	 */
+	public TaskState getState() {
+		return state;
+	}
+
+	/**
+	 * The result of the task, if the task was successful.
+	 * @return The result of the task, or {@code null} if the task is not done, failed or was cancelled
+	 */
+	public T getValue() {
+		return value;
+	}
+
+	/**
+	 * The result of the task, if the task was successful.
+	 * @param altValue The value to be returned when the task is not done, failed or was cancelled
+	 * @return The result of the task, or {@code altValue} if the task was not successful
+	 */
+	public T getValueOr(T altValue) {
+		return state == TaskState.SUCCEEDED ? value : altValue;
+	}
+
+	/**
+	 * The exception that caused the task to fail. Unlike {@link TaskOf#getResult()}, the exception
+	 * is not wrapped in an {@link java.util.concurrent.ExecutionException}.
+	 * @return The failure reason, or {@code null} if the task is not in the {@link TaskState#FAILED} state
+	 */
+	public Throwable getFailureReason() {
+		return state == TaskState.FAILED ? exception : null;
+	}
+
+	/**
+	 * The exception that is thrown when retrieving the result of the cancelled task.
+	 * @return The {@link CancellationException}, or {@code null} if the task is not in the
+	 * {@link TaskState#CANCELLED} state
+	 */
+	public CancellationException getCancellationException() {
+		return state == TaskState.CANCELLED ? (CancellationException) exception : null;
+	}
+
+	@Override
+	public String toString() {
+		switch (state) {
+		case SUCCEEDED: return "TaskOutcome[SUCCEEDED: " + value + "]";
+		case FAILED:
+		case CANCELLED: return "TaskOutcome[" + state + ": " + exception + "]";
+		default: return "TaskOutcome[" + state + "]";
+		}
+	}
+}
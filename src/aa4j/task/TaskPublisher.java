@@ -0,0 +1,158 @@
+package aa4j.task;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+
+/**
+ * A {@link Flow.Publisher} that emits the results of a group of tasks in the order in which the tasks complete.
+ * <p>
+ * Every subscriber gets its own subscription, which adds a handler to every task. Completed tasks are queued in a lock-free queue,
+ * and one thread at a time emits them while there is demand. Demand is counted with atomic operations only.
+ * </p>
+ * @param <T> The type of the results
+ */
+/*package*/ final class TaskPublisher<T> implements Flow.Publisher<T> {
+
+	private final TaskOf<? extends T>[] tasks;
+
+	/*package*/ TaskPublisher(TaskOf<? extends T>[] tasks) {
+		this.tasks = tasks;
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super T> subscriber) {
+		Objects.requireNonNull(subscriber, "'subscriber' parameter must not be null");
+		new CompletionOrderSubscription<T>(subscriber, tasks).start();
+	}
+
+	private static final class CompletionOrderSubscription<T> implements Flow.Subscription {
+		private static final VarHandle REQUESTED;
+		private static final VarHandle WIP;
+		private static final VarHandle REGISTRATION = MethodHandles.arrayElementVarHandle(Registration[].class);
+		static {
+			try {
+				final var lookup = MethodHandles.lookup();
+				REQUESTED = lookup.findVarHandle(CompletionOrderSubscription.class, "requested", long.class);
+				WIP = lookup.findVarHandle(CompletionOrderSubscription.class, "wip", int.class);
+			} catch (ReflectiveOperationException e) {
+				throw new ExceptionInInitializerError(e);
+			}
+		}
+
+		private final Flow.Subscriber<? super T> subscriber;
+		private final TaskOf<? extends T>[] tasks;
+		private final Registration[] registrations; //Elements are accessed through REGISTRATION
+		private final ConcurrentLinkedQueue<TaskOf<? extends T>> completed;
+		private volatile long requested; //Long.MAX_VALUE for unbounded demand
+		private volatile int wip; //Signals that are not yet handled by the emitting thread
+		private volatile boolean cancelled;
+		private volatile Throwable badRequest;
+		//Only used by the emitting thread
+		private int emitted;
+		private boolean terminated;
+
+		private CompletionOrderSubscription(Flow.Subscriber<? super T> subscriber, TaskOf<? extends T>[] tasks) {
+			this.subscriber = subscriber;
+			this.tasks = tasks;
+			this.registrations = new Registration[tasks.length];
+			this.completed = new ConcurrentLinkedQueue<>();
+		}
+
+		private void start() {
+			subscriber.onSubscribe(this);
+			for(int i = 0; i < tasks.length && !cancelled; i++) {
+				final TaskOf<? extends T> task = tasks[i];
+				final var registration = task.registerWhenDone(() -> {
+					if(cancelled) return;
+					completed.offer(task);
+					drain();
+				});
+				REGISTRATION.setVolatile(registrations, i, registration);
+				//Either terminate() sees the registration, or this thread sees the cancellation and removes the handler
+				if(cancelled) registration.close();
+			}
+			if(tasks.length == 0) drain();
+		}
+
+		@Override
+		public void request(long n) {
+			if(n <= 0) {
+				badRequest = new IllegalArgumentException("Requested " + n + " values, must be positive");
+			} else {
+				long current, next;
+				do {
+					current = requested;
+					if(current == Long.MAX_VALUE) break;
+					next = current + n;
+					if(next < 0) next = Long.MAX_VALUE; //Overflow means unbounded
+				} while(!REQUESTED.compareAndSet(this, current, next));
+			}
+			drain();
+		}
+
+		@Override
+		public void cancel() {
+			cancelled = true;
+			drain(); //Releases the handlers
+		}
+
+		private void drain() {
+			if((int) WIP.getAndAdd(this, 1) != 0) return; //The emitting thread sees this signal
+			int missed = 1;
+			while(true) {
+				if(!terminated) emit();
+				missed = (int) WIP.getAndAdd(this, -missed) - missed;
+				if(missed == 0) return;
+			}
+		}
+
+		private void emit() {
+			final long demand = requested;
+			long count = 0;
+			while(true) {
+				if(cancelled) {
+					terminate();
+					return;
+				}
+				final var error = badRequest;
+				if(error != null) {
+					terminate();
+					subscriber.onError(error);
+					return;
+				}
+				final var task = completed.peek();
+				if(task == null) break;
+				final var outcome = AbstractCompletionStageTask.doneOutcomeOf(task);
+				final boolean success = AbstractCompletionStageTask.isSuccessOutcome(outcome);
+				if(success && count == demand) break; //Failures are signalled without demand
+				completed.poll();
+				emitted++;
+				if(!success) {
+					terminate();
+					subscriber.onError(((AbstractCompletionStageTask.AltResult) outcome).ex); //A CancellationException for cancelled tasks
+					return;
+				}
+				subscriber.onNext(AbstractCompletionStageTask.decodeValue(outcome));
+				count++;
+			}
+			if(count != 0 && demand != Long.MAX_VALUE) REQUESTED.getAndAdd(this, -count);
+			if(emitted == tasks.length) {
+				terminate();
+				subscriber.onComplete();
+			}
+		}
+
+		private void terminate() {
+			terminated = true;
+			cancelled = true;
+			completed.clear();
+			for(int i = 0; i < registrations.length; i++) { //Handlers that are added later are removed by start()
+				final var registration = (Registration) REGISTRATION.getVolatile(registrations, i);
+				if(registration != null) registration.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package aa4j.task;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * An asynchronous sequence of values, such as the pages of a paginated API or the messages read from a socket.
+ * Values are pulled one at a time, and the source only produces values when they are requested or when
+ * its prefetch buffer has room, so a stream of any length can be processed in constant memory.
+ * <p>
+ * A stream has a single consumer: {@link #next()}, {@link #tryNext(Consumer)} and {@link #forEach(Consumer)}
+ * must not be called while a task returned by {@link #next()} is not done.
+ * Streams never contain {@code null} values.
+ * </p>
+ * @param <T> The type of the values
+ */
+public interface TaskStream<T> extends AutoCloseable {
+
+	/**
+	 * Requests the next value of the stream.<br>
+	 * If a value is already buffered, the returned task is already done. Use {@link #tryNext(Consumer)}
+	 * to process buffered values without creating a task.
+	 * @return A task with the next value, or with an empty {@link Optional} if the stream has ended or was closed.
+	 * If the source of the stream failed, the task fails with the same exception
+	 */
+	public TaskOf<Optional<T>> next();
+
+	/**
+	 * Runs the action for the next value if it is available right away, without creating a task.<br>
+	 * A return value of {@code false} does not mean that the stream has ended: Use {@link #next()} to wait for the next value.
+	 * @param action The action for the value. It runs on the calling thread before this method returns
+	 * @return {@code true} if the action ran for a value, {@code false} if no value was available
+	 * @throws NullPointerException When {@code action} is {@code null}
+	 */
+	public boolean tryNext(Consumer<? super T> action);
+
+	/**
+	 * Runs the action for all remaining values of the stream.<br>
+	 * Buffered values are processed in a loop on the calling thread. When the stream has to wait for a value,
+	 * processing continues on the thread that completes the value.
+	 * @param action The action for each value
+	 * @return A task that succeeds when the stream has ended, or fails if the stream or the action failed.
+	 * Cancelling the task closes the stream
+	 * @throws NullPointerException When {@code action} is {@code null}
+	 */
+	public default Task forEach(Consumer<? super T> action) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		return StreamOperators.forEach(this, action);
+	}
+
+	/**
+	 * A stream of the values of this stream, mapped by a function.
+	 * @param <R> The type of the mapped values
+	 * @param mapFunc The mapping function. It must not return {@code null}
+	 * @return The mapped stream. Closing it closes this stream
+	 * @throws NullPointerException When {@code mapFunc} is {@code null}
+	 */
+	public default <R> TaskStream<R> map(Function<? super T, ? extends R> mapFunc) {
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return new StreamOperators.Mapped<>(this, mapFunc);
+	}
+
+	/**
+	 * A stream of the values of this stream that match a predicate.
+	 * @param predicate The predicate that selects the values
+	 * @return The filtered stream. Closing it closes this stream
+	 * @throws NullPointerException When {@code predicate} is {@code null}
+	 */
+	public default TaskStream<T> filter(Predicate<? super T> predicate) {
+		Objects.requireNonNull(predicate, "'predicate' parameter must not be null");
+		return new StreamOperators.Filtered<>(this, predicate);
+	}
+
+	/**
+	 * A stream of lists with {@code size} consecutive values of this stream each.
+	 * The last list may be shorter if the stream ends.
+	 * @param size The number of values in each list
+	 * @return The batched stream. Closing it closes this stream
+	 * @throws IllegalArgumentException When {@code size} is less than 1
+	 */
+	public default TaskStream<List<T>> batch(int size) {
+		if(size < 1) throw new IllegalArgumentException("'size' must be at least 1");
+		return new StreamOperators.Batched<>(this, size);
+	}
+
+	/**
+	 * Closes the stream. Buffered values are discarded, a pending fetch of the source is cancelled,
+	 * and {@link #next()} returns an empty {@link Optional} from now on.
+	 */
+	@Override
+	public void close();
+}
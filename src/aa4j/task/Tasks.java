@@ -1,19 +1,38 @@
 package aa4j.task;
 
 import java.io.PrintStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.DoubleFunction;
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongFunction;
+import java.util.function.LongUnaryOperator;
 import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import aa4j.TaskExecutorService;
 import aa4j.TaskNotDoneException;
+import aa4j.WaitStrategy;
 import aa4j.function.ActiveCancellableTask;
 import aa4j.function.ActiveCancellableTaskOf;
 import aa4j.function.ActiveTask;
@@ -32,7 +51,7 @@ public final class Tasks {
 	 * @return A {@link TaskAccess} containing all representations of the task
 	 */
 	public static <T> TaskAccess<T> create() {
-		return new NonBlockingTask<>(newCpf(), false);
+		return new NonBlockingTask<>(false);
 	}
 	
 	/**
@@ -57,9 +76,9 @@ public final class Tasks {
 	 */
 	public static <T> TaskAccess<T> create(Runnable onCancellation) {
 		if(onCancellation == null) {
-			return new NonBlockingTask<>(newCpf(), true);
+			return new NonBlockingTask<>(true);
 		} else {
-			return new NonBlockingTask<>(newCpf(), onCancellation);
+			return new NonBlockingTask<>(onCancellation);
 		}
 	}
 	
@@ -72,7 +91,9 @@ public final class Tasks {
 	public static Task delay(long time, TimeUnit unit) {
 		if(time < 0) throw new IllegalArgumentException("time cannot be negative");
 		Objects.requireNonNull(unit, "'unit' parameter must not be null");
-		return new NonBlockingTask<>(newCpf().completeOnTimeout(null, time, unit), false).task();
+		final var task = new NonBlockingTask<Void>(false);
+		CompletableFuture.delayedExecutor(time, unit, Runnable::run).execute(() -> task.succeedImpl(null));
+		return task.task();
 	}
 	
 	/**
@@ -84,7 +105,9 @@ public final class Tasks {
 	public static Task delayCancellable(long time, TimeUnit unit) {
 		if(time < 0) throw new IllegalArgumentException("time cannot be negative");
 		Objects.requireNonNull(unit, "'unit' parameter must not be null");
-		return new NonBlockingTask<>(newCpf().completeOnTimeout(null, time, unit), true).task();
+		final var task = new NonBlockingTask<Void>(true);
+		CompletableFuture.delayedExecutor(time, unit, Runnable::run).execute(() -> task.succeedImpl(null));
+		return task.task();
 	}
 	
 	/**
@@ -97,13 +120,15 @@ public final class Tasks {
 	}
 	
 	/**
-	 * A successfully completed task with a result.
+	 * A successfully completed task with a result.<br>
+	 * Common results ({@code null}, {@link Boolean}s, small {@link Integer}s and the empty {@link java.util.Optional})
+	 * return immutable shared instances.
 	 * @param <T> The type of the task result
 	 * @param value The value that the task should contain
 	 * @return A task that is successfully completed with the given value
 	 */
 	public static <T> TaskOf<T> success(T value) {
-		return new CompletedTask<>(value, null, TaskState.SUCCEEDED).taskOfView;
+		return CompletedTask.success(value);
 	}
 	
 	/**
@@ -113,16 +138,19 @@ public final class Tasks {
 	 * @return A task that has failed with an exception
 	 */
 	public static <T> TaskOf<T> failure(Exception failureReason) {
-		return new CompletedTask<>((T) null, Objects.requireNonNull(failureReason), TaskState.FAILED).taskOfView;
+		return CompletedTask.failure(Objects.requireNonNull(failureReason));
 	}
 	
 	/**
-	 * A task that is cancelled.
+	 * A task that is cancelled.<br>
+	 * While {@link #isStacklessCancellation()} is enabled, all calls return the same task. Its {@link CancellationException}
+	 * has no stack trace, but a {@link CancellationException} cannot disable suppression, so suppressed exceptions
+	 * that a caller adds to it are seen by all callers. Otherwise, every call returns a new task with its own exception.
 	 * @param <T> The type of the task result
 	 * @return A task that has been cancelled
 	 */
 	public static <T> TaskOf<T> cancelled() {
-		return new CompletedTask<>((T) null, null, TaskState.CANCELLED).taskOfView;
+		return CompletedTask.cancelled();
 	}
 	
 	
@@ -144,10 +172,10 @@ public final class Tasks {
 	 * @return A {@link Task} object representing this task
 	 */
 	public static Task run(ActiveTask task, Executor executor) {
-		final BlockingTask<?> t = new BlockingTask<>(newCpf(), false);
+		final BlockingTask<?> t = new BlockingTask<>(false);
 		final TaskDriver<?> d = new TaskDriver<>(t, task);
 		executor.execute(d);
-		return t.taskView;
+		return t.taskView();
 	}
 	
 	/**
@@ -167,10 +195,10 @@ public final class Tasks {
 	 * @return A {@link Task} object representing this task
 	 */
 	public static Task run(ActiveCancellableTask task, Executor executor) {
-		final BlockingTask<?> t = new BlockingTask<>(newCpf(), true);
+		final BlockingTask<?> t = new BlockingTask<>(true);
 		final TaskDriver<?> d = new TaskDriver<>(t, task);
 		executor.execute(d);
-		return t.taskView;
+		return t.taskView();
 	}
 	
 	/**
@@ -192,10 +220,10 @@ public final class Tasks {
 	 * @return A {@link TaskOf} object representing this task
 	 */
 	public static <T> TaskOf<T> run(ActiveTaskOf<T> task, Executor executor) {
-		final BlockingTask<T> t = new BlockingTask<>(newCpf(), false);
+		final BlockingTask<T> t = new BlockingTask<>(false);
 		final TaskDriver<T> d = new TaskDriver<>(t, task);
 		executor.execute(d);
-		return t.taskOfView;
+		return t.taskOfView();
 	}
 	
 	/**
@@ -217,10 +245,10 @@ public final class Tasks {
 	 * @return A {@link TaskOf} object representing this task
 	 */
 	public static <T> TaskOf<T> run(ActiveCancellableTaskOf<T> task, Executor executor) {
-		final BlockingTask<T> t = new BlockingTask<>(newCpf(), true);
+		final BlockingTask<T> t = new BlockingTask<>(true);
 		final TaskDriver<T> d = new TaskDriver<>(t, task);
 		executor.execute(d);
-		return t.taskOfView;
+		return t.taskOfView();
 	}
 	
 	/**
@@ -235,13 +263,64 @@ public final class Tasks {
 	public static <T,R> TaskOf<R> map(TaskOf<T> task, Function<T, R> mapFunc) {
 		Objects.requireNonNull(task, "'task' parameter must not be null");
 		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
-		return new MappedTask<>(task.stage().thenApply(mapFunc), task::cancel).taskOfView;
+		if(task.isDone()) return MappedTask.mapDone(task, mapFunc);
+		return MappedTask.create(task, mapFunc, null).taskOfView();
 	}
 	
+	/**
+	 * Maps the result of this task to a different type using a mapping function that runs on an executor.<br>
+	 * All continuations that are scheduled to the same executor when a task completes are submitted as one task.
+	 * @param <T> Type of the existing task
+	 * @param <R> Type of the mapped result
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that can map the task result to the required type
+	 * @param executor The {@link Executor} that runs the mapping function
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 * If the executor rejects the mapping function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #map(TaskOf, Function)
+	 */
+	public static <T,R> TaskOf<R> map(TaskOf<T> task, Function<T, R> mapFunc, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return MappedTask.create(task, mapFunc, executor).taskOfView();
+	}
+
+	/**
+	 * Starts a sequence of mapping functions that are applied by a single task, instead of one task per
+	 * {@link #map(TaskOf, Function)} call.
+	 * @param <T> Type of the existing task
+	 * @param task The existing task that should be mapped
+	 * @return A {@link TaskMapping} without functions, its {@link TaskMapping#task()} is the existing task
+	 */
+	public static <T> TaskMapping<T, T> mapping(TaskOf<T> task) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		return TaskMapping.of(task);
+	}
+
 	public static <T,R> TaskOf<R> chain(TaskOf<T> task, Function<T, TaskOf<R>> chainedTask) {
 		Objects.requireNonNull(task, "'task' parameter must not be null");
 		Objects.requireNonNull(chainedTask, "'chainedTask' parameter must not be null");
-		return ChainedTask.create(task, chainedTask).taskOfView;
+		if(task.isDone()) return ChainedTask.chainDone(task, chainedTask);
+		return ChainedTask.create(task, chainedTask, null).taskOfView();
+	}
+	
+	/**
+	 * Starts a second task when the first task succeeds. The function that starts the second task runs on an executor.
+	 * @param <T> Type of the first task
+	 * @param <R> Type of the second task
+	 * @param task The first task
+	 * @param chainedTask A function that starts the second task with the result of the first task
+	 * @param executor The {@link Executor} that runs the function
+	 * @return A task that completes with the second task.
+	 * If the executor rejects the function, the returned task fails with the {@link RejectedExecutionException}.
+	 */
+	public static <T,R> TaskOf<R> chain(TaskOf<T> task, Function<T, TaskOf<R>> chainedTask, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(chainedTask, "'chainedTask' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return ChainedTask.create(task, chainedTask, executor).taskOfView();
 	}
 	
 	//erasure means we will have to have some chain2 function names
@@ -250,20 +329,995 @@ public final class Tasks {
 		return chain(task.taskOf(), _null -> chainedTask.get());
 	}
 	
+	public static <R> TaskOf<R> chain(Task task, Supplier<TaskOf<R>> chainedTask, Executor executor) {
+		return chain(task.taskOf(), _null -> chainedTask.get(), executor);
+	}
+	
 	public static <T> Task chain2(TaskOf<T> task, Function<T, Task> chainedTask) {
 		return chain(task, t -> chainedTask.apply(t).taskOf()).task();
 	}
 	
+	public static <T> Task chain2(TaskOf<T> task, Function<T, Task> chainedTask, Executor executor) {
+		return chain(task, t -> chainedTask.apply(t).taskOf(), executor).task();
+	}
+	
 	public static Task chain2(Task task, Supplier<Task> chainedTask) {
 		return chain2(task.taskOf(), _null -> chainedTask.get());
 	}
 	
+	public static Task chain2(Task task, Supplier<Task> chainedTask, Executor executor) {
+		return chain2(task.taskOf(), _null -> chainedTask.get(), executor);
+	}
+	
 	
 	
 	public static <T> TaskOf<T> withResult(Task task, Supplier<T> resultWhenComplete) {
 		return map(task.taskOf(), _null -> resultWhenComplete.get());
 	}
 	
+	/**
+	 * A task that completes in the same way as the existing task, unless the existing task is not done
+	 * after the timeout. In that case, the returned task fails with a {@link TimeoutException} and the existing task is cancelled.<br>
+	 * All timeouts share a single timer thread, and the timer entry is removed as soon as the existing task completes.
+	 * Handlers of the returned task that run without an executor run on the timer thread after a timeout, so they should be short.
+	 * @param <T> The result type of the task
+	 * @param task The existing task
+	 * @param time The timespan after which the task times out
+	 * @param unit The unit for the time parameter
+	 * @return A task with the outcome of the existing task, or a {@link TimeoutException}.
+	 * If the existing task is already done, it is returned itself. Cancelling the returned task cancels the existing task
+	 * @throws IllegalArgumentException When {@code time} is negative
+	 * @throws NullPointerException When {@code task} or {@code unit} is {@code null}
+	 */
+	public static <T> TaskOf<T> withTimeout(TaskOf<T> task, long time, TimeUnit unit) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(unit, "'unit' parameter must not be null");
+		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
+		if(task.isDone()) return task;
+		return TimeoutTask.create(task, unit.toNanos(time), "Task did not complete within " + time + " " + unit).taskOfView();
+	}
+	
+	/**
+	 * A task that completes in the same way as the existing task, unless the existing task is not done
+	 * at the deadline. In that case, the returned task fails with a {@link TimeoutException} and the existing task is cancelled.
+	 * @param <T> The result type of the task
+	 * @param task The existing task
+	 * @param deadline The time at which the task times out. A deadline in the past times out right away if the task is not done
+	 * @return A task with the outcome of the existing task, or a {@link TimeoutException}.
+	 * If the existing task is already done, it is returned itself. Cancelling the returned task cancels the existing task
+	 * @throws NullPointerException When {@code task} or {@code deadline} is {@code null}
+	 * @see #withTimeout(TaskOf, long, TimeUnit)
+	 */
+	public static <T> TaskOf<T> withDeadline(TaskOf<T> task, Instant deadline) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(deadline, "'deadline' parameter must not be null");
+		if(task.isDone()) return task;
+		final long delay = saturatedNanos(Duration.between(Instant.now(), deadline));
+		return TimeoutTask.create(task, delay, "Task did not complete before " + deadline).taskOfView();
+	}
+	
+	private static long saturatedNanos(Duration duration) {
+		try {
+			return duration.toNanos();
+		} catch (ArithmeticException e) { //More than 292 years
+			return duration.isNegative() ? Long.MIN_VALUE : Long.MAX_VALUE;
+		}
+	}
+	
+
+	/*
+	 * Primitive tasks
+	 */
+	
+	/**
+	 * A completely configurable task with {@code int} result that represents some internal time-consuming action.
+	 * Cannot be cancelled.
+	 * @return An {@link IntTaskCompletionSource} that can complete the task
+	 * @see #create()
+	 */
+	public static IntTaskCompletionSource createInt() {
+		return new IntTaskImpl(false).source();
+	}
+	
+	/**
+	 * A completely configurable task with {@code int} result that represents some internal time-consuming action.
+	 * Can be cancelled.
+	 * @param onCancellation Handles a cancellation attempt, or {@code null}
+	 * @return An {@link IntTaskCompletionSource} that can complete the task
+	 * @see #create(Runnable)
+	 */
+	public static IntTaskCompletionSource createInt(Runnable onCancellation) {
+		final var task = new IntTaskImpl(true);
+		if(onCancellation != null) task.whenCancelled(onCancellation);
+		return task.source();
+	}
+	
+	/**
+	 * A successfully completed task with {@code int} result.
+	 * Small values return immutable shared instances.
+	 * @param value The value that the task should contain
+	 * @return A task that is successfully completed with the given value
+	 */
+	public static IntTask successInt(int value) {
+		return IntTaskImpl.succeeded(value);
+	}
+	
+	/**
+	 * A task with {@code int} result that has failed with a exception.
+	 * @param failureReason The exception that caused the task to fail
+	 * @return A task that has failed with an exception
+	 */
+	public static IntTask failureInt(Exception failureReason) {
+		return IntTaskImpl.failed(Objects.requireNonNull(failureReason, "'failureReason' parameter must not be null"));
+	}
+	
+	/**
+	 * A task with {@code int} result that is cancelled.
+	 * Returns a new instance with its own {@link CancellationException}.
+	 * @return A task that has been cancelled
+	 */
+	public static IntTask cancelledInt() {
+		return IntTaskImpl.cancelled();
+	}
+	
+	/**
+	 * Maps the result of this task using a non-blocking mapping function, without boxing the result.
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 */
+	public static IntTask map(IntTask task, IntUnaryOperator mapFunc) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return IntTaskImpl.map(task, mapFunc, null);
+	}
+	
+	/**
+	 * Maps the result of this task using a mapping function that runs on an executor, without boxing the result.
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result
+	 * @param executor The {@link Executor} that runs the mapping function
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 * If the executor rejects the mapping function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #map(IntTask, IntUnaryOperator)
+	 */
+	public static IntTask map(IntTask task, IntUnaryOperator mapFunc, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return IntTaskImpl.map(task, mapFunc, executor);
+	}
+	
+	/**
+	 * Maps the {@code int} result of this task to an object using a non-blocking mapping function.
+	 * @param <R> Type of the mapped result
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result to the required type
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 */
+	public static <R> TaskOf<R> mapToObj(IntTask task, IntFunction<? extends R> mapFunc) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return IntTaskImpl.mapToObj(task, mapFunc, null);
+	}
+	
+	/**
+	 * Maps the {@code int} result of this task to an object using a mapping function that runs on an executor.
+	 * @param <R> Type of the mapped result
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result to the required type
+	 * @param executor The {@link Executor} that runs the mapping function
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 * If the executor rejects the mapping function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #mapToObj(IntTask, IntFunction)
+	 */
+	public static <R> TaskOf<R> mapToObj(IntTask task, IntFunction<? extends R> mapFunc, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return IntTaskImpl.mapToObj(task, mapFunc, executor);
+	}
+	
+	/**
+	 * Maps the result of this task to {@code int} using a non-blocking mapping function.
+	 * @param <T> Type of the existing task
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result to {@code int}
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 */
+	public static <T> IntTask mapToInt(TaskOf<T> task, ToIntFunction<? super T> mapFunc) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return IntTaskImpl.mapToInt(task, mapFunc);
+	}
+	
+	/**
+	 * Starts another task with the result of this task, without boxing the results.
+	 * @param task The existing task
+	 * @param chainedTask A function that starts the next task with the result of the existing task
+	 * @return A task that completes with the result of the chained task.
+	 * In case of cancellation or failure of the existing task, the returend task will have the same state.
+	 */
+	public static IntTask chain(IntTask task, IntFunction<? extends IntTask> chainedTask) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(chainedTask, "'chainedTask' parameter must not be null");
+		return IntTaskImpl.chain(task, chainedTask, null);
+	}
+	
+	/**
+	 * Starts another task with the result of this task, without boxing the results.
+	 * The function that starts the other task runs on an executor.
+	 * @param task The existing task
+	 * @param chainedTask A function that starts the next task with the result of the existing task
+	 * @param executor The {@link Executor} that runs the function
+	 * @return A task that completes with the result of the chained task.
+	 * In case of cancellation or failure of the existing task, the returend task will have the same state.
+	 * If the executor rejects the function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #chain(IntTask, IntFunction)
+	 */
+	public static IntTask chain(IntTask task, IntFunction<? extends IntTask> chainedTask, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(chainedTask, "'chainedTask' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return IntTaskImpl.chain(task, chainedTask, executor);
+	}
+	
+	/**
+	 * A completely configurable task with {@code long} result that represents some internal time-consuming action.
+	 * Cannot be cancelled.
+	 * @return A {@link LongTaskCompletionSource} that can complete the task
+	 * @see #create()
+	 */
+	public static LongTaskCompletionSource createLong() {
+		return new LongTaskImpl(false).source();
+	}
+	
+	/**
+	 * A completely configurable task with {@code long} result that represents some internal time-consuming action.
+	 * Can be cancelled.
+	 * @param onCancellation Handles a cancellation attempt, or {@code null}
+	 * @return A {@link LongTaskCompletionSource} that can complete the task
+	 * @see #create(Runnable)
+	 */
+	public static LongTaskCompletionSource createLong(Runnable onCancellation) {
+		final var task = new LongTaskImpl(true);
+		if(onCancellation != null) task.whenCancelled(onCancellation);
+		return task.source();
+	}
+	
+	/**
+	 * A successfully completed task with {@code long} result.
+	 * @param value The value that the task should contain
+	 * @return A task that is successfully completed with the given value
+	 */
+	public static LongTask successLong(long value) {
+		return LongTaskImpl.succeeded(value);
+	}
+	
+	/**
+	 * A task with {@code long} result that has failed with a exception.
+	 * @param failureReason The exception that caused the task to fail
+	 * @return A task that has failed with an exception
+	 */
+	public static LongTask failureLong(Exception failureReason) {
+		return LongTaskImpl.failed(Objects.requireNonNull(failureReason, "'failureReason' parameter must not be null"));
+	}
+	
+	/**
+	 * A task with {@code long} result that is cancelled.
+	 * Returns a new instance with its own {@link CancellationException}.
+	 * @return A task that has been cancelled
+	 */
+	public static LongTask cancelledLong() {
+		return LongTaskImpl.cancelled();
+	}
+	
+	/**
+	 * Maps the result of this task using a non-blocking mapping function, without boxing the result.
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 */
+	public static LongTask map(LongTask task, LongUnaryOperator mapFunc) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return LongTaskImpl.map(task, mapFunc, null);
+	}
+	
+	/**
+	 * Maps the result of this task using a mapping function that runs on an executor, without boxing the result.
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result
+	 * @param executor The {@link Executor} that runs the mapping function
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 * If the executor rejects the mapping function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #map(LongTask, LongUnaryOperator)
+	 */
+	public static LongTask map(LongTask task, LongUnaryOperator mapFunc, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return LongTaskImpl.map(task, mapFunc, executor);
+	}
+	
+	/**
+	 * Maps the {@code long} result of this task to an object using a non-blocking mapping function.
+	 * @param <R> Type of the mapped result
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result to the required type
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 */
+	public static <R> TaskOf<R> mapToObj(LongTask task, LongFunction<? extends R> mapFunc) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return LongTaskImpl.mapToObj(task, mapFunc, null);
+	}
+	
+	/**
+	 * Maps the {@code long} result of this task to an object using a mapping function that runs on an executor.
+	 * @param <R> Type of the mapped result
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result to the required type
+	 * @param executor The {@link Executor} that runs the mapping function
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 * If the executor rejects the mapping function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #mapToObj(LongTask, LongFunction)
+	 */
+	public static <R> TaskOf<R> mapToObj(LongTask task, LongFunction<? extends R> mapFunc, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return LongTaskImpl.mapToObj(task, mapFunc, executor);
+	}
+	
+	/**
+	 * Maps the result of this task to {@code long} using a non-blocking mapping function.
+	 * @param <T> Type of the existing task
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result to {@code long}
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 */
+	public static <T> LongTask mapToLong(TaskOf<T> task, ToLongFunction<? super T> mapFunc) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return LongTaskImpl.mapToLong(task, mapFunc);
+	}
+	
+	/**
+	 * Starts another task with the result of this task, without boxing the results.
+	 * @param task The existing task
+	 * @param chainedTask A function that starts the next task with the result of the existing task
+	 * @return A task that completes with the result of the chained task.
+	 * In case of cancellation or failure of the existing task, the returend task will have the same state.
+	 */
+	public static LongTask chain(LongTask task, LongFunction<? extends LongTask> chainedTask) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(chainedTask, "'chainedTask' parameter must not be null");
+		return LongTaskImpl.chain(task, chainedTask, null);
+	}
+	
+	/**
+	 * Starts another task with the result of this task, without boxing the results.
+	 * The function that starts the other task runs on an executor.
+	 * @param task The existing task
+	 * @param chainedTask A function that starts the next task with the result of the existing task
+	 * @param executor The {@link Executor} that runs the function
+	 * @return A task that completes with the result of the chained task.
+	 * In case of cancellation or failure of the existing task, the returend task will have the same state.
+	 * If the executor rejects the function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #chain(LongTask, LongFunction)
+	 */
+	public static LongTask chain(LongTask task, LongFunction<? extends LongTask> chainedTask, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(chainedTask, "'chainedTask' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return LongTaskImpl.chain(task, chainedTask, executor);
+	}
+	
+	/**
+	 * A completely configurable task with {@code double} result that represents some internal time-consuming action.
+	 * Cannot be cancelled.
+	 * @return A {@link DoubleTaskCompletionSource} that can complete the task
+	 * @see #create()
+	 */
+	public static DoubleTaskCompletionSource createDouble() {
+		return new DoubleTaskImpl(false).source();
+	}
+	
+	/**
+	 * A completely configurable task with {@code double} result that represents some internal time-consuming action.
+	 * Can be cancelled.
+	 * @param onCancellation Handles a cancellation attempt, or {@code null}
+	 * @return A {@link DoubleTaskCompletionSource} that can complete the task
+	 * @see #create(Runnable)
+	 */
+	public static DoubleTaskCompletionSource createDouble(Runnable onCancellation) {
+		final var task = new DoubleTaskImpl(true);
+		if(onCancellation != null) task.whenCancelled(onCancellation);
+		return task.source();
+	}
+	
+	/**
+	 * A successfully completed task with {@code double} result.
+	 * @param value The value that the task should contain
+	 * @return A task that is successfully completed with the given value
+	 */
+	public static DoubleTask successDouble(double value) {
+		return DoubleTaskImpl.succeeded(value);
+	}
+	
+	/**
+	 * A task with {@code double} result that has failed with a exception.
+	 * @param failureReason The exception that caused the task to fail
+	 * @return A task that has failed with an exception
+	 */
+	public static DoubleTask failureDouble(Exception failureReason) {
+		return DoubleTaskImpl.failed(Objects.requireNonNull(failureReason, "'failureReason' parameter must not be null"));
+	}
+	
+	/**
+	 * A task with {@code double} result that is cancelled.
+	 * Returns a new instance with its own {@link CancellationException}.
+	 * @return A task that has been cancelled
+	 */
+	public static DoubleTask cancelledDouble() {
+		return DoubleTaskImpl.cancelled();
+	}
+	
+	/**
+	 * Maps the result of this task using a non-blocking mapping function, without boxing the result.
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 */
+	public static DoubleTask map(DoubleTask task, DoubleUnaryOperator mapFunc) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return DoubleTaskImpl.map(task, mapFunc, null);
+	}
+	
+	/**
+	 * Maps the result of this task using a mapping function that runs on an executor, without boxing the result.
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result
+	 * @param executor The {@link Executor} that runs the mapping function
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 * If the executor rejects the mapping function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #map(DoubleTask, DoubleUnaryOperator)
+	 */
+	public static DoubleTask map(DoubleTask task, DoubleUnaryOperator mapFunc, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return DoubleTaskImpl.map(task, mapFunc, executor);
+	}
+	
+	/**
+	 * Maps the {@code double} result of this task to an object using a non-blocking mapping function.
+	 * @param <R> Type of the mapped result
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result to the required type
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 */
+	public static <R> TaskOf<R> mapToObj(DoubleTask task, DoubleFunction<? extends R> mapFunc) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return DoubleTaskImpl.mapToObj(task, mapFunc, null);
+	}
+	
+	/**
+	 * Maps the {@code double} result of this task to an object using a mapping function that runs on an executor.
+	 * @param <R> Type of the mapped result
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result to the required type
+	 * @param executor The {@link Executor} that runs the mapping function
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 * If the executor rejects the mapping function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #mapToObj(DoubleTask, DoubleFunction)
+	 */
+	public static <R> TaskOf<R> mapToObj(DoubleTask task, DoubleFunction<? extends R> mapFunc, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return DoubleTaskImpl.mapToObj(task, mapFunc, executor);
+	}
+	
+	/**
+	 * Maps the result of this task to {@code double} using a non-blocking mapping function.
+	 * @param <T> Type of the existing task
+	 * @param task The existing task that should be mapped
+	 * @param mapFunc A function that maps the task result to {@code double}
+	 * @return A task that completes after the existing task and the mapping function.
+	 * In case of cancellation or failure, the returend task will have the same state.
+	 */
+	public static <T> DoubleTask mapToDouble(TaskOf<T> task, ToDoubleFunction<? super T> mapFunc) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return DoubleTaskImpl.mapToDouble(task, mapFunc);
+	}
+	
+	/**
+	 * Starts another task with the result of this task, without boxing the results.
+	 * @param task The existing task
+	 * @param chainedTask A function that starts the next task with the result of the existing task
+	 * @return A task that completes with the result of the chained task.
+	 * In case of cancellation or failure of the existing task, the returend task will have the same state.
+	 */
+	public static DoubleTask chain(DoubleTask task, DoubleFunction<? extends DoubleTask> chainedTask) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(chainedTask, "'chainedTask' parameter must not be null");
+		return DoubleTaskImpl.chain(task, chainedTask, null);
+	}
+	
+	/**
+	 * Starts another task with the result of this task, without boxing the results.
+	 * The function that starts the other task runs on an executor.
+	 * @param task The existing task
+	 * @param chainedTask A function that starts the next task with the result of the existing task
+	 * @param executor The {@link Executor} that runs the function
+	 * @return A task that completes with the result of the chained task.
+	 * In case of cancellation or failure of the existing task, the returend task will have the same state.
+	 * If the executor rejects the function, the returned task fails with the {@link RejectedExecutionException}.
+	 * @see #chain(DoubleTask, DoubleFunction)
+	 */
+	public static DoubleTask chain(DoubleTask task, DoubleFunction<? extends DoubleTask> chainedTask, Executor executor) {
+		Objects.requireNonNull(task, "'task' parameter must not be null");
+		Objects.requireNonNull(chainedTask, "'chainedTask' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		return DoubleTaskImpl.chain(task, chainedTask, executor);
+	}
+	
+	
+	/*
+	 * Combinators
+	 */
+	
+	/**
+	 * A task that succeeds with the results of all tasks, in the same order as the tasks.<br>
+	 * If any of the tasks fails or is cancelled, the combined task fails or is cancelled in the same way right away,
+	 * without waiting for the other tasks. Cancelling the combined task cancels all tasks.
+	 * @param <T> The result type of the tasks
+	 * @param tasks The tasks to combine
+	 * @return A task with a list of all results. The list may contain {@code null} and cannot be modified
+	 * @throws NullPointerException When {@code tasks} or any of the tasks is {@code null}
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs") //The array is copied and only read
+	public static <T> TaskOf<List<T>> whenAll(TaskOf<? extends T>... tasks) {
+		return CombinedTask.<T>all(inputArray(tasks)).taskOfView();
+	}
+	
+	/**
+	 * A task that succeeds with the results of all tasks in the collection, in iteration order.
+	 * @param <T> The result type of the tasks
+	 * @param tasks The tasks to combine
+	 * @return A task with a list of all results. The list may contain {@code null} and cannot be modified
+	 * @throws NullPointerException When {@code tasks} or any of the tasks is {@code null}
+	 * @see #whenAll(TaskOf...)
+	 */
+	public static <T> TaskOf<List<T>> whenAll(Collection<? extends TaskOf<? extends T>> tasks) {
+		return CombinedTask.<T>all(inputArray(tasks)).taskOfView();
+	}
+	
+	/**
+	 * A task that completes in the same way as the first of the tasks that is done: With the same result,
+	 * failure reason or cancellation. Cancelling the combined task cancels all tasks.
+	 * @param <T> The result type of the tasks
+	 * @param tasks The tasks to combine
+	 * @return A task with the outcome of the first task that is done
+	 * @throws IllegalArgumentException When there are no tasks
+	 * @throws NullPointerException When {@code tasks} or any of the tasks is {@code null}
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs") //The array is copied and only read
+	public static <T> TaskOf<T> whenAny(TaskOf<? extends T>... tasks) {
+		return CombinedTask.<T>any(nonEmpty(inputArray(tasks))).taskOfView();
+	}
+	
+	/**
+	 * A task that completes in the same way as the first of the tasks in the collection that is done.
+	 * @param <T> The result type of the tasks
+	 * @param tasks The tasks to combine
+	 * @return A task with the outcome of the first task that is done
+	 * @throws IllegalArgumentException When the collection is empty
+	 * @throws NullPointerException When {@code tasks} or any of the tasks is {@code null}
+	 * @see #whenAny(TaskOf...)
+	 */
+	public static <T> TaskOf<T> whenAny(Collection<? extends TaskOf<? extends T>> tasks) {
+		return CombinedTask.<T>any(nonEmpty(inputArray(tasks))).taskOfView();
+	}
+	
+	/**
+	 * A task that succeeds with the {@link TaskOutcome}s of all tasks, in the same order as the tasks, once all of them are done.
+	 * The combined task never fails. Cancelling it cancels all tasks, and it still succeeds when they are done.
+	 * @param <T> The result type of the tasks
+	 * @param tasks The tasks to combine
+	 * @return A task with a list of all outcomes, which cannot be modified
+	 * @throws NullPointerException When {@code tasks} or any of the tasks is {@code null}
+	 */
+	@SafeVarargs
+	@SuppressWarnings("varargs") //The array is copied and only read
+	public static <T> TaskOf<List<TaskOutcome<T>>> whenAllSettled(TaskOf<? extends T>... tasks) {
+		return CombinedTask.<T>allSettled(inputArray(tasks)).taskOfView();
+	}
+	
+	/**
+	 * A task that succeeds with the {@link TaskOutcome}s of all tasks in the collection, in iteration order.
+	 * @param <T> The result type of the tasks
+	 * @param tasks The tasks to combine
+	 * @return A task with a list of all outcomes, which cannot be modified
+	 * @throws NullPointerException When {@code tasks} or any of the tasks is {@code null}
+	 * @see #whenAllSettled(TaskOf...)
+	 */
+	public static <T> TaskOf<List<TaskOutcome<T>>> whenAllSettled(Collection<? extends TaskOf<? extends T>> tasks) {
+		return CombinedTask.<T>allSettled(inputArray(tasks)).taskOfView();
+	}
+	
+	private static TaskOf<?>[] inputArray(TaskOf<?>[] tasks) {
+		Objects.requireNonNull(tasks, "'tasks' parameter must not be null");
+		final var copy = tasks.clone(); //The caller may reuse the array
+		for(var task : copy) Objects.requireNonNull(task, "'tasks' must not contain null");
+		return copy;
+	}
+	
+	private static TaskOf<?>[] inputArray(Collection<? extends TaskOf<?>> tasks) {
+		Objects.requireNonNull(tasks, "'tasks' parameter must not be null");
+		final var array = tasks.toArray(new TaskOf<?>[tasks.size()]);
+		for(var task : array) Objects.requireNonNull(task, "'tasks' must not contain null");
+		return array;
+	}
+	
+	private static TaskOf<?>[] nonEmpty(TaskOf<?>[] tasks) {
+		if(tasks.length == 0) throw new IllegalArgumentException("'tasks' must not be empty");
+		return tasks;
+	}
+	
+	
+	/*
+	 * Bulk operations
+	 */
+	
+	/**
+	 * Applies a function to all elements of a collection on an executor, with at most {@code maxConcurrency}
+	 * elements being processed at the same time.<br>
+	 * The elements are processed in chunks, so no task or executor submission is created per element.
+	 * If the function throws for any element, the task fails with that exception right away and the remaining elements
+	 * are skipped. Cancelling the task stops processing after the current elements.
+	 * @param <T> The type of the elements
+	 * @param <R> The type of the mapped results
+	 * @param elements The elements to map. The collection is copied, changes after this call have no effect
+	 * @param mapFunc The function that maps each element. It may run on several threads at the same time
+	 * @param maxConcurrency The maximum number of elements that are processed at the same time
+	 * @param executor The {@link Executor} that runs the function
+	 * @return A task with a list of the mapped results, in iteration order. The list may contain {@code null} and cannot be modified.
+	 * If the executor rejects the work, the task fails with the {@link RejectedExecutionException}.
+	 * @throws IllegalArgumentException When {@code maxConcurrency} is less than 1
+	 * @throws NullPointerException When any parameter is {@code null}
+	 */
+	public static <T,R> TaskOf<List<R>> mapParallel(Collection<? extends T> elements, Function<? super T, ? extends R> mapFunc,
+			int maxConcurrency, Executor executor) {
+		Objects.requireNonNull(mapFunc, "'mapFunc' parameter must not be null");
+		return ParallelTask.<T, R>map(bulkArray(elements, maxConcurrency, executor), mapFunc, maxConcurrency, executor).taskOfView();
+	}
+	
+	/**
+	 * Applies a function to all elements of a collection on the {@link #defaultExecutor()}.
+	 * @param <T> The type of the elements
+	 * @param <R> The type of the mapped results
+	 * @param elements The elements to map. The collection is copied, changes after this call have no effect
+	 * @param mapFunc The function that maps each element. It may run on several threads at the same time
+	 * @param maxConcurrency The maximum number of elements that are processed at the same time
+	 * @return A task with a list of the mapped results, in iteration order. The list may contain {@code null} and cannot be modified
+	 * @throws IllegalArgumentException When {@code maxConcurrency} is less than 1
+	 * @throws NullPointerException When any parameter is {@code null}
+	 * @see #mapParallel(Collection, Function, int, Executor)
+	 */
+	public static <T,R> TaskOf<List<R>> mapParallel(Collection<? extends T> elements, Function<? super T, ? extends R> mapFunc,
+			int maxConcurrency) {
+		return mapParallel(elements, mapFunc, maxConcurrency, defaultExecutor());
+	}
+	
+	/**
+	 * Runs an action for all elements of a collection on an executor, with at most {@code maxConcurrency}
+	 * elements being processed at the same time.<br>
+	 * The elements are processed in chunks, so no task or executor submission is created per element.
+	 * If the action throws for any element, the task fails with that exception right away and the remaining elements
+	 * are skipped. Cancelling the task stops processing after the current elements.
+	 * @param <T> The type of the elements
+	 * @param elements The elements to process. The collection is copied, changes after this call have no effect
+	 * @param action The action for each element. It may run on several threads at the same time
+	 * @param maxConcurrency The maximum number of elements that are processed at the same time
+	 * @param executor The {@link Executor} that runs the action
+	 * @return A task that completes when the action ran for all elements.
+	 * If the executor rejects the work, the task fails with the {@link RejectedExecutionException}.
+	 * @throws IllegalArgumentException When {@code maxConcurrency} is less than 1
+	 * @throws NullPointerException When any parameter is {@code null}
+	 */
+	public static <T> Task forEachParallel(Collection<? extends T> elements, Consumer<? super T> action,
+			int maxConcurrency, Executor executor) {
+		Objects.requireNonNull(action, "'action' parameter must not be null");
+		final Function<Object, Object> function = element -> {
+			@SuppressWarnings("unchecked")
+			final T value = (T) element;
+			action.accept(value);
+			return null;
+		};
+		return ParallelTask.forEach(bulkArray(elements, maxConcurrency, executor), function, maxConcurrency, executor).taskView();
+	}
+	
+	/**
+	 * Runs an action for all elements of a collection on the {@link #defaultExecutor()}.
+	 * @param <T> The type of the elements
+	 * @param elements The elements to process. The collection is copied, changes after this call have no effect
+	 * @param action The action for each element. It may run on several threads at the same time
+	 * @param maxConcurrency The maximum number of elements that are processed at the same time
+	 * @return A task that completes when the action ran for all elements
+	 * @throws IllegalArgumentException When {@code maxConcurrency} is less than 1
+	 * @throws NullPointerException When any parameter is {@code null}
+	 * @see #forEachParallel(Collection, Consumer, int, Executor)
+	 */
+	public static <T> Task forEachParallel(Collection<? extends T> elements, Consumer<? super T> action, int maxConcurrency) {
+		return forEachParallel(elements, action, maxConcurrency, defaultExecutor());
+	}
+	
+	
+	private static Object[] bulkArray(Collection<?> elements, int maxConcurrency, Executor executor) {
+		Objects.requireNonNull(elements, "'elements' parameter must not be null");
+		Objects.requireNonNull(executor, "'executor' parameter must not be null");
+		if(maxConcurrency < 1) throw new IllegalArgumentException("'maxConcurrency' must be at least 1");
+		return elements.toArray();
+	}
+	
+	
+	/*
+	 * Streams
+	 */
+	
+	/**
+	 * A stream of values that are fetched one at a time.<br>
+	 * The fetch function is only called again after the task it returned is done. It is called when the consumer waits
+	 * for a value, or ahead of time while fewer than {@code prefetch} values are buffered.
+	 * The stream ends when a fetched task succeeds with an empty {@link Optional}, and fails when a fetched task fails.
+	 * @param <T> The type of the values
+	 * @param fetch A function that returns a task for the next value, for example the next page of a paginated API
+	 * @param prefetch The maximum number of values that are fetched before the consumer requests them. With 0, values
+	 * are only fetched on request
+	 * @return A stream of the fetched values
+	 * @throws IllegalArgumentException When {@code prefetch} is negative
+	 * @throws NullPointerException When {@code fetch} is {@code null}
+	 */
+	public static <T> TaskStream<T> stream(Supplier<? extends TaskOf<Optional<T>>> fetch, int prefetch) {
+		Objects.requireNonNull(fetch, "'fetch' parameter must not be null");
+		if(prefetch < 0) throw new IllegalArgumentException("'prefetch' must not be negative");
+		return new FetchingTaskStream<>(fetch, prefetch);
+	}
+	
+	/**
+	 * A stream of the values of a {@link Flow.Publisher}. The stream subscribes right away.<br>
+	 * It requests {@code prefetch} values at first, and more values in batches as the consumer takes them,
+	 * so no more than {@code prefetch} values are buffered. Closing the stream cancels the subscription.
+	 * @param <T> The type of the values
+	 * @param publisher The publisher of the values
+	 * @param prefetch The maximum number of values that are requested before the consumer takes them
+	 * @return A stream of the published values. It ends when the publisher completes, and fails when the publisher signals an error
+	 * @throws IllegalArgumentException When {@code prefetch} is less than 1
+	 * @throws NullPointerException When {@code publisher} is {@code null}
+	 */
+	public static <T> TaskStream<T> fromPublisher(Flow.Publisher<? extends T> publisher, int prefetch) {
+		Objects.requireNonNull(publisher, "'publisher' parameter must not be null");
+		if(prefetch < 1) throw new IllegalArgumentException("'prefetch' must be at least 1");
+		final var stream = new PublisherTaskStream<T>(prefetch);
+		publisher.subscribe(stream);
+		return stream;
+	}
+	
+	/**
+	 * A {@link Flow.Publisher} that emits the results of the tasks in the order in which the tasks complete,
+	 * as far as the subscriber requested them.<br>
+	 * The first task that fails or is cancelled ends the subscription with {@code onError}, with the failure reason
+	 * or a {@link CancellationException}. Cancelling the subscription does not cancel the tasks.
+	 * Every subscriber receives the results of all tasks.
+	 * @param <T> The result type of the tasks
+	 * @param tasks The tasks. The collection is copied, changes after this call have no effect
+	 * @return A publisher of the task results
+	 * @throws NullPointerException When {@code tasks} or any of the tasks is {@code null}
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> Flow.Publisher<T> toPublisher(Collection<? extends TaskOf<? extends T>> tasks) {
+		return new TaskPublisher<T>((TaskOf<? extends T>[]) inputArray(tasks));
+	}
+	
+	
+	/**
+	 * Waits until all tasks in the collection are done or the calling thread is interrupted.<br>
+	 * The calling thread waits only once for the whole collection, instead of waiting for every task in turn.
+	 * @param tasks The tasks to wait for
+	 * @throws InterruptedException When the thread is interrupted while waiting for the tasks
+	 * @throws NullPointerException When {@code tasks} is {@code null}
+	 */
+	public static void awaitAll(Collection<? extends TaskOf<?>> tasks) throws InterruptedException {
+		try {
+			MultiTaskAwaiter.awaitAll(tasks, -1, null, null, true, null);
+		} catch (TimeoutException e) {
+			throw new AssertionError("Wait without timeout timed out", e);
+		}
+	}
+	
+	/**
+	 * Waits until all tasks in the collection are done or the calling thread is interrupted,
+	 * using the supplied {@link WaitStrategy} instead of {@link #defaultWaitStrategy()}.
+	 * @param tasks The tasks to wait for
+	 * @param strategy The {@link WaitStrategy} used to wait for the tasks
+	 * @throws InterruptedException When the thread is interrupted while waiting for the tasks
+	 * @throws NullPointerException When {@code tasks} or {@code strategy} is {@code null}
+	 */
+	public static void awaitAll(Collection<? extends TaskOf<?>> tasks, WaitStrategy strategy) throws InterruptedException {
+		Objects.requireNonNull(strategy, "'strategy' parameter must not be null");
+		try {
+			MultiTaskAwaiter.awaitAll(tasks, -1, null, null, true, strategy);
+		} catch (TimeoutException e) {
+			throw new AssertionError("Wait without timeout timed out", e);
+		}
+	}
+	
+	/**
+	 * Waits until all tasks in the collection are done, ignoring interrupts of the calling thread.<br>
+	 * If the thread is interrupted while waiting, the thread's interrupt flag will
+	 * be set after this method returns.
+	 * @param tasks The tasks to wait for
+	 * @throws NullPointerException When {@code tasks} is {@code null}
+	 */
+	public static void awaitAllUninterruptibly(Collection<? extends TaskOf<?>> tasks) {
+		try {
+			MultiTaskAwaiter.awaitAll(tasks, -1, null, null, false, null);
+		} catch (InterruptedException | TimeoutException e) {
+			throw new AssertionError("Uninterruptible wait without timeout was interrupted or timed out", e);
+		}
+	}
+	
+	/**
+	 * Waits until all tasks in the collection are done, the timeout has elapsed or the calling thread is interrupted.
+	 * @param tasks The tasks to wait for
+	 * @param time The time to wait
+	 * @param unit The unit of the {@code time} value
+	 * @throws InterruptedException When the thread is interrupted while waiting for the tasks
+	 * @throws TimeoutException When the timeout elapsed before all tasks were done
+	 * @throws IllegalArgumentException When {@code time} is negative
+	 * @throws NullPointerException When {@code tasks} or {@code unit} is {@code null}
+	 */
+	public static void awaitAll(Collection<? extends TaskOf<?>> tasks, long time, TimeUnit unit) throws InterruptedException, TimeoutException {
+		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
+		Objects.requireNonNull(unit, "'unit' parameter must not be null");
+		MultiTaskAwaiter.awaitAll(tasks, time, unit, null, true, null);
+	}
+	
+	/**
+	 * Waits until all tasks in the collection are done, or the supplied token requests cancellation, or the calling thread is interrupted.<br>
+	 * Cancelling the token will cancel the waiting process and resume this thread, but will not cancel the tasks themselves.
+	 * @param tasks The tasks to wait for
+	 * @param token An unbound {@link CancellationToken}
+	 * @throws InterruptedException When the thread is interrupted while waiting for the tasks
+	 * @throws CancellationException When the token was cancelled before all tasks were done
+	 * @throws IllegalArgumentException When the token is already bound to an action
+	 * @throws NullPointerException When {@code tasks} or {@code token} is {@code null}
+	 */
+	public static void awaitAll(Collection<? extends TaskOf<?>> tasks, CancellationToken token) throws InterruptedException, CancellationException {
+		Objects.requireNonNull(token, "'token' parameter must not be null");
+		try {
+			MultiTaskAwaiter.awaitAll(tasks, -1, null, token, true, null);
+		} catch (TimeoutException e) {
+			throw new AssertionError("Wait without timeout timed out", e);
+		}
+	}
+	
+	/**
+	 * Waits until any task in the collection is done or the calling thread is interrupted.<br>
+	 * The calling thread waits only once for the whole collection.
+	 * @param <T> The type of the tasks
+	 * @param tasks The tasks to wait for
+	 * @return A task from the collection that is done
+	 * @throws InterruptedException When the thread is interrupted while waiting for the tasks
+	 * @throws IllegalArgumentException When {@code tasks} is empty
+	 * @throws NullPointerException When {@code tasks} is {@code null}
+	 */
+	public static <T extends TaskOf<?>> T awaitAny(Collection<? extends T> tasks) throws InterruptedException {
+		try {
+			return MultiTaskAwaiter.awaitAny(tasks, -1, null, null, true, null);
+		} catch (TimeoutException e) {
+			throw new AssertionError("Wait without timeout timed out", e);
+		}
+	}
+	
+	/**
+	 * Waits until any task in the collection is done or the calling thread is interrupted,
+	 * using the supplied {@link WaitStrategy} instead of {@link #defaultWaitStrategy()}.
+	 * @param <T> The type of the tasks
+	 * @param tasks The tasks to wait for
+	 * @param strategy The {@link WaitStrategy} used to wait for the tasks
+	 * @return A task from the collection that is done
+	 * @throws InterruptedException When the thread is interrupted while waiting for the tasks
+	 * @throws IllegalArgumentException When {@code tasks} is empty
+	 * @throws NullPointerException When {@code tasks} or {@code strategy} is {@code null}
+	 */
+	public static <T extends TaskOf<?>> T awaitAny(Collection<? extends T> tasks, WaitStrategy strategy) throws InterruptedException {
+		Objects.requireNonNull(strategy, "'strategy' parameter must not be null");
+		try {
+			return MultiTaskAwaiter.awaitAny(tasks, -1, null, null, true, strategy);
+		} catch (TimeoutException e) {
+			throw new AssertionError("Wait without timeout timed out", e);
+		}
+	}
+	
+	/**
+	 * Waits until any task in the collection is done, ignoring interrupts of the calling thread.<br>
+	 * If the thread is interrupted while waiting, the thread's interrupt flag will
+	 * be set after this method returns.
+	 * @param <T> The type of the tasks
+	 * @param tasks The tasks to wait for
+	 * @return A task from the collection that is done
+	 * @throws IllegalArgumentException When {@code tasks} is empty
+	 * @throws NullPointerException When {@code tasks} is {@code null}
+	 */
+	public static <T extends TaskOf<?>> T awaitAnyUninterruptibly(Collection<? extends T> tasks) {
+		try {
+			return MultiTaskAwaiter.awaitAny(tasks, -1, null, null, false, null);
+		} catch (InterruptedException | TimeoutException e) {
+			throw new AssertionError("Uninterruptible wait without timeout was interrupted or timed out", e);
+		}
+	}
+	
+	/**
+	 * Waits until any task in the collection is done, the timeout has elapsed or the calling thread is interrupted.
+	 * @param <T> The type of the tasks
+	 * @param tasks The tasks to wait for
+	 * @param time The time to wait
+	 * @param unit The unit of the {@code time} value
+	 * @return A task from the collection that is done
+	 * @throws InterruptedException When the thread is interrupted while waiting for the tasks
+	 * @throws TimeoutException When the timeout elapsed before any task was done
+	 * @throws IllegalArgumentException When {@code time} is negative or {@code tasks} is empty
+	 * @throws NullPointerException When {@code tasks} or {@code unit} is {@code null}
+	 */
+	public static <T extends TaskOf<?>> T awaitAny(Collection<? extends T> tasks, long time, TimeUnit unit) throws InterruptedException, TimeoutException {
+		if(time < 0) throw new IllegalArgumentException("'time' parameter must not be negative");
+		Objects.requireNonNull(unit, "'unit' parameter must not be null");
+		return MultiTaskAwaiter.awaitAny(tasks, time, unit, null, true, null);
+	}
+	
+	/**
+	 * Waits until any task in the collection is done, or the supplied token requests cancellation, or the calling thread is interrupted.<br>
+	 * Cancelling the token will cancel the waiting process and resume this thread, but will not cancel the tasks themselves.
+	 * @param <T> The type of the tasks
+	 * @param tasks The tasks to wait for
+	 * @param token An unbound {@link CancellationToken}
+	 * @return A task from the collection that is done
+	 * @throws InterruptedException When the thread is interrupted while waiting for the tasks
+	 * @throws CancellationException When the token was cancelled before any task was done
+	 * @throws IllegalArgumentException When the token is already bound to an action or {@code tasks} is empty
+	 * @throws NullPointerException When {@code tasks} or {@code token} is {@code null}
+	 */
+	public static <T extends TaskOf<?>> T awaitAny(Collection<? extends T> tasks, CancellationToken token) throws InterruptedException, CancellationException {
+		Objects.requireNonNull(token, "'token' parameter must not be null");
+		try {
+			return MultiTaskAwaiter.awaitAny(tasks, -1, null, token, true, null);
+		} catch (TimeoutException e) {
+			throw new AssertionError("Wait without timeout timed out", e);
+		}
+	}
 	
 	
 	
@@ -323,7 +1377,29 @@ public final class Tasks {
 	}
 	
 	
-	private static volatile Supplier<ExecutorService> defaultExecutor = null;
+	/**
+	 * The registration of a handler that cannot be removed, returned by the default {@code registerWhen*} methods.
+	 */
+	/*package*/ static final Registration PERMANENT_REGISTRATION = () -> {};
+	
+	/**
+	 * Runs an async handler of a task on the executor. The handler has no task of its own that a rejection could fail,
+	 * so a {@link RejectedExecutionException} is passed to the uncaught exception handler of the current thread.
+	 */
+	/*package*/ static void executeHandler(Executor executor, Runnable handler) {
+		try {
+			executor.execute(handler);
+		} catch (RejectedExecutionException ex) {
+			reportRejected(ex);
+		}
+	}
+	
+	/*package*/ static void reportRejected(RejectedExecutionException ex) {
+		final var thread = Thread.currentThread();
+		thread.getUncaughtExceptionHandler().uncaughtException(thread, ex);
+	}
+	
+		private static volatile Supplier<ExecutorService> defaultExecutor = null;
 	
 	/**
 	 * The default {@link ExecutorService} used to execute asynchronous tasks
@@ -357,32 +1433,118 @@ public final class Tasks {
 	}
 	
 	
-	private static <T> CompletableFuture<T> newCpf() {
-		return new UnobtrudableCompletableFuture<>(); //can change this to use special implementation for everything
+	private static volatile WaitStrategy defaultWaitStrategy = WaitStrategy.park();
+	
+	/**
+	 * The default {@link WaitStrategy} used by tasks when a thread has to wait for them
+	 * and no other strategy is given. Defaults to {@link WaitStrategy#park()},
+	 * but can be changed through {@link #setDefaultWaitStrategy(WaitStrategy)}.
+	 * @return The default wait strategy
+	 */
+	public static WaitStrategy defaultWaitStrategy() {
+		return defaultWaitStrategy;
+	}
+	
+	/**
+	 * Changes the default {@link WaitStrategy} used by tasks created through this class.
+	 * Tasks read the strategy every time a thread has to wait for them.<br>
+	 * If {@code strategy} is {@code null}, {@link WaitStrategy#park()} will be used.
+	 * <p>
+	 * If a security manager is present, this operation requires a {@link RuntimePermission}
+	 * with name {@code "aa4j.setDefaultWaitStrategy"}.
+	 * </p>
+	 * @param strategy The strategy to use, or {@code null} to reset to default
+	 * @see TaskOf#sync(long, TimeUnit, CancellationToken, boolean, WaitStrategy)
+	 */
+	public static void setDefaultWaitStrategy(WaitStrategy strategy) {
+		new RuntimePermission("aa4j.setDefaultWaitStrategy").checkGuard(null);
+		defaultWaitStrategy = strategy == null ? WaitStrategy.park() : strategy;
+	}
+	
+	
+	private static volatile boolean trampolinedCompletion = Boolean.getBoolean("aa4j.trampolinedCompletion");
+	
+	/**
+	 * Whether tasks that are completed by a handler are queued instead of completed recursively. Defaults to the value
+	 * of the {@code aa4j.trampolinedCompletion} system property, or {@code false} if it is not set,
+	 * but can be changed through {@link #setTrampolinedCompletion(boolean)}.
+	 * @return {@code true} if completion is trampolined, {@code false} if not
+	 */
+	public static boolean isTrampolinedCompletion() {
+		return trampolinedCompletion;
+	}
+	
+	/**
+	 * Changes whether completion is trampolined.<br>
+	 * Each thread that completes a task keeps one queue of completed tasks, and runs their handlers and dependent tasks
+	 * in a loop. Dependent tasks, including chained tasks whose function returned a task that is already done, always use
+	 * that queue, so long {@link #map(TaskOf, Function)} and {@link #chain(TaskOf, Function)} sequences complete with a
+	 * constant stack depth. When enabled, tasks that are completed by user code in a handler are queued as well.
+	 * Otherwise, they are completed in a nested loop before the completing method returns.
+	 * <p>
+	 * A queued task is done, but its handlers run later. A handler that completes a task and then waits for some
+	 * other thread that waits for that task will therefore never return.
+	 * </p>
+	 * <p>
+	 * If a security manager is present, this operation requires a {@link RuntimePermission}
+	 * with name {@code "aa4j.setTrampolinedCompletion"}.
+	 * </p>
+	 * @param enabled {@code true} to queue tasks completed in handlers, {@code false} to complete them recursively
+	 */
+	public static void setTrampolinedCompletion(boolean enabled) {
+		new RuntimePermission("aa4j.setTrampolinedCompletion").checkGuard(null);
+		trampolinedCompletion = enabled;
+	}
+	
+	private static volatile boolean stacklessCancellation = Boolean.getBoolean("aa4j.stacklessCancellation");
+	
+	/**
+	 * Whether cancelling tasks creates exceptions without stack traces. Defaults to the value of the
+	 * {@code aa4j.stacklessCancellation} system property, or {@code false} if it is not set,
+	 * but can be changed through {@link #setStacklessCancellation(boolean)}.
+	 * @return {@code true} if cancellation exceptions have no stack trace, {@code false} if they have full stack traces
+	 */
+	public static boolean isStacklessCancellation() {
+		return stacklessCancellation;
+	}
+	
+	/**
+	 * Changes whether cancelling tasks fills in stack traces.<br>
+	 * When enabled, the {@link CancellationException}s of cancelled tasks have no stack trace, and
+	 * {@link aa4j.CancellationStatusSupplier#allowCancellation()} returns one shared {@link aa4j.CancellationConfirmed} object.
+	 * This makes cancelling large numbers of tasks much cheaper. Disable it to get full stack traces when debugging.
+	 * <p>
+	 * If a security manager is present, this operation requires a {@link RuntimePermission}
+	 * with name {@code "aa4j.setStacklessCancellation"}.
+	 * </p>
+	 * @param enabled {@code true} to create cancellation exceptions without stack traces, {@code false} for full stack traces
+	 */
+	public static void setStacklessCancellation(boolean enabled) {
+		new RuntimePermission("aa4j.setStacklessCancellation").checkGuard(null);
+		stacklessCancellation = enabled;
 	}
 	
-	private static final class UnobtrudableCompletableFuture<T> extends CompletableFuture<T> {
+	/**
+	 * @return The exception stored in a task when it is cancelled, see {@link #isStacklessCancellation()}
+	 */
+	/*package*/ static CancellationException newCancellationException() {
+		return stacklessCancellation ? newStacklessCancellationException() : new CancellationException();
+	}
+	
+	/**
+	 * @return An exception without stack trace, regardless of {@link #isStacklessCancellation()}
+	 */
+	/*package*/ static CancellationException newStacklessCancellationException() {
+		return new StacklessCancellationException();
+	}
+	
+	private static final class StacklessCancellationException extends CancellationException {
+		private static final long serialVersionUID = -2967380447624563618L;
 
 		@Override
-		public CompletableFuture<T> toCompletableFuture() {
+		public synchronized Throwable fillInStackTrace() {
 			return this;
 		}
-
-		@Override
-		public void obtrudeValue(T value) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public void obtrudeException(Throwable ex) {
-			throw new UnsupportedOperationException();
-		}
-
-		@Override
-		public <U> CompletableFuture<U> newIncompleteFuture() {
-			return newCpf();
-		}
-		
 	}
 
 }
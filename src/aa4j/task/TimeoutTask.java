@@ -0,0 +1,73 @@
+package aa4j.task;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A task that completes like its source task, or fails with a {@link TimeoutException} and cancels the source task
+ * if the source task is not done in time.
+ * <p>
+ * All timeouts share one daemon timer thread. The timer entry is removed as soon as the source task completes,
+ * so timeouts of tasks that completed early do not stay in memory until they expire.
+ * </p>
+ * @param <T> The result type of the task
+ */
+/*package*/ final class TimeoutTask<T> extends AbstractCompletionStageTask<T> {
+
+	private static final class TimerHolder { //Created on first use
+		private static final ScheduledThreadPoolExecutor TIMER;
+		static {
+			TIMER = new ScheduledThreadPoolExecutor(1, r -> {
+				final var thread = new Thread(r, "aa4j-timeout");
+				thread.setDaemon(true);
+				return thread;
+			});
+			TIMER.setRemoveOnCancelPolicy(true);
+		}
+	}
+
+	private final TaskOf<T> source;
+	private final String message;
+	private volatile ScheduledFuture<?> timer;
+
+	private TimeoutTask(TaskOf<T> source, String message) {
+		this.source = source;
+		this.message = message;
+	}
+
+	/**
+	 * @param delay The time until the timeout in nanoseconds, may be negative
+	 */
+	/*package*/ static <T> TimeoutTask<T> create(TaskOf<T> source, long delay, String message) {
+		final var task = new TimeoutTask<>(source, message);
+		task.timer = TimerHolder.TIMER.schedule(task::expired, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+		onDone(source, new SourceDone(task));
+		return task;
+	}
+
+	private void expired() {
+		if(failImpl(new TimeoutException(message))) source.cancel();
+	}
+
+	@Override
+	protected CancelResult cancelImpl() {
+		if(isDoneImpl()) return fromDoneState();
+		return source.cancel();
+	}
+
+	private static final class SourceDone extends Completion {
+		private final TimeoutTask<?> task;
+
+		private SourceDone(TimeoutTask<?> task) {
+			this.task = task;
+		}
+
+		@Override
+		/*package*/ AbstractCompletionStageTask<?> fire(Object outcome) {
+			task.timer.cancel(false); //Removes the entry from the timer queue
+			return task.setOutcome(outcome) ? task : null;
+		}
+	}
+}
@@ -4,7 +4,6 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -89,7 +88,7 @@ class WrappingTaskExecutor implements TaskExecutorService {
 	public Task submit(ActiveTask task) {
 		if(delegate.isShutdown()) throw new RejectedExecutionException("Delegate ExecutorService is shut down");
 		
-		final BlockingTask<Void> t = new BlockingTask<>(new CompletableFuture<>(), false);
+		final BlockingTask<Void> t = new BlockingTask<>(false);
 		final CancellationToken tct = t.token();
 		final TaskDriver<?> d = new TaskDriver<Void>(t, task) {
 			@Override 
@@ -107,14 +106,14 @@ class WrappingTaskExecutor implements TaskExecutorService {
 			tcts.remove(tct);
 			throw e;
 		}
-		return t.taskView;
+		return t.taskView();
 	}
 
 	@Override
 	public Task submit(ActiveCancellableTask task) {
 		if(delegate.isShutdown()) throw new RejectedExecutionException("Delegate ExecutorService is shut down");
 		
-		final BlockingTask<Void> t = new BlockingTask<>(new CompletableFuture<>(), false);
+		final BlockingTask<Void> t = new BlockingTask<>(false);
 		final CancellationToken tct = t.token();
 		final TaskDriver<?> d = new TaskDriver<Void>(t, task) {
 			@Override 
@@ -132,14 +131,14 @@ class WrappingTaskExecutor implements TaskExecutorService {
 			tcts.remove(tct);
 			throw e;
 		}
-		return t.taskView;
+		return t.taskView();
 	}
 
 	@Override
 	public <T> TaskOf<T> submit(ActiveTaskOf<T> task) {
 		if(delegate.isShutdown()) throw new RejectedExecutionException("Delegate ExecutorService is shut down");
 		
-		final BlockingTask<T> t = new BlockingTask<>(new CompletableFuture<>(), false);
+		final BlockingTask<T> t = new BlockingTask<>(false);
 		final CancellationToken tct = t.token();
 		final TaskDriver<T> d = new TaskDriver<T>(t, task) {
 			@Override 
@@ -157,14 +156,14 @@ class WrappingTaskExecutor implements TaskExecutorService {
 			tcts.remove(tct);
 			throw e;
 		}
-		return t.taskOfView;
+		return t.taskOfView();
 	}
 
 	@Override
 	public <T> TaskOf<T> submit(ActiveCancellableTaskOf<T> task) {
 		if(delegate.isShutdown()) throw new RejectedExecutionException("Delegate ExecutorService is shut down");
 		
-		final BlockingTask<T> t = new BlockingTask<>(new CompletableFuture<>(), false);
+		final BlockingTask<T> t = new BlockingTask<>(false);
 		final CancellationToken tct = t.token();
 		final TaskDriver<T> d = new TaskDriver<T>(t, task) {
 			@Override 
@@ -182,7 +181,7 @@ class WrappingTaskExecutor implements TaskExecutorService {
 			tcts.remove(tct);
 			throw e;
 		}
-		return t.taskOfView;
+		return t.taskOfView();
 	}
 
 	@Override